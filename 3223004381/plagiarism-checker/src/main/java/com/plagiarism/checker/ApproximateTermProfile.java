@@ -0,0 +1,168 @@
+package com.plagiarism.checker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 超大文档的近似词频画像，内存占用固定、与词汇量无关：
+ * 词频记在 {@link CountMinSketch} 中，另保留出现最多的若干高频词，
+ * 词语集合用 {@link MinHashSketch} 表示，可逐词流式累加。
+ *
+ * 余弦估计时，两侧高频词并集中的词逐个查询词频、直接累加点积和模长，
+ * 再从摘要中减去这些词，只有剩余的长尾部分用摘要内积估计。
+ * 内积的碰撞误差主要来自高频词，分离后误差明显减小。
+ *
+ * 误差界：以至少 1-δ 的概率，点积估计偏高不超过 ε·‖a‖₁·‖b‖₁
+ * （‖·‖₁ 即文档总词数，见 {@link #dotProductErrorBound}）；向量模长同样偏高估计，
+ * 因此词汇量远大于 1/ε 时余弦会被略微高估。
+ * 注意近似模式对全部词频做余弦，不复现精确模式中按两篇文档计算的IDF加权。
+ */
+public class ApproximateTermProfile {
+    public static final double DEFAULT_EPSILON = 0.0005;
+    public static final double DEFAULT_DELTA = 0.01;
+    public static final int DEFAULT_HEAVY_HITTERS = 64;
+
+    private final CountMinSketch sketch;
+    private final MinHashSketch minHash = new MinHashSketch();
+    private final int heavyHitterCapacity;
+    // 高频词 → 估计词频；已满时新词的估计词频超过表中最小值才替换
+    private final Map<String, Long> heavyHitters = new HashMap<>();
+    private long heavyHitterFloor;
+
+    public ApproximateTermProfile() {
+        this(DEFAULT_EPSILON, DEFAULT_DELTA, DEFAULT_HEAVY_HITTERS);
+    }
+
+    /**
+     * @param epsilon             词频估计的相对误差 ε
+     * @param delta               超出误差的概率 δ
+     * @param heavyHitterCapacity 保留的高频词个数
+     */
+    public ApproximateTermProfile(double epsilon, double delta, int heavyHitterCapacity) {
+        this.sketch = CountMinSketch.withErrorBound(epsilon, delta);
+        this.heavyHitterCapacity = heavyHitterCapacity;
+    }
+
+    public void add(String word) {
+        long hash = MinHashSketch.hashWord(word);
+        sketch.add(hash, 1);
+        minHash.update(hash);
+        if (heavyHitterCapacity <= 0) {
+            return;
+        }
+
+        long estimate = sketch.estimate(hash);
+        if (heavyHitters.containsKey(word) || heavyHitters.size() < heavyHitterCapacity) {
+            heavyHitters.put(word, estimate);
+            if (heavyHitters.size() == heavyHitterCapacity) {
+                heavyHitterFloor = minimumHeavyHitter();
+            }
+        } else if (estimate > heavyHitterFloor) {
+            String weakest = null;
+            for (Map.Entry<String, Long> entry : heavyHitters.entrySet()) {
+                if (entry.getValue() == heavyHitterFloor) {
+                    weakest = entry.getKey();
+                    break;
+                }
+            }
+            heavyHitters.remove(weakest);
+            heavyHitters.put(word, estimate);
+            heavyHitterFloor = minimumHeavyHitter();
+        }
+    }
+
+    private long minimumHeavyHitter() {
+        long min = Long.MAX_VALUE;
+        for (long count : heavyHitters.values()) {
+            min = Math.min(min, count);
+        }
+        return min;
+    }
+
+    /**
+     * 已累加的词数
+     */
+    public long tokenCount() {
+        return sketch.totalCount();
+    }
+
+    public boolean isEmpty() {
+        return sketch.totalCount() == 0;
+    }
+
+    /**
+     * 高频词及其估计词频，按词频从高到低排列
+     */
+    public Map<String, Long> heavyHitters() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(heavyHitters.entrySet());
+        entries.sort((a, b) -> a.getValue().equals(b.getValue())
+                ? a.getKey().compareTo(b.getKey()) : Long.compare(b.getValue(), a.getValue()));
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : entries) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * 估计词频向量的余弦相似度，结果限制在[0,1]
+     */
+    public double estimateCosine(ApproximateTermProfile other) {
+        if (isEmpty() || other.isEmpty()) {
+            return 0.0;
+        }
+        Set<String> heavy = new HashSet<>(heavyHitters.keySet());
+        heavy.addAll(other.heavyHitters.keySet());
+        long[] hashes = new long[heavy.size()];
+        long[] counts1 = new long[hashes.length];
+        long[] counts2 = new long[hashes.length];
+        double dot = 0;
+        double norm1 = 0;
+        double norm2 = 0;
+        int i = 0;
+        for (String word : heavy) {
+            hashes[i] = MinHashSketch.hashWord(word);
+            counts1[i] = sketch.estimate(hashes[i]);
+            counts2[i] = other.sketch.estimate(hashes[i]);
+            dot += (double) counts1[i] * counts2[i];
+            norm1 += (double) counts1[i] * counts1[i];
+            norm2 += (double) counts2[i] * counts2[i];
+            i++;
+        }
+        CountMinSketch tail1 = sketch.residual(hashes, counts1);
+        CountMinSketch tail2 = other.sketch.residual(hashes, counts2);
+        dot += tail1.innerProduct(tail2);
+        norm1 += tail1.innerProduct(tail1);
+        norm2 += tail2.innerProduct(tail2);
+        if (norm1 <= 0 || norm2 <= 0) {
+            return 0.0;
+        }
+        return Math.min(1.0, dot / (Math.sqrt(norm1) * Math.sqrt(norm2)));
+    }
+
+    /**
+     * 点积估计的误差上界 ε·‖a‖₁·‖b‖₁（以至少 1-δ 的概率成立）
+     */
+    public double dotProductErrorBound(ApproximateTermProfile other) {
+        return sketch.epsilon() * sketch.totalCount() * other.sketch.totalCount();
+    }
+
+    /**
+     * 估计词语集合的杰卡德相似度
+     */
+    public double estimateJaccard(ApproximateTermProfile other) {
+        return minHash.estimateJaccard(other.minHash);
+    }
+
+    /**
+     * 摘要部分占用的字节数（不含高频词表）
+     */
+    public long sizeInBytes() {
+        return sketch.sizeInBytes() + (long) minHash.numHashes() * 8;
+    }
+}
@@ -0,0 +1,239 @@
+package com.plagiarism.checker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 压缩包查重：从 .zip / .tar.gz 中逐个流式读出提交，交给线程池并行预处理，
+ * 再对所有提交两两计算相似度，生成完整报告。
+ * 读取线程在已提交但未处理完的条目达到上限时等待，内存占用不随压缩包大小增长。
+ */
+public class ArchiveChecker {
+    private final FileAccessor fileAccessor;
+    private final TextPreprocessor preprocessor;
+    private final SimilarityCalculator calculator;
+    private final int threads;
+
+    public ArchiveChecker(FileAccessor fileAccessor, TextPreprocessor preprocessor,
+                          SimilarityCalculator calculator, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("线程数必须为正数: " + threads);
+        }
+        this.fileAccessor = fileAccessor;
+        this.preprocessor = preprocessor;
+        this.calculator = calculator;
+        this.threads = threads;
+    }
+
+    /**
+     * @param archivePath 压缩包路径
+     * @param threshold   报告中列出的相似度下限
+     */
+    public Result check(String archivePath, double threshold) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Map<String, DocumentProfile> profiles = ingest(archivePath, executor);
+            return compareAll(profiles, threshold, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // 边读边预处理：读取线程只负责解压，预处理在线程池中进行
+    private Map<String, DocumentProfile> ingest(String archivePath, ExecutorService executor) throws IOException {
+        Semaphore inFlight = new Semaphore(threads * 2);
+        Map<String, Future<DocumentProfile>> pending = new TreeMap<>();
+        // 整个压缩包使用同一个配置快照，所有提交按同一套停用词和同义词比较
+        ConfigSnapshot snapshot = preprocessor.currentConfig();
+        fileAccessor.readArchive(archivePath, (name, content) -> {
+            // 同名条目（如 tar 中追加的同名文件）编号后分别比较，不互相覆盖
+            String key = name;
+            for (int copy = 2; pending.containsKey(key); copy++) {
+                key = name + " (" + copy + ")";
+            }
+            inFlight.acquireUninterruptibly();
+            pending.put(key, executor.submit(() -> {
+                try {
+                    return calculator.profile(preprocessor.preprocess(content, snapshot));
+                } finally {
+                    inFlight.release();
+                }
+            }));
+        });
+
+        Map<String, DocumentProfile> profiles = new TreeMap<>();
+        for (Map.Entry<String, Future<DocumentProfile>> entry : pending.entrySet()) {
+            profiles.put(entry.getKey(), await(entry.getValue()));
+        }
+        return profiles;
+    }
+
+    private Result compareAll(Map<String, DocumentProfile> profiles, double threshold, ExecutorService executor)
+            throws IOException {
+        List<String> names = new ArrayList<>(profiles.keySet());
+        List<DocumentProfile> documents = new ArrayList<>(profiles.values());
+        int n = names.size();
+
+        // 行按步长分给若干任务（前面的行更长，交错分配使负载均衡），每个任务只保留超过阈值的对和各文档的最高分
+        int taskCount = Math.max(1, Math.min(n, threads * 4));
+        List<Future<PartialResult>> tasks = new ArrayList<>();
+        for (int t = 0; t < taskCount; t++) {
+            int first = t;
+            tasks.add(executor.submit(() -> {
+                PartialResult partial = new PartialResult(n);
+                for (int i = first; i < n; i += taskCount) {
+                    for (int j = i + 1; j < n; j++) {
+                        double similarity = Math.min(1.0, Math.max(0.0,
+                                calculator.calculateSimilarity(documents.get(i), documents.get(j))));
+                        if (similarity >= threshold) {
+                            partial.matches.add(new Match(names.get(i), names.get(j), similarity));
+                        }
+                        partial.offer(i, j, similarity);
+                        partial.offer(j, i, similarity);
+                    }
+                }
+                return partial;
+            }));
+        }
+
+        List<Match> aboveThreshold = new ArrayList<>();
+        PartialResult merged = new PartialResult(n);
+        for (Future<PartialResult> task : tasks) {
+            PartialResult partial = await(task);
+            aboveThreshold.addAll(partial.matches);
+            for (int i = 0; i < n; i++) {
+                if (partial.bestPeer[i] >= 0) {
+                    merged.offer(i, partial.bestPeer[i], partial.bestSimilarity[i]);
+                }
+            }
+        }
+        // 相似度相同时按文件名排序，报告与任务完成顺序无关
+        aboveThreshold.sort(Comparator.comparingDouble(Match::getSimilarity).reversed()
+                .thenComparing(Match::getFirst).thenComparing(Match::getSecond));
+
+        Map<String, Match> bestMatches = new TreeMap<>();
+        for (int i = 0; i < n; i++) {
+            if (merged.bestPeer[i] >= 0) {
+                bestMatches.put(names.get(i), new Match(names.get(i), names.get(merged.bestPeer[i]),
+                        merged.bestSimilarity[i]));
+            }
+        }
+        return new Result(n, (long) n * (n - 1) / 2, threshold, aboveThreshold, bestMatches);
+    }
+
+    // 单个任务的部分结果
+    private static final class PartialResult {
+        final List<Match> matches = new ArrayList<>();
+        final int[] bestPeer;
+        final double[] bestSimilarity;
+
+        PartialResult(int n) {
+            bestPeer = new int[n];
+            bestSimilarity = new double[n];
+            Arrays.fill(bestPeer, -1);
+        }
+
+        void offer(int document, int peer, double similarity) {
+            if (bestPeer[document] < 0 || similarity > bestSimilarity[document]) {
+                bestPeer[document] = peer;
+                bestSimilarity[document] = similarity;
+            }
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("压缩包查重被中断", e);
+        } catch (ExecutionException e) {
+            throw new IOException("处理压缩包条目失败: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * 一对提交的相似度
+     */
+    public static final class Match {
+        private final String first;
+        private final String second;
+        private final double similarity;
+
+        Match(String first, String second, double similarity) {
+            this.first = first;
+            this.second = second;
+            this.similarity = similarity;
+        }
+
+        public String getFirst() { return first; }
+        public String getSecond() { return second; }
+        public double getSimilarity() { return similarity; }
+
+        /**
+         * 这一对中除 name 以外的另一份提交
+         */
+        public String other(String name) {
+            return first.equals(name) ? second : first;
+        }
+    }
+
+    public static final class Result {
+        private final int documentCount;
+        private final long pairCount;
+        private final double threshold;
+        private final List<Match> matches;
+        private final Map<String, Match> bestMatches;
+
+        Result(int documentCount, long pairCount, double threshold, List<Match> matches,
+               Map<String, Match> bestMatches) {
+            this.documentCount = documentCount;
+            this.pairCount = pairCount;
+            this.threshold = threshold;
+            this.matches = Collections.unmodifiableList(matches);
+            this.bestMatches = Collections.unmodifiableMap(bestMatches);
+        }
+
+        public int getDocumentCount() { return documentCount; }
+        public long getPairCount() { return pairCount; }
+
+        /**
+         * 相似度不低于阈值的提交对，按相似度降序
+         */
+        public List<Match> getMatches() { return matches; }
+
+        /**
+         * 每份提交 → 与它最相似的提交
+         */
+        public Map<String, Match> getBestMatches() { return bestMatches; }
+
+        public String formatReport() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("提交数: %d, 比较对数: %d, 相似度≥%.2f%%: %d",
+                    documentCount, pairCount, threshold * 100, matches.size()));
+            for (Match match : matches) {
+                report.append(System.lineSeparator())
+                        .append(match.first).append('\t').append(match.second).append('\t')
+                        .append(String.format("%.2f%%", match.similarity * 100));
+            }
+            report.append(System.lineSeparator()).append("各提交的最高相似度:");
+            for (Map.Entry<String, Match> entry : bestMatches.entrySet()) {
+                report.append(System.lineSeparator())
+                        .append(entry.getKey()).append('\t').append(entry.getValue().other(entry.getKey())).append('\t')
+                        .append(String.format("%.2f%%", entry.getValue().similarity * 100));
+            }
+            return report.toString();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.plagiarism.checker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 按权重线性融合多个打分器。
+ * {@link #defaultBlend()} 即原有的“余弦0.6 + 杰卡德0.4”：
+ * <pre>
+ * SimilarityScorer scorer = new BlendScorer.Builder()
+ *         .add(CosineScorer.pairwiseTfIdf(), 0.6)
+ *         .add(new JaccardScorer(), 0.4)
+ *         .build();
+ * </pre>
+ */
+public final class BlendScorer implements SimilarityScorer {
+    private static final BlendScorer DEFAULT = new Builder()
+            .add(CosineScorer.pairwiseTfIdf(), SimilarityCalculator.COSINE_WEIGHT)
+            .add(new JaccardScorer(), SimilarityCalculator.JACCARD_WEIGHT)
+            .build();
+
+    private final List<SimilarityScorer> scorers;
+    private final double[] weights;
+    private final String name;
+
+    private BlendScorer(List<SimilarityScorer> scorers, double[] weights) {
+        this.scorers = Collections.unmodifiableList(new ArrayList<>(scorers));
+        this.weights = weights;
+        StringBuilder name = new StringBuilder("blend(");
+        for (int i = 0; i < weights.length; i++) {
+            if (i > 0) {
+                name.append('+');
+            }
+            name.append(weights[i]).append('*').append(scorers.get(i).getName());
+        }
+        this.name = name.append(')').toString();
+    }
+
+    /**
+     * 原有的融合方式：成对TF-IDF余弦 × 0.6 + 杰卡德 × 0.4
+     */
+    public static BlendScorer defaultBlend() {
+        return DEFAULT;
+    }
+
+    @Override
+    public double score(DocumentProfile original, DocumentProfile plagiarized) {
+        double score = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            score += weights[i] * scorers.get(i).score(original, plagiarized);
+        }
+        return score;
+    }
+
+    @Override
+    public boolean supportsStoredVectors() {
+        for (SimilarityScorer scorer : scorers) {
+            if (!scorer.supportsStoredVectors()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public double score(OffHeapVectorStore.Overlap overlap) {
+        double score = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            score += weights[i] * scorers.get(i).score(overlap);
+        }
+        return score;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public static final class Builder {
+        private final List<SimilarityScorer> scorers = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+
+        public Builder add(SimilarityScorer scorer, double weight) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("融合权重不能为负数: " + weight);
+            }
+            scorers.add(scorer);
+            weights.add(weight);
+            return this;
+        }
+
+        public BlendScorer build() {
+            if (scorers.isEmpty()) {
+                throw new IllegalArgumentException("至少需要一个打分器");
+            }
+            double[] values = new double[weights.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = weights.get(i);
+            }
+            return new BlendScorer(scorers, values);
+        }
+    }
+}
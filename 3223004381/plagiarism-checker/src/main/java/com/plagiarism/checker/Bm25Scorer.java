@@ -0,0 +1,77 @@
+package com.plagiarism.checker;
+
+import java.util.Map;
+
+/**
+ * BM25 打分器：以抄袭版的去重词语为查询、原文为文档计算 BM25，
+ * 再除以抄袭版对自身的 BM25 得分（自归一化），结果限制在[0,1]，完全相同时为1。
+ * 未提供语料文档频率时，IDF 与平均文档长度只由这两篇文档计算。
+ */
+public final class Bm25Scorer implements SimilarityScorer {
+    public static final double DEFAULT_K1 = 1.2;
+    public static final double DEFAULT_B = 0.75;
+
+    private final double k1;
+    private final double b;
+    private final DfSnapshot corpus;
+
+    public Bm25Scorer() {
+        this(DEFAULT_K1, DEFAULT_B, null);
+    }
+
+    /**
+     * @param corpus 语料文档频率快照，为null时使用两篇文档自身的文档频率
+     */
+    public Bm25Scorer(double k1, double b, DfSnapshot corpus) {
+        if (k1 < 0 || b < 0 || b > 1) {
+            throw new IllegalArgumentException("BM25参数无效: k1=" + k1 + ", b=" + b);
+        }
+        this.k1 = k1;
+        this.b = b;
+        this.corpus = corpus;
+    }
+
+    @Override
+    public double score(DocumentProfile original, DocumentProfile plagiarized) {
+        if (original.isEmpty() || plagiarized.isEmpty()) {
+            return 0.0;
+        }
+        double averageLength = (original.length() + plagiarized.length()) / 2.0;
+        double matched = 0.0;
+        double self = 0.0;
+        for (Map.Entry<String, Integer> entry : plagiarized.getCounts().entrySet()) {
+            String term = entry.getKey();
+            int inOriginal = original.count(term);
+            double idf = idf(term, inOriginal > 0 ? 2 : 1);
+            self += idf * saturate(entry.getValue(), plagiarized.length(), averageLength);
+            if (inOriginal > 0) {
+                matched += idf * saturate(inOriginal, original.length(), averageLength);
+            }
+        }
+        if (self <= 0) {
+            return 0.0;
+        }
+        return Math.min(1.0, matched / self);
+    }
+
+    // BM25 的 IDF：log(1 + (N - df + 0.5) / (df + 0.5))，恒为正
+    private double idf(String term, int pairwiseDocumentFrequency) {
+        double documents = 2;
+        double df = pairwiseDocumentFrequency;
+        if (corpus != null) {
+            documents = corpus.documentCount();
+            df = Math.min(documents, corpus.documentFrequency(term));
+        }
+        return Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+    }
+
+    // 词频饱和与长度归一化
+    private double saturate(int frequency, int length, double averageLength) {
+        return frequency * (k1 + 1) / (frequency + k1 * (1 - b + b * length / averageLength));
+    }
+
+    @Override
+    public String getName() {
+        return "bm25(k1=" + k1 + ",b=" + b + (corpus == null ? "" : ",corpus@" + corpus.documentCount()) + ")";
+    }
+}
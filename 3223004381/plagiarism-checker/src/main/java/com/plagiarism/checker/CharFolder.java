@@ -0,0 +1,99 @@
+package com.plagiarism.checker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * 字符归一化：繁体转简体、全角字母数字转半角、大写转小写，并把噪声字符替换为空格，
+ * 全部预先合并进一张覆盖基本多文种平面的 char[65536] 查找表，清洗时每个字符只查一次表，
+ * 同时合并连续空格、去掉首尾空格，代替原先的三次正则替换与 toLowerCase。
+ */
+public final class CharFolder {
+    // 繁简单字映射（由 HanLP 自带的繁简词典提取）
+    static final String T2S_RESOURCE = "t2s_chars.txt";
+
+    private static final char[] TABLE = buildTable();
+
+    private CharFolder() {
+    }
+
+    /**
+     * 单个字符的归一化结果，噪声字符为空格
+     */
+    public static char fold(char c) {
+        return TABLE[c];
+    }
+
+    /**
+     * 归一化并清洗整段文本：结果只含小写英文字母、数字、简体汉字和保留的标点，以单个空格分隔
+     */
+    public static String fold(String text) {
+        char[] output = new char[text.length()];
+        int length = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char folded = TABLE[text.charAt(i)];
+            if (folded == ' ') {
+                pendingSpace = length > 0;
+            } else {
+                if (pendingSpace) {
+                    output[length++] = ' ';
+                    pendingSpace = false;
+                }
+                output[length++] = folded;
+            }
+        }
+        return new String(output, 0, length);
+    }
+
+    private static char[] buildTable() {
+        char[] table = new char[Character.MAX_VALUE + 1];
+        for (int c = 0; c < table.length; c++) {
+            table[c] = (char) c;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            table[c] = Character.toLowerCase(c);
+        }
+        // 全角字母和数字转半角（全角标点保持原样，由下面的保留规则决定去留）
+        for (char c = '０'; c <= '９'; c++) {
+            table[c] = (char) (c - 0xFEE0);
+        }
+        for (char c = 'Ａ'; c <= 'Ｚ'; c++) {
+            table[c] = Character.toLowerCase((char) (c - 0xFEE0));
+        }
+        for (char c = 'ａ'; c <= 'ｚ'; c++) {
+            table[c] = (char) (c - 0xFEE0);
+        }
+        // 繁体转简体：简体字超出保留范围时不转换，避免原本保留的字被当作噪声
+        for (String line : loadT2s()) {
+            if (line.length() == 3 && line.charAt(1) == '=') {
+                char traditional = line.charAt(0);
+                char simplified = line.charAt(2);
+                if (isKept(simplified) || !isKept(traditional)) {
+                    table[traditional] = simplified;
+                }
+            }
+        }
+        for (int c = 0; c < table.length; c++) {
+            if (!isKept(table[c])) {
+                table[c] = ' ';
+            }
+        }
+        return table;
+    }
+
+    // 与原清洗规则一致：只保留中英文、数字和少量中英文标点
+    static boolean isKept(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || (c >= '\u4e00' && c <= '\u9fa5') || "，。,;！!？?".indexOf(c) >= 0;
+    }
+
+    private static List<String> loadT2s() {
+        try {
+            return new FileAccessor().readAllLinesFromClasspath(T2S_RESOURCE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("加载繁简映射失败: " + T2S_RESOURCE, e);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.plagiarism.checker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 全量近似重复聚类：在整个提交集合中找出互相抄袭的学生组。
+ *
+ * 流程：并行预处理 → MinHash签名 → LSH分桶生成候选对 → 用精确相似度并行校验（词频向量存于堆外）
+ * → 超过阈值的文档对用并查集合并成簇。避免对所有 n² 个文档对做精确计算。
+ *
+ * 签名由与打分相同过滤后的词语生成。b段×r行时，杰卡德为J的文档对成为候选的概率为
+ * 1-(1-J^r)^b（见 {@link #candidateProbability}）。默认打分的余弦只在共同词上计算，通常接近1，
+ * 相似度达到阈值T的文档对杰卡德只保证不低于 (T-0.6)/0.4（{@link SimilarityCalculator#minimumJaccard}）。
+ * 默认在128个哈希下按这个杰卡德下界取最大的r，使下界处的文档对至少以95%的概率成为候选；
+ * 下界不大于0（如T≤0.6）或任何分段都达不到95%时，改用倒排索引把共享足够多过滤后词语的
+ * 文档对都作为候选（{@link CorpusIndex#documentsSharingAtLeast}），不会漏掉达到阈值的文档对。
+ */
+public class ClusteringJob {
+    // 默认的签名长度，以及杰卡德等于阈值时要求的最低候选概率
+    private static final int DEFAULT_HASHES = 128;
+    private static final double DEFAULT_RECALL = 0.95;
+
+    private final TextPreprocessor preprocessor;
+    private final SimilarityCalculator calculator;
+    private final double threshold;
+    // 为0时不用LSH，改用共享词倒排索引生成候选
+    private final int bands;
+    private final int rows;
+
+    /**
+     * @param threshold 精确相似度阈值（0~1），达到阈值的文档对归为同一簇
+     */
+    public ClusteringJob(TextPreprocessor preprocessor, SimilarityCalculator calculator, double threshold) {
+        this(preprocessor, calculator, threshold, rowsFor(calculator.minimumJaccard(threshold)));
+    }
+
+    private ClusteringJob(TextPreprocessor preprocessor, SimilarityCalculator calculator, double threshold, int rows) {
+        this.preprocessor = preprocessor;
+        this.calculator = calculator;
+        this.threshold = threshold;
+        this.bands = rows == 0 ? 0 : DEFAULT_HASHES / rows;
+        this.rows = rows;
+    }
+
+    /**
+     * @param bands LSH分段数，越多召回越高、候选越多
+     * @param rows  每段包含的签名行数，越多候选越少
+     */
+    public ClusteringJob(TextPreprocessor preprocessor, SimilarityCalculator calculator,
+                         double threshold, int bands, int rows) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("LSH参数必须为正数");
+        }
+        this.preprocessor = preprocessor;
+        this.calculator = calculator;
+        this.threshold = threshold;
+        this.bands = bands;
+        this.rows = rows;
+    }
+
+    /**
+     * 128个哈希下，杰卡德为 jaccard 的文档对成为候选的概率不低于95%的最大行数；
+     * jaccard 不大于0或任何分段都达不到时返回0
+     */
+    static int rowsFor(double jaccard) {
+        if (jaccard <= 0) {
+            return 0;
+        }
+        int rows = 0;
+        for (int r = 1; r <= DEFAULT_HASHES; r++) {
+            if (candidateProbability(Math.min(1.0, jaccard), DEFAULT_HASHES / r, r) >= DEFAULT_RECALL) {
+                rows = r;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 杰卡德为 jaccard 的文档对在 bands 段 × rows 行的LSH下成为候选的概率
+     */
+    static double candidateProbability(double jaccard, int bands, int rows) {
+        return 1 - Math.pow(1 - Math.pow(jaccard, rows), bands);
+    }
+
+    public int getBands() { return bands; }
+    public int getRows() { return rows; }
+
+    /**
+     * 是否用共享词倒排索引代替LSH生成候选
+     */
+    public boolean usesSharedTermIndex() {
+        return rows == 0;
+    }
+
+    /**
+     * 对原始文本集合聚类
+     * @param documents 文档名 → 文本内容
+     */
+    public Result run(Map<String, String> documents) {
+        List<String> names = new ArrayList<>(documents.keySet());
+        ConfigSnapshot snapshot = preprocessor.currentConfig();
+        List<List<String>> tokens = names.parallelStream()
+                .map(name -> preprocessor.preprocess(documents.get(name), snapshot))
+                .collect(Collectors.toList());
+        return cluster(names, tokens);
+    }
+
+    /**
+     * 对已预处理的文档聚类
+     */
+    public Result cluster(List<String> names, List<List<String>> tokens) {
+        int n = names.size();
+        // 候选生成与校验打分使用同一组过滤后的词语
+        List<List<String>> scoredWords = IntStream.range(0, n).parallel()
+                .mapToObj(i -> calculator.filterScoredWords(tokens.get(i)))
+                .collect(Collectors.toList());
+        long[] candidates = usesSharedTermIndex()
+                ? sharedTermCandidates(scoredWords)
+                : generateCandidates(sketch(scoredWords));
+
+        // 并行精确校验，结果顺序无关（并查集合并满足交换律）
+        long[] matches = calculator.supportsStoredVectors()
+                ? verifyWithStoredVectors(tokens, candidates)
+                : verifyWithProfiles(tokens, candidates);
+
+        UnionFind unionFind = new UnionFind(n);
+        for (long pair : matches) {
+            unionFind.union((int) (pair >>> 32), (int) pair);
+        }
+
+        Map<Integer, List<String>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            if (unionFind.sizeOf(i) > 1) {
+                groups.computeIfAbsent(unionFind.find(i), k -> new ArrayList<>()).add(names.get(i));
+            }
+        }
+        List<List<String>> clusters = new ArrayList<>(groups.values());
+        clusters.sort((x, y) -> Integer.compare(y.size(), x.size()));
+        return new Result(clusters, n, candidates.length, matches.length);
+    }
+
+    /**
+     * 词频向量写入堆外存储，校验时直接在堆外数据上归并打分，大语料下不产生大量堆内画像对象
+     */
+    private long[] verifyWithStoredVectors(List<List<String>> tokens, long[] candidates) {
+        TermDictionary dictionary = new TermDictionary();
+        SparseVector[] vectors = IntStream.range(0, tokens.size()).parallel()
+                .mapToObj(i -> calculator.termFrequencyVector(tokens.get(i), dictionary))
+                .toArray(SparseVector[]::new);
+        OffHeapVectorStore store = new OffHeapVectorStore();
+        for (SparseVector vector : vectors) {
+            store.add(vector); // 文档ID与下标一致
+        }
+        return Arrays.stream(candidates).parallel()
+                .filter(pair -> calculator.calculateSimilarity(store, (int) (pair >>> 32), (int) pair) >= threshold)
+                .toArray();
+    }
+
+    // 打分器不支持堆外向量（如BM25、融合词序）时，每篇文档的画像只构建一次，供它参与的所有候选对复用
+    private long[] verifyWithProfiles(List<List<String>> tokens, long[] candidates) {
+        DocumentProfile[] profiles = IntStream.range(0, tokens.size()).parallel()
+                .mapToObj(i -> calculator.profile(tokens.get(i)))
+                .toArray(DocumentProfile[]::new);
+        return Arrays.stream(candidates).parallel()
+                .filter(pair -> calculator.calculateSimilarity(profiles[(int) (pair >>> 32)], profiles[(int) pair])
+                        >= threshold)
+                .toArray();
+    }
+
+    private MinHashSketch[] sketch(List<List<String>> scoredWords) {
+        return scoredWords.parallelStream()
+                .map(words -> {
+                    MinHashSketch sketch = new MinHashSketch(bands * rows);
+                    for (String word : words) {
+                        sketch.update(word);
+                    }
+                    return sketch;
+                })
+                .toArray(MinHashSketch[]::new);
+    }
+
+    /**
+     * 共享词候选：逐篇加入倒排索引，每篇先查询之前的文档中共享词数达到
+     * {@link SimilarityCalculator#minimumSharedTerms} 的文档，返回 (a<<32 | b)，a<b
+     */
+    private long[] sharedTermCandidates(List<List<String>> scoredWords) {
+        CorpusIndex index = new CorpusIndex();
+        LongList pairs = new LongList();
+        for (int doc = 0; doc < scoredWords.size(); doc++) {
+            List<String> words = scoredWords.get(doc);
+            if (!words.isEmpty()) {
+                int minShared = calculator.minimumSharedTerms(new HashSet<>(words).size(), threshold);
+                CompressedPostings.Cursor cursor = index.documentsSharingAtLeast(words, minShared).cursor();
+                for (int earlier = cursor.nextDoc(); earlier != CompressedPostings.NO_MORE_DOCS; earlier = cursor.nextDoc()) {
+                    pairs.add(((long) earlier << 32) | doc);
+                }
+            }
+            index.addDocument(words); // 文档ID与下标一致
+        }
+        return pairs.toArray();
+    }
+
+    /**
+     * LSH分桶：任一段签名完全相同的文档成为候选对，返回去重后的 (a<<32 | b)，a<b
+     */
+    private long[] generateCandidates(MinHashSketch[] sketches) {
+        List<long[]> perBand = IntStream.range(0, bands).parallel()
+                .mapToObj(band -> {
+                    Map<Long, List<Integer>> buckets = new HashMap<>();
+                    for (int doc = 0; doc < sketches.length; doc++) {
+                        if (sketches[doc].isEmpty()) {
+                            continue; // 空文档与任何文档相似度都为0
+                        }
+                        long key = sketches[doc].bandHash(band * rows, (band + 1) * rows);
+                        buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(doc);
+                    }
+                    LongList pairs = new LongList();
+                    for (List<Integer> bucket : buckets.values()) {
+                        for (int i = 0; i < bucket.size(); i++) {
+                            for (int j = i + 1; j < bucket.size(); j++) {
+                                pairs.add(((long) bucket.get(i) << 32) | bucket.get(j));
+                            }
+                        }
+                    }
+                    return pairs.toArray();
+                })
+                .collect(Collectors.toList());
+
+        LongList all = new LongList();
+        for (long[] pairs : perBand) {
+            all.addAll(pairs);
+        }
+        long[] sorted = all.toArray();
+        Arrays.parallelSort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, unique);
+    }
+
+    /**
+     * 聚类结果：只包含成员数≥2的簇，按规模降序
+     */
+    public static class Result {
+        private final List<List<String>> clusters;
+        private final int documentCount;
+        private final int candidatePairs;
+        private final int matchedPairs;
+
+        Result(List<List<String>> clusters, int documentCount, int candidatePairs, int matchedPairs) {
+            this.clusters = Collections.unmodifiableList(clusters);
+            this.documentCount = documentCount;
+            this.candidatePairs = candidatePairs;
+            this.matchedPairs = matchedPairs;
+        }
+
+        public List<List<String>> getClusters() { return clusters; }
+        public int getDocumentCount() { return documentCount; }
+        public int getCandidatePairs() { return candidatePairs; }
+        public int getMatchedPairs() { return matchedPairs; }
+
+        /**
+         * 文档名 → 簇编号（从1开始），不属于任何簇的文档不出现
+         */
+        public Map<String, Integer> membership() {
+            Map<String, Integer> membership = new LinkedHashMap<>();
+            for (int i = 0; i < clusters.size(); i++) {
+                for (String name : clusters.get(i)) {
+                    membership.put(name, i + 1);
+                }
+            }
+            return membership;
+        }
+
+        /**
+         * 生成文本报告：每行一个簇
+         */
+        public String formatReport() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("文档数: %d, 候选对: %d, 超过阈值: %d, 簇数: %d",
+                    documentCount, candidatePairs, matchedPairs, clusters.size()));
+            for (int i = 0; i < clusters.size(); i++) {
+                report.append(System.lineSeparator())
+                        .append("簇").append(i + 1).append('\t')
+                        .append(String.join(",", clusters.get(i)));
+            }
+            return report.toString();
+        }
+    }
+
+    // 基本类型long的可增长数组，避免候选对装箱
+    private static final class LongList {
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(long[] more) {
+            if (size + more.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + more.length));
+            }
+            System.arraycopy(more, 0, values, size, more.length);
+            size += more.length;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.plagiarism.checker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * 紧凑文档表示：把预处理后的词语序列编码为变长整数词项ID，整篇文档只占一个 byte[]。
+ * 相比每个词一个String的不可变列表，常见词项ID只需1~2字节，
+ * 适合把大量文档常驻内存。遍历通过可复用的 {@link Cursor} 进行，不产生额外对象。
+ */
+public final class CompactDocument {
+    private final byte[] data;
+    private final int tokenCount;
+
+    private CompactDocument(byte[] data, int tokenCount) {
+        this.data = data;
+        this.tokenCount = tokenCount;
+    }
+
+    /**
+     * 编码词语序列，词语经字典映射为ID（新词自动分配ID）
+     */
+    public static CompactDocument encode(List<String> words, TermDictionary dictionary) {
+        byte[] buffer = new byte[Math.max(16, words.size() * 2)];
+        int length = 0;
+        for (String word : words) {
+            int id = dictionary.intern(word);
+            if (length + 5 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            while ((id & ~0x7F) != 0) {
+                buffer[length++] = (byte) ((id & 0x7F) | 0x80);
+                id >>>= 7;
+            }
+            buffer[length++] = (byte) id;
+        }
+        return new CompactDocument(Arrays.copyOf(buffer, length), words.size());
+    }
+
+    public int tokenCount() {
+        return tokenCount;
+    }
+
+    public int sizeInBytes() {
+        return data.length;
+    }
+
+    /**
+     * 按顺序回调每个词项ID
+     */
+    public void forEachTermId(IntConsumer consumer) {
+        int pos = 0;
+        while (pos < data.length) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            consumer.accept(value);
+        }
+    }
+
+    public int[] toTermIds() {
+        int[] ids = new int[tokenCount];
+        Cursor cursor = new Cursor().reset(this);
+        for (int i = 0; i < tokenCount; i++) {
+            ids[i] = cursor.next();
+        }
+        return ids;
+    }
+
+    /**
+     * 还原为词语列表（会为每个词分配引用，仅在需要交给按String计算的打分流程时使用）
+     */
+    public List<String> toWords(TermDictionary dictionary) {
+        List<String> words = new ArrayList<>(tokenCount);
+        Cursor cursor = new Cursor().reset(this);
+        while (cursor.hasNext()) {
+            words.add(dictionary.term(cursor.next()));
+        }
+        return words;
+    }
+
+    /**
+     * 可复用的遍历游标：同一线程内通过 reset 切换文档，遍历过程不分配对象
+     */
+    public static final class Cursor {
+        private byte[] data;
+        private int pos;
+
+        public Cursor reset(CompactDocument document) {
+            this.data = document.data;
+            this.pos = 0;
+            return this;
+        }
+
+        public boolean hasNext() {
+            return data != null && pos < data.length;
+        }
+
+        public int next() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.plagiarism.checker;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 压缩倒排列表：稀疏词项使用差值+变长整数编码，稠密词项使用位图，按字节数择优。
+ * 交集、并集直接在压缩形式上计算，不解压成 int[]。
+ */
+public final class CompressedPostings {
+    public static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+    private static final CompressedPostings EMPTY = new CompressedPostings(new byte[0], 0, 0, -1);
+
+    // 差值变长编码（bitmap为null时有效）
+    private final byte[] deltas;
+    private final int deltaBytes;
+    // 位图编码（deltas为null时有效）
+    private final long[] words;
+    private final int count;
+    private final int lastDoc;
+
+    private CompressedPostings(byte[] deltas, int deltaBytes, int count, int lastDoc) {
+        this.deltas = deltas;
+        this.deltaBytes = deltaBytes;
+        this.words = null;
+        this.count = count;
+        this.lastDoc = lastDoc;
+    }
+
+    private CompressedPostings(long[] words, int count, int lastDoc) {
+        this.deltas = null;
+        this.deltaBytes = 0;
+        this.words = words;
+        this.count = count;
+        this.lastDoc = lastDoc;
+    }
+
+    public static CompressedPostings empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 由升序文档ID数组编码
+     */
+    public static CompressedPostings of(int... sortedDocs) {
+        Builder builder = new Builder();
+        for (int doc : sortedDocs) {
+            builder.add(doc);
+        }
+        return builder.build();
+    }
+
+    public int size() { return count; }
+    public boolean isBitmap() { return words != null; }
+
+    /**
+     * 压缩后占用的有效字节数
+     */
+    public int sizeInBytes() {
+        return isBitmap() ? words.length * 8 : deltaBytes;
+    }
+
+    public Cursor cursor() {
+        return isBitmap() ? new BitmapCursor(words) : new DeltaCursor(deltas, deltaBytes);
+    }
+
+    public boolean contains(int doc) {
+        if (doc < 0 || doc > lastDoc) {
+            return false;
+        }
+        if (isBitmap()) {
+            return (words[doc >>> 6] & (1L << doc)) != 0;
+        }
+        return cursor().advance(doc) == doc;
+    }
+
+    public int[] toArray() {
+        int[] docs = new int[count];
+        Cursor cursor = cursor();
+        for (int i = 0; i < count; i++) {
+            docs[i] = cursor.nextDoc();
+        }
+        return docs;
+    }
+
+    /**
+     * 交集：位图与位图按字与运算，其余情况用游标跳跃归并
+     */
+    public static CompressedPostings intersect(CompressedPostings a, CompressedPostings b) {
+        if (a.count == 0 || b.count == 0) {
+            return EMPTY;
+        }
+        if (a.isBitmap() && b.isBitmap()) {
+            long[] result = new long[Math.min(a.words.length, b.words.length)];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = a.words[i] & b.words[i];
+            }
+            return fromWords(result);
+        }
+        // 稀疏一侧驱动，在另一侧上跳跃查找
+        CompressedPostings small = a.count <= b.count ? a : b;
+        CompressedPostings large = small == a ? b : a;
+        Builder builder = new Builder();
+        Cursor driver = small.cursor();
+        if (large.isBitmap()) {
+            for (int doc = driver.nextDoc(); doc != NO_MORE_DOCS; doc = driver.nextDoc()) {
+                if (large.contains(doc)) {
+                    builder.add(doc);
+                }
+            }
+            return builder.build();
+        }
+        Cursor other = large.cursor();
+        int target = driver.nextDoc();
+        while (target != NO_MORE_DOCS) {
+            int found = other.advance(target);
+            if (found == NO_MORE_DOCS) {
+                break;
+            }
+            if (found == target) {
+                builder.add(target);
+                target = driver.nextDoc();
+            } else {
+                target = driver.advance(found);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 并集：位图与位图按字或运算，其余情况游标归并
+     */
+    public static CompressedPostings union(CompressedPostings a, CompressedPostings b) {
+        if (a.count == 0) {
+            return b;
+        }
+        if (b.count == 0) {
+            return a;
+        }
+        if (a.isBitmap() && b.isBitmap()) {
+            long[] result = Arrays.copyOf(a.words, Math.max(a.words.length, b.words.length));
+            for (int i = 0; i < b.words.length; i++) {
+                result[i] |= b.words[i];
+            }
+            return fromWords(result);
+        }
+        Builder builder = new Builder();
+        Cursor left = a.cursor();
+        Cursor right = b.cursor();
+        int x = left.nextDoc();
+        int y = right.nextDoc();
+        while (x != NO_MORE_DOCS || y != NO_MORE_DOCS) {
+            if (x < y) {
+                builder.add(x);
+                x = left.nextDoc();
+            } else if (y < x) {
+                builder.add(y);
+                y = right.nextDoc();
+            } else {
+                builder.add(x);
+                x = left.nextDoc();
+                y = right.nextDoc();
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 多个列表求交集，从最短的开始以尽早缩小结果
+     */
+    public static CompressedPostings intersectAll(List<CompressedPostings> lists) {
+        if (lists.isEmpty()) {
+            return EMPTY;
+        }
+        CompressedPostings[] sorted = lists.toArray(new CompressedPostings[0]);
+        Arrays.sort(sorted, (p, q) -> Integer.compare(p.count, q.count));
+        CompressedPostings result = sorted[0];
+        for (int i = 1; i < sorted.length && result.count > 0; i++) {
+            result = intersect(result, sorted[i]);
+        }
+        return result;
+    }
+
+    public static CompressedPostings unionAll(List<CompressedPostings> lists) {
+        CompressedPostings result = EMPTY;
+        for (CompressedPostings list : lists) {
+            result = union(result, list);
+        }
+        return result;
+    }
+
+    /**
+     * 序列化为字节数组（用于写入磁盘索引）：[byte 类型][int 数量][int 最大ID][int 长度][数据]
+     */
+    public byte[] toBytes() {
+        int payload = sizeInBytes();
+        ByteBuffer buffer = ByteBuffer.allocate(13 + payload);
+        buffer.put((byte) (isBitmap() ? 1 : 0)).putInt(count).putInt(lastDoc).putInt(payload);
+        if (isBitmap()) {
+            for (long word : words) {
+                buffer.putLong(word);
+            }
+        } else {
+            buffer.put(deltas, 0, deltaBytes);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 从 {@link #toBytes()} 的结果恢复
+     */
+    public static CompressedPostings fromBytes(ByteBuffer buffer) {
+        boolean bitmap = buffer.get() == 1;
+        int count = buffer.getInt();
+        int lastDoc = buffer.getInt();
+        int payload = buffer.getInt();
+        if (bitmap) {
+            long[] words = new long[payload / 8];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = buffer.getLong();
+            }
+            return new CompressedPostings(words, count, lastDoc);
+        }
+        byte[] data = new byte[payload];
+        buffer.get(data);
+        return new CompressedPostings(data, payload, count, lastDoc);
+    }
+
+    private static CompressedPostings fromWords(long[] words) {
+        int count = 0;
+        int last = words.length - 1;
+        while (last >= 0 && words[last] == 0) {
+            last--;
+        }
+        if (last < 0) {
+            return EMPTY;
+        }
+        for (int i = 0; i <= last; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        int lastDoc = last * 64 + 63 - Long.numberOfLeadingZeros(words[last]);
+        CompressedPostings bitmap = new CompressedPostings(Arrays.copyOf(words, last + 1), count, lastDoc);
+        // 运算后可能变稀疏，重新择优
+        return Builder.bitmapBytes(lastDoc) <= Builder.estimateDeltaBytes(count, lastDoc)
+                ? bitmap : rebuild(bitmap);
+    }
+
+    private static CompressedPostings rebuild(CompressedPostings source) {
+        Builder builder = new Builder();
+        Cursor cursor = source.cursor();
+        for (int doc = cursor.nextDoc(); doc != NO_MORE_DOCS; doc = cursor.nextDoc()) {
+            builder.add(doc);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 倒排列表游标：按升序返回文档ID，结束时返回 {@link #NO_MORE_DOCS}
+     */
+    public interface Cursor {
+        int nextDoc();
+
+        /**
+         * 前进到第一个不小于target的文档
+         */
+        int advance(int target);
+    }
+
+    private static final class DeltaCursor implements Cursor {
+        private final byte[] data;
+        private final int limit;
+        private int pos;
+        private int doc = -1;
+
+        DeltaCursor(byte[] data, int limit) {
+            this.data = data;
+            this.limit = limit;
+        }
+
+        @Override
+        public int nextDoc() {
+            if (pos >= limit) {
+                return doc = NO_MORE_DOCS;
+            }
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            // 首个值存储的是 doc+1，后续存储与前一个的差值
+            doc = doc < 0 ? value - 1 : doc + value;
+            return doc;
+        }
+
+        @Override
+        public int advance(int target) {
+            int current = doc;
+            while (current < target) {
+                current = nextDoc();
+            }
+            return current;
+        }
+    }
+
+    private static final class BitmapCursor implements Cursor {
+        private final long[] words;
+        private int doc = -1;
+
+        BitmapCursor(long[] words) {
+            this.words = words;
+        }
+
+        @Override
+        public int nextDoc() {
+            return advance(doc + 1);
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc == NO_MORE_DOCS) {
+                return doc;
+            }
+            if (target <= doc) {
+                return doc;
+            }
+            int index = target >>> 6;
+            if (index >= words.length) {
+                return doc = NO_MORE_DOCS;
+            }
+            long word = words[index] & (-1L << target);
+            while (word == 0) {
+                if (++index >= words.length) {
+                    return doc = NO_MORE_DOCS;
+                }
+                word = words[index];
+            }
+            return doc = index * 64 + Long.numberOfTrailingZeros(word);
+        }
+    }
+
+    /**
+     * 按升序追加文档ID构建倒排列表，build时根据字节数选择编码
+     */
+    public static final class Builder {
+        private byte[] buffer = new byte[16];
+        private int length;
+        private int count;
+        private int lastDoc = -1;
+
+        public Builder add(int doc) {
+            if (doc <= lastDoc) {
+                throw new IllegalArgumentException("文档ID必须严格递增: " + doc + " <= " + lastDoc);
+            }
+            int value = lastDoc < 0 ? doc + 1 : doc - lastDoc;
+            if (length + 5 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            while ((value & ~0x7F) != 0) {
+                buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte) value;
+            lastDoc = doc;
+            count++;
+            return this;
+        }
+
+        public int size() { return count; }
+        public int lastDoc() { return lastDoc; }
+
+        public CompressedPostings build() {
+            if (count == 0) {
+                return EMPTY;
+            }
+            if (bitmapBytes(lastDoc) < length) {
+                long[] words = new long[(lastDoc >>> 6) + 1];
+                DeltaCursor cursor = new DeltaCursor(buffer, length);
+                for (int doc = cursor.nextDoc(); doc != NO_MORE_DOCS; doc = cursor.nextDoc()) {
+                    words[doc >>> 6] |= 1L << doc;
+                }
+                return new CompressedPostings(words, count, lastDoc);
+            }
+            return new CompressedPostings(Arrays.copyOf(buffer, length), length, count, lastDoc);
+        }
+
+        static int bitmapBytes(int lastDoc) {
+            return ((lastDoc >>> 6) + 1) * 8;
+        }
+
+        // 平均差值下变长编码的字节数估计
+        static int estimateDeltaBytes(int count, int lastDoc) {
+            int averageGap = Math.max(1, lastDoc / Math.max(1, count));
+            int bytesPerGap = (32 - Integer.numberOfLeadingZeros(averageGap) + 6) / 7;
+            return count * Math.max(1, bytesPerGap);
+        }
+    }
+}
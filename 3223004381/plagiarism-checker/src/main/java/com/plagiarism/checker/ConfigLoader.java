@@ -1,58 +1,133 @@
 package com.plagiarism.checker;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
-public class ConfigLoader {
-    private Set<String> stopwords = new HashSet<>();
-    private Map<String, String> synonyms = new HashMap<>();
+public class ConfigLoader implements Closeable {
     private final FileAccessor fileAccessor;  // 复用FileAccessor实例
+    // 配置目录，为null时从类路径加载
+    private final Path configDirectory;
+    // 当前生效的配置快照，重新加载时整体替换
+    private final AtomicReference<ConfigSnapshot> current =
+            new AtomicReference<>(new ConfigSnapshot(Collections.emptySet(), Collections.emptyMap()));
+    private final List<Consumer<ConfigSnapshot>> reloadListeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService reloader;
 
     // 构造函数注入FileAccessor，便于测试和复用
     public ConfigLoader(FileAccessor fileAccessor) {
-        this.fileAccessor = fileAccessor;
+        this(fileAccessor, null);
     }
 
     // 提供默认构造函数保持兼容性
     public ConfigLoader() {
-        this.fileAccessor = new FileAccessor();
+        this(new FileAccessor());
+    }
+
+    /**
+     * @param configDirectory 存放 stopwords.txt、synonyms.txt 的目录，文件不存在时回退到类路径
+     */
+    public ConfigLoader(FileAccessor fileAccessor, Path configDirectory) {
+        this.fileAccessor = fileAccessor;
+        this.configDirectory = configDirectory;
     }
 
     //从类路径加载 stopwords.txt（
     public void loadStopwords() throws IOException {
-        List<String> lines = fileAccessor.readAllLinesFromClasspath("stopwords.txt");
-        for (String line : lines) {
-            String trimmedLine = line.trim();
-            if (!trimmedLine.isEmpty()) {
-                stopwords.add(trimmedLine);
-            }
-        }
+        Set<String> stopwords = new HashSet<>();
+        ConfigSnapshot.parseStopwords(readConfig("stopwords.txt"), stopwords);
+        current.updateAndGet(previous -> new ConfigSnapshot(stopwords, previous.getSynonyms()));
     }
 
     // 从类路径加载 synonyms.txt
     public void loadSynonyms() throws IOException {
-        List<String> lines = fileAccessor.readAllLinesFromClasspath("synonyms.txt");
-        for (String line : lines) {
-            String trimmedLine = line.trim();
-            if (trimmedLine.isEmpty()) continue;
-
-            String[] parts = trimmedLine.split(",");
-            if (parts.length < 2) {
-                System.err.println("无效的同义词配置行: " + trimmedLine);
-                continue;
+        Map<String, String> synonyms = new HashMap<>();
+        ConfigSnapshot.parseSynonyms(readConfig("synonyms.txt"), synonyms);
+        current.updateAndGet(previous -> new ConfigSnapshot(previous.getStopwords(), synonyms));
+    }
+
+    /**
+     * 重新读取配置并原子替换当前快照，内容未变化时不替换
+     * @return 配置是否发生变化
+     */
+    public boolean reload() throws IOException {
+        ConfigSnapshot snapshot = ConfigSnapshot.parse(readConfig("stopwords.txt"), readConfig("synonyms.txt"));
+        ConfigSnapshot previous = current.get();
+        if (previous.getFingerprint().equals(snapshot.getFingerprint())) {
+            return false;
+        }
+        if (!current.compareAndSet(previous, snapshot)) {
+            return false; // 并发的另一次加载已经替换
+        }
+        for (Consumer<ConfigSnapshot> listener : reloadListeners) {
+            listener.accept(snapshot);
+        }
+        return true;
+    }
+
+    /**
+     * 后台定期重新加载配置（每次都比较指纹，未变化时不替换）
+     */
+    public synchronized void startAutoReload(long intervalMillis) {
+        if (reloader != null) {
+            return;
+        }
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "config-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (IOException | RuntimeException e) {
+                // 加载失败时继续使用旧配置
+                System.err.println("重新加载配置失败: " + e.getMessage());
             }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 配置替换后的回调（在执行加载的线程上调用），例如按新指纹清理缓存
+     */
+    public void addReloadListener(Consumer<ConfigSnapshot> listener) {
+        reloadListeners.add(listener);
+    }
 
-            String standardWord = parts[parts.length - 1].trim();
-            for (int i = 0; i < parts.length - 1; i++) {
-                String synonym = parts[i].trim();
-                if (!synonym.isEmpty() && !standardWord.isEmpty()) {
-                    synonyms.put(synonym, standardWord);
-                }
+    /**
+     * 当前生效的配置快照（无锁读取）
+     */
+    public ConfigSnapshot currentSnapshot() {
+        return current.get();
+    }
+
+    private List<String> readConfig(String fileName) throws IOException {
+        if (configDirectory != null) {
+            Path file = configDirectory.resolve(fileName);
+            if (Files.isRegularFile(file)) {
+                return fileAccessor.readAllLines(file.toString());
             }
         }
+        return fileAccessor.readAllLinesFromClasspath(fileName);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+            reloader = null;
+        }
     }
 
-    // getter方法
-    public Set<String> getStopwords() { return stopwords; }
-    public Map<String, String> getSynonyms() { return synonyms; }
-}
\ No newline at end of file
+    // getter方法：从当前快照读取，热加载线程替换后其他线程立即可见（只读）
+    public Set<String> getStopwords() { return current.get().getStopwords(); }
+    public Map<String, String> getSynonyms() { return current.get().getSynonyms(); }
+}
@@ -0,0 +1,94 @@
+package com.plagiarism.checker;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 停用词与同义词配置的不可变快照。
+ * 热加载时整体替换快照引用，正在处理的请求继续使用它开始时取到的快照，不需要加锁。
+ */
+public final class ConfigSnapshot {
+    private final Set<String> stopwords;
+    private final Map<String, String> synonyms;
+    // 配置内容的指纹，用于区分不同配置下的缓存结果
+    private final String fingerprint;
+
+    public ConfigSnapshot(Set<String> stopwords, Map<String, String> synonyms) {
+        this.stopwords = Collections.unmodifiableSet(new HashSet<>(stopwords));
+        this.synonyms = Collections.unmodifiableMap(new HashMap<>(synonyms));
+        this.fingerprint = computeFingerprint(this.stopwords, this.synonyms);
+    }
+
+    /**
+     * 由 stopwords.txt、synonyms.txt 的行内容构建快照
+     */
+    public static ConfigSnapshot parse(List<String> stopwordLines, List<String> synonymLines) {
+        Set<String> stopwords = new HashSet<>();
+        parseStopwords(stopwordLines, stopwords);
+        Map<String, String> synonyms = new HashMap<>();
+        parseSynonyms(synonymLines, synonyms);
+        return new ConfigSnapshot(stopwords, synonyms);
+    }
+
+    static void parseStopwords(List<String> lines, Set<String> stopwords) {
+        for (String line : lines) {
+            String trimmedLine = line.trim();
+            if (!trimmedLine.isEmpty()) {
+                stopwords.add(trimmedLine);
+            }
+        }
+    }
+
+    // 每行“同义词1,同义词2,...,标准词”，最后一项为标准词
+    static void parseSynonyms(List<String> lines, Map<String, String> synonyms) {
+        for (String line : lines) {
+            String trimmedLine = line.trim();
+            if (trimmedLine.isEmpty()) continue;
+
+            String[] parts = trimmedLine.split(",");
+            if (parts.length < 2) {
+                System.err.println("无效的同义词配置行: " + trimmedLine);
+                continue;
+            }
+
+            String standardWord = parts[parts.length - 1].trim();
+            for (int i = 0; i < parts.length - 1; i++) {
+                String synonym = parts[i].trim();
+                if (!synonym.isEmpty() && !standardWord.isEmpty()) {
+                    synonyms.put(synonym, standardWord);
+                }
+            }
+        }
+    }
+
+    public Set<String> getStopwords() {
+        return stopwords;
+    }
+
+    public Map<String, String> getSynonyms() {
+        return synonyms;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    // 排序后再哈希，保证相同配置得到相同指纹
+    private static String computeFingerprint(Set<String> stopwords, Map<String, String> synonyms) {
+        StringBuilder content = new StringBuilder();
+        for (String word : new TreeSet<>(stopwords)) {
+            content.append(word).append('\n');
+        }
+        content.append('\u0000');
+        for (Map.Entry<String, String> entry : new TreeMap<>(synonyms).entrySet()) {
+            content.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        return SimilarityCache.contentHash(content.toString());
+    }
+}
@@ -0,0 +1,177 @@
+package com.plagiarism.checker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 语料倒排索引：词项 → 包含该词的文档ID列表（压缩存储）。
+ * 文档ID按加入顺序递增分配，因此每个倒排列表都可以直接追加编码。
+ */
+public class CorpusIndex {
+    private final TermDictionary dictionary;
+    // 按词项ID下标存放，追加中的列表
+    private CompressedPostings.Builder[] builders = new CompressedPostings.Builder[1024];
+    // 已封装的只读列表缓存，对应词项有新文档加入时失效
+    private CompressedPostings[] sealed = new CompressedPostings[1024];
+    private int docCount;
+    private long postingCount;
+    // 已删除（被新版本替换）的文档，倒排列表只追加不修改，查询方需跳过这些文档
+    private final BitSet deleted = new BitSet();
+
+    public CorpusIndex() {
+        this(new TermDictionary());
+    }
+
+    public CorpusIndex(TermDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public TermDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * 加入一篇文档（预处理后的词语列表）
+     * @return 新文档ID
+     */
+    public synchronized int addDocument(List<String> words) {
+        int docId = docCount++;
+        for (String word : new HashSet<>(words)) {
+            int termId = dictionary.intern(word);
+            ensureCapacity(termId);
+            if (builders[termId] == null) {
+                builders[termId] = new CompressedPostings.Builder();
+            }
+            builders[termId].add(docId);
+            sealed[termId] = null;
+            postingCount++;
+        }
+        return docId;
+    }
+
+    public synchronized int documentCount() {
+        return docCount;
+    }
+
+    /**
+     * 标记文档已删除，不做索引重建
+     */
+    public synchronized void removeDocument(int docId) {
+        if (docId < 0 || docId >= docCount) {
+            throw new IndexOutOfBoundsException("文档ID越界: " + docId);
+        }
+        deleted.set(docId);
+    }
+
+    public synchronized boolean isDeleted(int docId) {
+        return deleted.get(docId);
+    }
+
+    /**
+     * 获取词项的倒排列表，不存在时返回空列表
+     */
+    public synchronized CompressedPostings postings(String term) {
+        int termId = dictionary.lookup(term);
+        if (termId < 0 || termId >= builders.length || builders[termId] == null) {
+            return CompressedPostings.empty();
+        }
+        if (sealed[termId] == null) {
+            sealed[termId] = builders[termId].build();
+        }
+        return sealed[termId];
+    }
+
+    public int documentFrequency(String term) {
+        return postings(term).size();
+    }
+
+    /**
+     * 同时包含所有词语的文档
+     */
+    public CompressedPostings documentsContainingAll(Collection<String> terms) {
+        List<CompressedPostings> lists = new ArrayList<>();
+        for (String term : new HashSet<>(terms)) {
+            lists.add(postings(term));
+        }
+        return CompressedPostings.intersectAll(lists);
+    }
+
+    /**
+     * 包含任意一个词语的文档（候选集）
+     */
+    public CompressedPostings documentsContainingAny(Collection<String> terms) {
+        List<CompressedPostings> lists = new ArrayList<>();
+        for (String term : new HashSet<>(terms)) {
+            lists.add(postings(term));
+        }
+        return CompressedPostings.unionAll(lists);
+    }
+
+    /**
+     * 与给定词语至少共享 minShared 个不同词的未删除文档（重叠计数过滤）
+     */
+    public CompressedPostings documentsSharingAtLeast(Collection<String> terms, int minShared) {
+        if (minShared < 1) {
+            throw new IllegalArgumentException("最少共享词数必须为正数: " + minShared);
+        }
+        Set<String> distinct = new HashSet<>(terms);
+        if (distinct.size() < minShared) {
+            return CompressedPostings.empty();
+        }
+        int[] shared = new int[documentCount()];
+        int candidates = 0;
+        for (String term : distinct) {
+            CompressedPostings.Cursor cursor = postings(term).cursor();
+            for (int doc = cursor.nextDoc(); doc != CompressedPostings.NO_MORE_DOCS; doc = cursor.nextDoc()) {
+                // 文档数快照之后加入的文档不计入
+                if (doc < shared.length && ++shared[doc] == minShared) {
+                    candidates++;
+                }
+            }
+        }
+        int[] docs = new int[candidates];
+        int n = 0;
+        for (int doc = 0; doc < shared.length; doc++) {
+            if (shared[doc] >= minShared && !isDeleted(doc)) {
+                docs[n++] = doc;
+            }
+        }
+        return CompressedPostings.of(Arrays.copyOf(docs, n));
+    }
+
+    /**
+     * 压缩后倒排列表总字节数
+     */
+    public synchronized long compressedSizeBytes() {
+        long total = 0;
+        for (int termId = 0; termId < builders.length; termId++) {
+            if (builders[termId] != null) {
+                if (sealed[termId] == null) {
+                    sealed[termId] = builders[termId].build();
+                }
+                total += sealed[termId].sizeInBytes();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 同样内容使用 int[] 存储时的字节数（仅数据部分），用于对比压缩效果
+     */
+    public synchronized long uncompressedSizeBytes() {
+        return postingCount * 4;
+    }
+
+    private void ensureCapacity(int termId) {
+        if (termId >= builders.length) {
+            int capacity = Math.max(builders.length * 2, termId + 1);
+            builders = Arrays.copyOf(builders, capacity);
+            sealed = Arrays.copyOf(sealed, capacity);
+        }
+    }
+}
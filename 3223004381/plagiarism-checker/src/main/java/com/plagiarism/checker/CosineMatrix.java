@@ -0,0 +1,112 @@
+package com.plagiarism.checker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 文档两两相似度矩阵（对称，只保存上三角）。
+ *
+ * 文件布局：[int 魔数][int 文档数 n][n × UTF文档名][n × byte 是否非空][上三角 n(n-1)/2 × uint16]，
+ * 相似度按 1/65535 定点量化，5000篇文档约24MB。
+ *
+ * 精度：内存中以 float 保存，与逐对计算只差 float 舍入（基准测试中最大 3e-8）；写入文件时四舍五入到 1/65535 的整数倍，
+ * 读回的值与写入前最多相差半个量化步长（{@link #FILE_PRECISION}，约 7.6e-6）。
+ */
+public final class CosineMatrix {
+    private static final int MAGIC = 0x434F534D;
+    private static final int SCALE = 65535;
+    // 文件读回值与内存值的最大差异：半个量化步长
+    static final double FILE_PRECISION = 0.5 / SCALE;
+
+    private final List<String> names;
+    private final boolean[] nonEmpty;
+    private final float[] upper;
+
+    CosineMatrix(List<String> names, boolean[] nonEmpty, float[] upper) {
+        this.names = Collections.unmodifiableList(new ArrayList<>(names));
+        this.nonEmpty = nonEmpty;
+        this.upper = upper;
+    }
+
+    /**
+     * 上三角的元素个数，文档过多时拒绝
+     */
+    static int upperSize(int n) {
+        long size = (long) n * (n - 1) / 2;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("文档数过多，无法生成完整矩阵: " + n);
+        }
+        return (int) size;
+    }
+
+    // (i, j)，i < j 在上三角数组中的下标
+    static int index(int n, int i, int j) {
+        return (int) ((long) i * n - (long) i * (i + 1) / 2 + (j - i - 1));
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * 第 i 篇与第 j 篇文档的相似度；文档与自身的相似度为1（过滤后为空的文档为0）
+     */
+    public double get(int i, int j) {
+        if (i == j) {
+            return nonEmpty[i] ? 1.0 : 0.0;
+        }
+        return i < j ? upper[index(names.size(), i, j)] : upper[index(names.size(), j, i)];
+    }
+
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(names.size());
+            for (String name : names) {
+                out.writeUTF(name);
+            }
+            for (boolean value : nonEmpty) {
+                out.writeBoolean(value);
+            }
+            for (float value : upper) {
+                out.writeChar(Math.round(Math.min(1f, Math.max(0f, value)) * SCALE));
+            }
+        }
+    }
+
+    public static CosineMatrix read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("不是有效的矩阵文件: " + file);
+            }
+            int n = in.readInt();
+            List<String> names = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                names.add(in.readUTF());
+            }
+            boolean[] nonEmpty = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                nonEmpty[i] = in.readBoolean();
+            }
+            float[] upper = new float[upperSize(n)];
+            for (int i = 0; i < upper.length; i++) {
+                upper[i] = (float) in.readChar() / SCALE;
+            }
+            return new CosineMatrix(names, nonEmpty, upper);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.plagiarism.checker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * 全量相似度矩阵：一次构建稀疏的词项-文档矩阵 D（按词项存倒排列表），
+ * 用按行分块、多线程的稀疏乘法求 DᵀD，代替 n² 次 calculateSimilarity。
+ *
+ * 默认打分中的成对IDF只给共同词非零权重，余弦的模长只在共同词上累计，
+ * 因此对每个文档对需要累加四个量：词频点积、双方在共同词上的词频平方和、共同词数，
+ * 它们都是同一次稀疏乘法的副产品，得到的分数与 calculateSimilarity 一致（只差浮点舍入）。
+ */
+public class CosineMatrixJob {
+    // 每个任务处理的行数
+    private static final int BLOCK_ROWS = 32;
+
+    private final SimilarityCalculator calculator;
+    private final int threads;
+
+    public CosineMatrixJob(SimilarityCalculator calculator, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("线程数必须为正数: " + threads);
+        }
+        if (!calculator.isDefaultScoring()) {
+            throw new IllegalArgumentException("矩阵模式只支持默认的余弦与杰卡德融合打分");
+        }
+        this.calculator = calculator;
+        this.threads = threads;
+    }
+
+    /**
+     * @param names  文档名
+     * @param tokens 与文档名一一对应的预处理后的词语
+     */
+    public CosineMatrix compute(List<String> names, List<List<String>> tokens) {
+        int n = names.size();
+        float[] upper = new float[CosineMatrix.upperSize(n)];
+        DocumentProfile[] profiles = IntStream.range(0, n).parallel()
+                .mapToObj(i -> calculator.profile(tokens.get(i)))
+                .toArray(DocumentProfile[]::new);
+        boolean[] nonEmpty = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            nonEmpty[i] = !profiles[i].isEmpty();
+        }
+
+        TermDocumentMatrix matrix = new TermDocumentMatrix(profiles);
+        AtomicInteger nextBlock = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    RowAccumulator accumulator = new RowAccumulator(n);
+                    int block;
+                    while ((block = nextBlock.getAndIncrement()) * BLOCK_ROWS < n) {
+                        int end = Math.min(n, (block + 1) * BLOCK_ROWS);
+                        for (int row = block * BLOCK_ROWS; row < end; row++) {
+                            accumulator.computeRow(matrix, row, upper);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("矩阵计算被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("矩阵计算失败: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new CosineMatrix(names, nonEmpty, upper);
+    }
+
+    /**
+     * 按词项组织的稀疏矩阵：每个词项的倒排列表（文档ID升序及词频），
+     * 以及每篇文档的词项和它在对应倒排列表中的位置
+     */
+    private static final class TermDocumentMatrix {
+        final int documentCount;
+        final int[][] postingDocs;
+        final double[][] postingTf;
+        final int[][] documentTerms;
+        final int[][] documentPositions;
+        final int[] distinctTerms;
+
+        TermDocumentMatrix(DocumentProfile[] profiles) {
+            documentCount = profiles.length;
+            Map<String, Integer> termIds = new HashMap<>();
+            int[] documentFrequency = new int[1024];
+            double[][] documentTf = new double[documentCount][];
+            documentTerms = new int[documentCount][];
+            distinctTerms = new int[documentCount];
+            for (int doc = 0; doc < documentCount; doc++) {
+                DocumentProfile profile = profiles[doc];
+                int[] terms = new int[profile.distinctTerms()];
+                double[] tf = new double[terms.length];
+                int k = 0;
+                for (Map.Entry<String, Integer> entry : profile.getCounts().entrySet()) {
+                    Integer id = termIds.get(entry.getKey());
+                    if (id == null) {
+                        id = termIds.size();
+                        termIds.put(entry.getKey(), id);
+                        if (id == documentFrequency.length) {
+                            documentFrequency = Arrays.copyOf(documentFrequency, id * 2);
+                        }
+                    }
+                    documentFrequency[id]++;
+                    terms[k] = id;
+                    tf[k++] = (double) entry.getValue() / profile.length();
+                }
+                documentTerms[doc] = terms;
+                documentTf[doc] = tf;
+                distinctTerms[doc] = terms.length;
+            }
+
+            int termCount = termIds.size();
+            postingDocs = new int[termCount][];
+            postingTf = new double[termCount][];
+            for (int term = 0; term < termCount; term++) {
+                postingDocs[term] = new int[documentFrequency[term]];
+                postingTf[term] = new double[documentFrequency[term]];
+            }
+            // 按文档顺序填充，倒排列表天然按文档ID升序
+            int[] fill = new int[termCount];
+            documentPositions = new int[documentCount][];
+            for (int doc = 0; doc < documentCount; doc++) {
+                int[] terms = documentTerms[doc];
+                int[] positions = new int[terms.length];
+                for (int k = 0; k < terms.length; k++) {
+                    int term = terms[k];
+                    int position = fill[term]++;
+                    postingDocs[term][position] = doc;
+                    postingTf[term][position] = documentTf[doc][k];
+                    positions[k] = position;
+                }
+                documentPositions[doc] = positions;
+            }
+        }
+    }
+
+    /**
+     * 单个线程的稠密累加器（Gustavson 行乘法），只清理本行触及的列
+     */
+    private static final class RowAccumulator {
+        private final double[] dot;
+        private final double[] rowSquares;
+        private final double[] columnSquares;
+        private final int[] shared;
+        private final int[] touched;
+
+        RowAccumulator(int n) {
+            dot = new double[n];
+            rowSquares = new double[n];
+            columnSquares = new double[n];
+            shared = new int[n];
+            touched = new int[n];
+        }
+
+        // 计算第 row 行上三角部分（列 > row）
+        void computeRow(TermDocumentMatrix matrix, int row, float[] upper) {
+            int touchedCount = 0;
+            int[] terms = matrix.documentTerms[row];
+            int[] positions = matrix.documentPositions[row];
+            for (int k = 0; k < terms.length; k++) {
+                int[] docs = matrix.postingDocs[terms[k]];
+                double[] tf = matrix.postingTf[terms[k]];
+                double a = tf[positions[k]];
+                double aa = a * a;
+                for (int p = positions[k] + 1; p < docs.length; p++) {
+                    int column = docs[p];
+                    double b = tf[p];
+                    if (shared[column]++ == 0) {
+                        touched[touchedCount++] = column;
+                    }
+                    dot[column] += a * b;
+                    rowSquares[column] += aa;
+                    columnSquares[column] += b * b;
+                }
+            }
+
+            int n = matrix.documentCount;
+            for (int t = 0; t < touchedCount; t++) {
+                int column = touched[t];
+                double cosine = dot[column] / (Math.sqrt(rowSquares[column]) * Math.sqrt(columnSquares[column]));
+                double jaccard = (double) shared[column]
+                        / (matrix.distinctTerms[row] + matrix.distinctTerms[column] - shared[column]);
+                double similarity = SimilarityCalculator.COSINE_WEIGHT * cosine
+                        + SimilarityCalculator.JACCARD_WEIGHT * jaccard;
+                upper[CosineMatrix.index(n, row, column)] = (float) Math.min(1.0, similarity);
+                dot[column] = 0;
+                rowSquares[column] = 0;
+                columnSquares[column] = 0;
+                shared[column] = 0;
+            }
+        }
+    }
+}
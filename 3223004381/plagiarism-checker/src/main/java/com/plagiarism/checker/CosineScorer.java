@@ -0,0 +1,107 @@
+package com.plagiarism.checker;
+
+import java.util.Map;
+
+/**
+ * 余弦相似度打分器
+ * <ul>
+ *     <li>{@link #pairwiseTfIdf()}：与 SimilarityCalculator 原有算法一致，IDF只由两篇文档计算，
+ *     两篇都出现的词 IDF 相同，其余词权重为0，因此模长只在共同词上累计</li>
+ *     <li>{@link #termFrequency()}：完整词频向量的余弦，模长取自画像中预先算好的值，只需遍历共同词</li>
+ * </ul>
+ */
+public final class CosineScorer implements SimilarityScorer {
+    private static final CosineScorer PAIRWISE_TF_IDF = new CosineScorer(true);
+    private static final CosineScorer TERM_FREQUENCY = new CosineScorer(false);
+
+    private final boolean pairwiseIdf;
+
+    private CosineScorer(boolean pairwiseIdf) {
+        this.pairwiseIdf = pairwiseIdf;
+    }
+
+    public static CosineScorer pairwiseTfIdf() {
+        return PAIRWISE_TF_IDF;
+    }
+
+    public static CosineScorer termFrequency() {
+        return TERM_FREQUENCY;
+    }
+
+    @Override
+    public double score(DocumentProfile original, DocumentProfile plagiarized) {
+        if (original.isEmpty() || plagiarized.isEmpty()) {
+            return 0.0;
+        }
+        DocumentProfile smaller = original.distinctTerms() <= plagiarized.distinctTerms() ? original : plagiarized;
+        DocumentProfile larger = smaller == original ? plagiarized : original;
+        return pairwiseIdf ? pairwiseCosine(smaller, larger) : termFrequencyCosine(smaller, larger);
+    }
+
+    private static double termFrequencyCosine(DocumentProfile smaller, DocumentProfile larger) {
+        double dotProduct = 0.0;
+        for (Map.Entry<String, Integer> entry : smaller.getCounts().entrySet()) {
+            int other = larger.count(entry.getKey());
+            if (other > 0) {
+                dotProduct += (double) entry.getValue() / smaller.length() * other / larger.length();
+            }
+        }
+        if (dotProduct == 0) {
+            return 0.0;
+        }
+        return dotProduct / (smaller.getTermFrequencyNorm() * larger.getTermFrequencyNorm());
+    }
+
+    private static double pairwiseCosine(DocumentProfile smaller, DocumentProfile larger) {
+        // 两篇文档都包含的词：IDF = log(2 / (2 + 1))
+        double sharedIdf = Math.log(2.0 / 3);
+        double dotProduct = 0.0;
+        double norm1 = 0.0;
+        double norm2 = 0.0;
+        for (Map.Entry<String, Integer> entry : smaller.getCounts().entrySet()) {
+            int other = larger.count(entry.getKey());
+            if (other == 0) {
+                continue;
+            }
+            double weight1 = decay((double) entry.getValue() / smaller.length() * sharedIdf, smaller.length());
+            double weight2 = decay((double) other / larger.length() * sharedIdf, larger.length());
+            dotProduct += weight1 * weight2;
+            norm1 += weight1 * weight1;
+            norm2 += weight2 * weight2;
+        }
+        if (norm1 == 0 || norm2 == 0) {
+            return 0.0;
+        }
+        return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
+    }
+
+    @Override
+    public boolean supportsStoredVectors() {
+        return true;
+    }
+
+    /**
+     * 存储的权重为词频；成对IDF下共同词的IDF相同，余弦与共同词上的词频余弦相等
+     */
+    @Override
+    public double score(OffHeapVectorStore.Overlap overlap) {
+        if (overlap.getDot() == 0) {
+            return 0.0;
+        }
+        if (pairwiseIdf) {
+            return overlap.getDot() / (Math.sqrt(overlap.getSharedSquaresA()) * Math.sqrt(overlap.getSharedSquaresB()));
+        }
+        return overlap.getDot() / (overlap.getNormA() * overlap.getNormB());
+    }
+
+    // 与 SimilarityCalculator 相同的高频词权重衰减
+    private static double decay(double weight, int totalWords) {
+        return weight / totalWords > SimilarityCalculator.HIGH_FREQ_THRESHOLD
+                ? weight * SimilarityCalculator.HIGH_FREQ_DECAY : weight;
+    }
+
+    @Override
+    public String getName() {
+        return pairwiseIdf ? "cosine" : "tf-cosine";
+    }
+}
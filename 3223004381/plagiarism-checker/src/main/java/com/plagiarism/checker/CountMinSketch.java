@@ -0,0 +1,132 @@
+package com.plagiarism.checker;
+
+/**
+ * Count-Min Sketch：depth 行、每行 width 个计数器的固定大小频率摘要。
+ *
+ * 频率估计只会偏高：以至少 1-δ 的概率，estimate(x) ≤ f(x) + ε·N，
+ * 其中 N 为总计数，ε = e/width，δ = e^(-depth)。
+ * 两个同规格摘要的内积估计同样只会偏高：以至少 1-δ 的概率，
+ * 误差不超过 ε·‖a‖₁·‖b‖₁。
+ */
+public class CountMinSketch {
+    private final int width;
+    private final int depth;
+    private final long[] seeds;
+    // 按行展开存放：counts[row * width + column]
+    private final long[] counts;
+    private long totalCount;
+
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("摘要宽度和深度必须为正数: " + width + "x" + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.seeds = new long[depth];
+        this.counts = new long[width * depth];
+        long seed = 0x632BE59BD9B4E019L;
+        for (int i = 0; i < depth; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            seeds[i] = MinHashSketch.mix(seed);
+        }
+    }
+
+    /**
+     * 按误差要求确定规格
+     * @param epsilon 相对误差 ε（相对于总计数）
+     * @param delta   超出误差的概率 δ
+     */
+    public static CountMinSketch withErrorBound(double epsilon, double delta) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("误差参数必须在(0,1)之间: ε=" + epsilon + ", δ=" + delta);
+        }
+        int width = (int) Math.ceil(Math.E / epsilon);
+        int depth = (int) Math.ceil(Math.log(1 / delta));
+        return new CountMinSketch(width, depth);
+    }
+
+    /**
+     * 累加一个元素的计数（元素以64位哈希表示）
+     */
+    public void add(long hash, long count) {
+        for (int row = 0; row < depth; row++) {
+            counts[row * width + column(row, hash)] += count;
+        }
+        totalCount += count;
+    }
+
+    /**
+     * 估计元素的计数（不小于真实值）
+     */
+    public long estimate(long hash) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row * width + column(row, hash)]);
+        }
+        return min;
+    }
+
+    /**
+     * 估计两个频率向量的内积（不小于真实值），两个摘要必须规格相同
+     */
+    public double innerProduct(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("摘要规格不一致");
+        }
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            double sum = 0;
+            int offset = row * width;
+            for (int column = 0; column < width; column++) {
+                sum += (double) counts[offset + column] * other.counts[offset + column];
+            }
+            min = Math.min(min, sum);
+        }
+        return min;
+    }
+
+    /**
+     * 去掉若干元素计数后的副本（计数器不低于0），用于把高频词从内积估计中分离出来
+     */
+    CountMinSketch residual(long[] hashes, long[] removedCounts) {
+        CountMinSketch copy = new CountMinSketch(width, depth);
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        copy.totalCount = totalCount;
+        for (int i = 0; i < hashes.length; i++) {
+            for (int row = 0; row < depth; row++) {
+                int index = row * width + column(row, hashes[i]);
+                copy.counts[index] = Math.max(0, copy.counts[index] - removedCounts[i]);
+            }
+            copy.totalCount -= removedCounts[i];
+        }
+        copy.totalCount = Math.max(0, copy.totalCount);
+        return copy;
+    }
+
+    public long totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * 误差系数 ε = e/width
+     */
+    public double epsilon() {
+        return Math.E / width;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public long sizeInBytes() {
+        return (long) counts.length * 8;
+    }
+
+    private int column(int row, long hash) {
+        return (int) ((MinHashSketch.mix(hash ^ seeds[row]) >>> 1) % width);
+    }
+}
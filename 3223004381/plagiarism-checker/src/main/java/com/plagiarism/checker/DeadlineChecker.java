@@ -0,0 +1,213 @@
+package com.plagiarism.checker;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 限时查重：在给定时间预算内返回当前最好的结果。
+ *
+ * 调用时立即在后台开始精确计算，同时在调用线程上把抽样文本经同一个预处理器
+ * （相同的停用词、同义词配置）分词后逐块构建近似画像（Count-Min摘要 + MinHash），
+ * 每块之后检查时间预算，到期即停止；
+ * 预算内精确计算完成则返回精确值，否则取消精确计算并返回已处理各块得到的估计值。
+ * 估计至少处理第一块，因此超出预算的时间不超过一块的处理时间。
+ * 估计值的余弦部分是全部词语上的词频余弦，精确值只在共有词上计算，
+ * 因此部分改写的文本估计值偏低，完全相同或毫无共同词的文本两者一致。
+ * 精确计算在分词的每个分段、每篇文本的画像构建前后检查中断，被取消后很快释放线程，
+ * 后续的查重不会排在已超时的任务后面。
+ */
+public class DeadlineChecker implements Closeable {
+    // 超过该长度的文本只抽样若干等间隔片段做估计
+    private static final int SAMPLE_CHARS = 20_000;
+    private static final int SAMPLE_WINDOWS = 8;
+    // 估计时每次加入画像的文本长度，决定检查时间预算的粒度
+    private static final int CHUNK_CHARS = 500;
+
+    private final TextPreprocessor preprocessor;
+    private final SimilarityCalculator calculator;
+    private final ExecutorService executor;
+
+    /**
+     * @param threads 精确计算的并发线程数
+     */
+    public DeadlineChecker(TextPreprocessor preprocessor, SimilarityCalculator calculator, int threads) {
+        if (!calculator.isDefaultScoring()) {
+            throw new IllegalArgumentException("限时查重的估计值只支持默认的余弦与杰卡德融合打分");
+        }
+        this.preprocessor = preprocessor;
+        this.calculator = calculator;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "deadline-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 在 budgetMillis 毫秒内计算相似度
+     */
+    public Result check(String originalText, String plagiarizedText, long budgetMillis) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        // 精确值与估计值使用同一个配置快照
+        ConfigSnapshot snapshot = preprocessor.currentConfig();
+        Future<Double> exact = executor.submit(() -> computeExact(originalText, plagiarizedText, snapshot));
+
+        // 估计值也在预算内逐块构建；精确值先算完时直接返回精确值
+        Estimate estimate = new Estimate(originalText, plagiarizedText, snapshot);
+        estimate.step();
+        while (estimate.hasNext() && System.nanoTime() < deadline && !exact.isDone()) {
+            estimate.step();
+        }
+        try {
+            double similarity = exact.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return new Result(similarity, true, elapsedMillis(start));
+        } catch (TimeoutException | CancellationException e) {
+            exact.cancel(true);
+        } catch (InterruptedException e) {
+            exact.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("相似度计算失败: " + e.getCause().getMessage(), e.getCause());
+        }
+        return new Result(estimate.similarity(), false, elapsedMillis(start));
+    }
+
+    private double computeExact(String originalText, String plagiarizedText, ConfigSnapshot snapshot) {
+        // 预处理在分段之间自行检查中断；打分拆成两次画像构建和一次按不同词计算，逐步检查
+        List<String> originalWords = preprocessor.preprocess(originalText, snapshot);
+        checkCancelled();
+        List<String> plagiarizedWords = preprocessor.preprocess(plagiarizedText, snapshot);
+        checkCancelled();
+        DocumentProfile originalProfile = calculator.profile(originalWords);
+        checkCancelled();
+        DocumentProfile plagiarizedProfile = calculator.profile(plagiarizedWords);
+        checkCancelled();
+        double similarity = calculator.calculateSimilarity(originalProfile, plagiarizedProfile);
+        return Math.min(1.0, Math.max(0.0, similarity));
+    }
+
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("已超过时间预算");
+        }
+    }
+
+    /**
+     * 快速估计：只处理抽样文本，分词与精确计算使用同一个预处理器
+     */
+    double estimate(String originalText, String plagiarizedText) {
+        Estimate estimate = new Estimate(originalText, plagiarizedText, preprocessor.currentConfig());
+        while (estimate.hasNext()) {
+            estimate.step();
+        }
+        return estimate.similarity();
+    }
+
+    // 长文本取等间隔的若干片段，总长度约为 SAMPLE_CHARS，短文本整体均分为若干片段；
+    // 再把片段切成块，先取每个片段的第一块、再取第二块……提前停止时样本仍覆盖全文
+    private static List<String> sampleChunks(String text) {
+        List<String> chunks = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return chunks;
+        }
+        int length = text.length();
+        int windows = Math.min(SAMPLE_WINDOWS, (length + CHUNK_CHARS - 1) / CHUNK_CHARS);
+        int[] starts = new int[windows];
+        int[] ends = new int[windows];
+        for (int i = 0; i < windows; i++) {
+            if (length <= SAMPLE_CHARS) {
+                starts[i] = (int) ((long) i * length / windows);
+                ends[i] = (int) ((long) (i + 1) * length / windows);
+            } else {
+                int window = SAMPLE_CHARS / SAMPLE_WINDOWS;
+                starts[i] = i * ((length - window) / (windows - 1));
+                ends[i] = starts[i] + window;
+            }
+        }
+        for (int offset = 0; ; offset += CHUNK_CHARS) {
+            int added = 0;
+            for (int i = 0; i < windows; i++) {
+                int from = starts[i] + offset;
+                if (from < ends[i]) {
+                    chunks.add(text.substring(from, Math.min(ends[i], from + CHUNK_CHARS)));
+                    added++;
+                }
+            }
+            if (added == 0) {
+                return chunks;
+            }
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // 逐块构建的估计：两篇文本的样本块交替加入各自的近似画像，可在任意一块之后停止
+    private final class Estimate {
+        private final ApproximateTermProfile original = new ApproximateTermProfile();
+        private final ApproximateTermProfile plagiarized = new ApproximateTermProfile();
+        private final List<String> originalChunks;
+        private final List<String> plagiarizedChunks;
+        private final ConfigSnapshot snapshot;
+        private int next;
+
+        Estimate(String originalText, String plagiarizedText, ConfigSnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.originalChunks = sampleChunks(originalText);
+            this.plagiarizedChunks = sampleChunks(plagiarizedText);
+        }
+
+        boolean hasNext() {
+            return next < Math.max(originalChunks.size(), plagiarizedChunks.size());
+        }
+
+        void step() {
+            if (next < originalChunks.size()) {
+                calculator.updateApproximateProfile(original, preprocessor.preprocess(originalChunks.get(next), snapshot));
+            }
+            if (next < plagiarizedChunks.size()) {
+                calculator.updateApproximateProfile(plagiarized, preprocessor.preprocess(plagiarizedChunks.get(next), snapshot));
+            }
+            next++;
+        }
+
+        double similarity() {
+            double similarity = calculator.calculateApproximateSimilarity(original, plagiarized);
+            return Math.min(1.0, Math.max(0.0, similarity));
+        }
+    }
+
+    /**
+     * 限时查重的结果：相似度及其是否为精确值
+     */
+    public static final class Result {
+        private final double similarity;
+        private final boolean exact;
+        private final long elapsedMillis;
+
+        Result(double similarity, boolean exact, long elapsedMillis) {
+            this.similarity = similarity;
+            this.exact = exact;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double getSimilarity() { return similarity; }
+        public boolean isExact() { return exact; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+}
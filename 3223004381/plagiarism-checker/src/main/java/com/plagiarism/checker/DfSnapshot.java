@@ -0,0 +1,42 @@
+package com.plagiarism.checker;
+
+/**
+ * 某一时刻语料文档频率的不可变快照，供相似度计算使用语料级IDF
+ */
+public final class DfSnapshot {
+    private final TermDictionary dictionary;
+    private final int[] documentFrequencies;
+    private final long documentCount;
+
+    DfSnapshot(TermDictionary dictionary, int[] documentFrequencies, long documentCount) {
+        this.dictionary = dictionary;
+        this.documentFrequencies = documentFrequencies;
+        this.documentCount = documentCount;
+    }
+
+    public long documentCount() {
+        return documentCount;
+    }
+
+    /**
+     * 包含该词的文档数，快照之后才出现的词为0
+     */
+    public int documentFrequency(String term) {
+        int termId = dictionary.lookup(term);
+        if (termId < 0 || termId >= documentFrequencies.length) {
+            return 0;
+        }
+        return documentFrequencies[termId];
+    }
+
+    /**
+     * 平滑IDF：log((N+1)/(df+1)) + 1，语料中未出现的词取最大值，始终为正
+     */
+    public double idf(String term) {
+        return smoothedIdf(documentCount, documentFrequency(term));
+    }
+
+    static double smoothedIdf(long documentCount, long documentFrequency) {
+        return Math.log((documentCount + 1.0) / (documentFrequency + 1)) + 1;
+    }
+}
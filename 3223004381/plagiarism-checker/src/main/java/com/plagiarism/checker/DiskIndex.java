@@ -0,0 +1,165 @@
+package com.plagiarism.checker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 磁盘倒排索引（由 {@link SpimiIndexBuilder} 生成）。
+ *
+ * 文件布局：[倒排列表区][词典区][尾部]。
+ * 倒排列表为 {@link CompressedPostings#toBytes()} 的格式；词典区按字典序重复 [UTF词项][long 偏移]；
+ * 尾部为 [long 词典区偏移][int 词项数][int 文档数][int 魔数]。
+ * 打开时只把词典读入内存，倒排列表按需从文件读取，索引文件可以远大于堆内存。
+ */
+public class DiskIndex implements Closeable {
+    private static final int MAGIC = 0x53504958;
+    private static final int TRAILER_BYTES = 8 + 4 + 4 + 4;
+    // 倒排列表头部：类型、文档数、最大文档ID、数据长度
+    private static final int POSTINGS_HEADER_BYTES = 13;
+
+    private final FileChannel channel;
+    private final String[] terms;
+    private final long[] offsets;
+    private final int documentCount;
+
+    private DiskIndex(FileChannel channel, String[] terms, long[] offsets, int documentCount) {
+        this.channel = channel;
+        this.terms = terms;
+        this.offsets = offsets;
+        this.documentCount = documentCount;
+    }
+
+    public static DiskIndex open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < TRAILER_BYTES) {
+                throw new IOException("索引文件不完整: " + file);
+            }
+            ByteBuffer trailer = readFully(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+            long dictionaryOffset = trailer.getLong();
+            int termCount = trailer.getInt();
+            int documentCount = trailer.getInt();
+            if (trailer.getInt() != MAGIC) {
+                throw new IOException("不是有效的索引文件: " + file);
+            }
+
+            String[] terms = new String[termCount];
+            long[] offsets = new long[termCount];
+            channel.position(dictionaryOffset);
+            // 不关闭该流：关闭会连同通道一起关闭
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+            for (int i = 0; i < termCount; i++) {
+                terms[i] = in.readUTF();
+                offsets[i] = in.readLong();
+            }
+            return new DiskIndex(channel, terms, offsets, documentCount);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int documentCount() {
+        return documentCount;
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    /**
+     * 读取词项的倒排列表，不存在时返回空列表
+     */
+    public CompressedPostings postings(String term) throws IOException {
+        int index = Arrays.binarySearch(terms, term);
+        if (index < 0) {
+            return CompressedPostings.empty();
+        }
+        ByteBuffer header = readFully(channel, offsets[index], POSTINGS_HEADER_BYTES);
+        int payload = header.getInt(9);
+        return CompressedPostings.fromBytes(readFully(channel, offsets[index], POSTINGS_HEADER_BYTES + payload));
+    }
+
+    public int documentFrequency(String term) throws IOException {
+        return postings(term).size();
+    }
+
+    // 定位读取，多个线程可以同时查询
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("索引文件意外结束");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 顺序写入索引：词项必须按字典序写入
+     */
+    static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final Path dictionaryFile;
+        private final DataOutputStream dictionary;
+        private final int documentCount;
+        private long position;
+        private int termCount;
+        private String lastTerm;
+
+        Writer(Path file, int documentCount) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+            // 词典先写到临时文件，最后追加到倒排列表区之后，避免词典整体驻留内存
+            this.dictionaryFile = file.resolveSibling(file.getFileName() + ".dict.tmp");
+            this.dictionary = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(dictionaryFile), 1 << 16));
+            this.documentCount = documentCount;
+        }
+
+        void write(String term, CompressedPostings postings) throws IOException {
+            if (lastTerm != null && term.compareTo(lastTerm) <= 0) {
+                throw new IllegalArgumentException("词项必须按字典序写入: " + term);
+            }
+            byte[] data = postings.toBytes();
+            dictionary.writeUTF(term);
+            dictionary.writeLong(position);
+            out.write(data);
+            position += data.length;
+            termCount++;
+            lastTerm = term;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                dictionary.close();
+                Files.copy(dictionaryFile, out);
+                out.writeLong(position);
+                out.writeInt(termCount);
+                out.writeInt(documentCount);
+                out.writeInt(MAGIC);
+            } finally {
+                out.close();
+                Files.deleteIfExists(dictionaryFile);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.plagiarism.checker;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 并行导入时的文档频率（DF）统计。
+ *
+ * 每个导入线程只向自己的暂存链表追加记录，统计一篇文档不加任何锁：一篇文档去重后的词项ID
+ * 封装成一个不可变节点，通过一次 volatile 写挂到链表末尾，因此其他线程要么看到整篇文档，要么完全看不到。
+ * 调用 {@link #publish()} 时把各线程新挂上的节点合并进总计数，生成不可变的 {@link DfSnapshot}；
+ * 已合并的节点随即可被回收，两次发布之间暂存的只是这段时间新增文档的词项ID。
+ */
+public class DocumentFrequencyAccumulator {
+    private final TermDictionary dictionary;
+    private final List<Counter> counters = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Counter> localCounter = ThreadLocal.withInitial(() -> {
+        Counter counter = new Counter();
+        counters.add(counter);
+        return counter;
+    });
+    // 合并后的总计数，只在 publish() 中读写
+    private int[] counts = new int[1024];
+    private long documents;
+    private volatile DfSnapshot published;
+
+    public DocumentFrequencyAccumulator() {
+        this(new TermDictionary());
+    }
+
+    public DocumentFrequencyAccumulator(TermDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.published = new DfSnapshot(dictionary, new int[0], 0);
+    }
+
+    /**
+     * 统计一篇文档（预处理后的词语，重复词只计一次），可从任意线程调用
+     */
+    public void addDocument(Collection<String> words) {
+        localCounter.get().add(termIds(words), 1);
+    }
+
+    /**
+     * 撤销一篇文档的统计（例如被新版本替换），词语须与加入时相同，可从任意线程调用
+     */
+    public void removeDocument(Collection<String> words) {
+        localCounter.get().add(termIds(words), -1);
+    }
+
+    // 去重并排序的词项ID
+    private int[] termIds(Collection<String> words) {
+        int[] termIds = new int[words.size()];
+        int n = 0;
+        for (String word : words) {
+            termIds[n++] = dictionary.intern(word);
+        }
+        Arrays.sort(termIds, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || termIds[i] != termIds[i - 1]) {
+                termIds[distinct++] = termIds[i];
+            }
+        }
+        return Arrays.copyOf(termIds, distinct);
+    }
+
+    /**
+     * 合并所有线程的计数，发布并返回新的快照
+     */
+    public synchronized DfSnapshot publish() {
+        for (Counter counter : counters) {
+            for (Staged node = counter.merged.next; node != null; node = node.next) {
+                int[] termIds = node.termIds;
+                if (termIds.length > 0 && termIds[termIds.length - 1] >= counts.length) {
+                    counts = Arrays.copyOf(counts, Math.max(counts.length * 2, termIds[termIds.length - 1] + 1));
+                }
+                for (int termId : termIds) {
+                    counts[termId] += node.delta;
+                }
+                documents += node.delta;
+                counter.merged = node;
+            }
+        }
+        DfSnapshot snapshot = new DfSnapshot(dictionary, Arrays.copyOf(counts, dictionary.size()), documents);
+        published = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * 最近一次发布的快照（发布之后新增的文档不包含在内）
+     */
+    public DfSnapshot latest() {
+        return published;
+    }
+
+    public TermDictionary getDictionary() {
+        return dictionary;
+    }
+
+    // 单个线程的暂存链表：只有所属线程追加，只有 publish() 读取
+    private static final class Counter {
+        // 所属线程追加的位置
+        private Staged tail = new Staged(new int[0], 0);
+        // 已合并到总计数的最后一个节点，由 publish() 在锁内推进
+        private Staged merged = tail;
+
+        void add(int[] sortedTermIds, int delta) {
+            Staged node = new Staged(sortedTermIds, delta);
+            tail.next = node; // 整篇文档通过这一次 volatile 写发布
+            tail = node;
+        }
+    }
+
+    // 一篇文档的暂存记录，发布后不再修改
+    private static final class Staged {
+        private final int[] termIds;
+        private final int delta;
+        private volatile Staged next;
+
+        Staged(int[] termIds, int delta) {
+            this.termIds = termIds;
+            this.delta = delta;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.plagiarism.checker;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 打分用的文档画像：过滤后的词语序列、词频、长度和词频向量的模长在构建时一次算好，
+ * 同一篇原文与多篇文档比较时不必重复统计。由 {@link SimilarityCalculator#profile} 构建。
+ */
+public final class DocumentProfile {
+    private final List<String> words;
+    private final Map<String, Integer> counts;
+    private final double termFrequencyNorm;
+
+    /**
+     * @param words 已经过干扰词、停用词过滤的词语
+     */
+    DocumentProfile(List<String> words) {
+        this.words = Collections.unmodifiableList(words);
+        Map<String, Integer> counts = new HashMap<>();
+        for (String word : words) {
+            counts.merge(word, 1, Integer::sum);
+        }
+        this.counts = Collections.unmodifiableMap(counts);
+
+        double sumOfSquares = 0;
+        for (int count : counts.values()) {
+            double tf = (double) count / words.size();
+            sumOfSquares += tf * tf;
+        }
+        this.termFrequencyNorm = Math.sqrt(sumOfSquares);
+    }
+
+    /**
+     * 过滤后的词语序列（保留顺序）
+     */
+    public List<String> getWords() {
+        return words;
+    }
+
+    /**
+     * 词语 → 出现次数
+     */
+    public Map<String, Integer> getCounts() {
+        return counts;
+    }
+
+    /**
+     * 过滤后的词数
+     */
+    public int length() {
+        return words.size();
+    }
+
+    public int distinctTerms() {
+        return counts.size();
+    }
+
+    public boolean isEmpty() {
+        return words.isEmpty();
+    }
+
+    public int count(String term) {
+        Integer count = counts.get(term);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 词频（出现次数 / 词数）
+     */
+    public double termFrequency(String term) {
+        return words.isEmpty() ? 0.0 : (double) count(term) / words.size();
+    }
+
+    /**
+     * 词频向量的L2模长
+     */
+    public double getTermFrequencyNorm() {
+        return termFrequencyNorm;
+    }
+}
@@ -4,9 +4,19 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import java.io.*;
 import java.util.ArrayList;
@@ -21,6 +31,10 @@ public class FileAccessor {
             Charset.forName("GBK"),
             StandardCharsets.ISO_8859_1
     };
+    // 分块读取时优先使用的切分字符
+    private static final String CHUNK_BOUNDARIES = "\n。！？!?；;";
+    // tar 格式的块大小
+    private static final int TAR_BLOCK = 512;
 
     /**
      * 读取文件内容，增加缓冲流提高大文件处理性能
@@ -31,17 +45,22 @@ public class FileAccessor {
     public String readFile(String filePath) throws IOException {
         // 使用缓冲流读取，更适合大文件，且保持一致的编码处理
         try (BufferedReader reader = Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8)) {
-            StringBuilder content = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append(System.lineSeparator()); // 保持系统一致的换行符
-            }
-            // 移除最后一个多余的换行符
-            if (content.length() > 0) {
-                content.setLength(content.length() - System.lineSeparator().length());
-            }
-            return content.toString();
+            return readText(reader);
+        }
+    }
+
+    // 逐行读取并统一为系统换行符，压缩包条目与普通文件读取结果一致
+    private static String readText(BufferedReader reader) throws IOException {
+        StringBuilder content = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            content.append(line).append(System.lineSeparator()); // 保持系统一致的换行符
+        }
+        // 移除最后一个多余的换行符
+        if (content.length() > 0) {
+            content.setLength(content.length() - System.lineSeparator().length());
         }
+        return content.toString();
     }
 
     /**
@@ -81,12 +100,274 @@ public class FileAccessor {
      * @throws IOException 读写异常
      */
     public void writeFile(String filePath, String content) throws IOException {
-        // 确保父目录存在
-        Files.createDirectories(Paths.get(filePath).getParent());
+        // 确保父目录存在（相对路径的文件名没有父目录）
+        Path parent = Paths.get(filePath).toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
 
         try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filePath), StandardCharsets.UTF_8)) {
             writer.write(content);
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * 分块读取大文件，每块约 chunkChars 个字符，尽量在换行或句末标点处切分，避免整文件载入内存
+     * @param filePath   文件路径
+     * @param chunkChars 每块的字符数上限
+     * @param consumer   逐块回调
+     * @throws IOException 读写异常
+     */
+    public void readChunks(String filePath, int chunkChars, Consumer<String> consumer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[chunkChars];
+            int length = 0;
+            int read;
+            while ((read = reader.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+                if (length < buffer.length) {
+                    continue;
+                }
+                int cut = length;
+                for (int i = length - 1; i > length / 2; i--) {
+                    if (CHUNK_BOUNDARIES.indexOf(buffer[i]) >= 0) {
+                        cut = i + 1;
+                        break;
+                    }
+                }
+                consumer.accept(new String(buffer, 0, cut));
+                // 切分点之后的内容留到下一块
+                System.arraycopy(buffer, cut, buffer, 0, length - cut);
+                length -= cut;
+            }
+            if (length > 0) {
+                consumer.accept(new String(buffer, 0, length));
+            }
+        }
+    }
+
+    /**
+     * 列出目录下的所有普通文件（不递归），按文件名排序
+     * @param directory 目录路径
+     * @return 文件路径列表
+     * @throws IOException 读写异常
+     */
+    public List<Path> listFiles(String directory) throws IOException {
+        try (Stream<Path> paths = Files.list(Paths.get(directory))) {
+            return paths.filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 读取目录下所有文件的内容
+     * @param directory 目录路径
+     * @return 文件名 → 文件内容（按文件名排序）
+     * @throws IOException 读写异常
+     */
+    public Map<String, String> readDirectory(String directory) throws IOException {
+        Map<String, String> documents = new LinkedHashMap<>();
+        for (Path path : listFiles(directory)) {
+            documents.put(path.getFileName().toString(), readFile(path.toString()));
+        }
+        return documents;
+    }
+
+    /**
+     * 流式读取 .zip、.tar.gz（.tgz）、.tar 压缩包中的文本文件，不解压到磁盘。
+     * 跳过目录、隐藏文件和 __MACOSX 元数据，条目按UTF-8解码
+     * @param archivePath 压缩包路径
+     * @param consumer    按压缩包内顺序回调（条目路径, 文本内容）
+     * @throws IOException 读写异常或压缩包格式错误
+     */
+    public void readArchive(String archivePath, BiConsumer<String, String> consumer) throws IOException {
+        String lowerName = archivePath.toLowerCase(Locale.ROOT);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(archivePath)))) {
+            if (lowerName.endsWith(".zip")) {
+                readZip(in, consumer);
+            } else if (lowerName.endsWith(".tar.gz") || lowerName.endsWith(".tgz")) {
+                readTar(new GZIPInputStream(in, 65536), consumer);
+            } else if (lowerName.endsWith(".tar")) {
+                readTar(in, consumer);
+            } else {
+                throw new IOException("不支持的压缩包格式: " + archivePath);
+            }
+        }
+    }
+
+    private static void readZip(InputStream in, BiConsumer<String, String> consumer) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in, StandardCharsets.UTF_8);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (!entry.isDirectory() && isSubmission(entry.getName())) {
+                consumer.accept(entry.getName(), decodeEntry(readEntry(zip, -1)));
+            }
+        }
+    }
+
+    /**
+     * tar 格式：512字节的头部 + 按512字节对齐的内容，支持 ustar 前缀和 GNU/pax 长文件名
+     */
+    private static void readTar(InputStream in, BiConsumer<String, String> consumer) throws IOException {
+        byte[] header = new byte[TAR_BLOCK];
+        String longName = null;
+        while (readBlock(in, header)) {
+            if (isZeroBlock(header)) {
+                break; // 归档结束标记
+            }
+            verifyTarChecksum(header);
+            String name = longName;
+            longName = null;
+            if (name == null) {
+                name = tarString(header, 0, 100);
+                String prefix = tarString(header, 345, 155);
+                if (tarString(header, 257, 6).startsWith("ustar") && !prefix.isEmpty()) {
+                    name = prefix + "/" + name;
+                }
+            }
+            long size = tarNumber(header, 124, 12);
+            long padding = (TAR_BLOCK - size % TAR_BLOCK) % TAR_BLOCK;
+            byte type = header[156];
+            boolean submission = (type == '0' || type == 0) && isSubmission(name);
+            if (!submission && type != 'L' && type != 'x') {
+                skipFully(in, size + padding); // 不读取的条目直接跳过，不缓存内容，也不受条目大小限制
+                continue;
+            }
+            byte[] data = readEntry(in, size);
+            skipFully(in, padding);
+
+            if (type == 'L') {
+                longName = new String(data, StandardCharsets.UTF_8).replace("\0", "");
+            } else if (type == 'x') {
+                longName = paxPath(data);
+            } else {
+                consumer.accept(name, decodeEntry(data));
+            }
+        }
+    }
+
+    private static boolean readBlock(InputStream in, byte[] block) throws IOException {
+        int offset = 0;
+        while (offset < block.length) {
+            int read = in.read(block, offset, block.length - offset);
+            if (read == -1) {
+                if (offset == 0) {
+                    return false;
+                }
+                throw new EOFException("tar 头部不完整");
+            }
+            offset += read;
+        }
+        return true;
+    }
+
+    private static boolean isZeroBlock(byte[] block) {
+        for (byte b : block) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 校验和：头部所有字节之和，计算时校验和字段按空格计
+    private static void verifyTarChecksum(byte[] header) throws IOException {
+        long expected = tarNumber(header, 148, 8);
+        long sum = 0;
+        for (int i = 0; i < header.length; i++) {
+            sum += i >= 148 && i < 156 ? ' ' : header[i] & 0xFF;
+        }
+        if (sum != expected) {
+            throw new IOException("tar 头部校验和错误");
+        }
+    }
+
+    private static String tarString(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    // 数值字段：八进制文本，或最高位为1时的二进制大端（超过8GB的GNU扩展）
+    private static long tarNumber(byte[] header, int offset, int length) throws IOException {
+        if ((header[offset] & 0x80) != 0) {
+            long value = 0;
+            for (int i = offset + 1; i < offset + length; i++) {
+                value = (value << 8) | (header[i] & 0xFF);
+            }
+            return value;
+        }
+        String text = tarString(header, offset, length).trim();
+        try {
+            return text.isEmpty() ? 0 : Long.parseLong(text, 8);
+        } catch (NumberFormatException e) {
+            throw new IOException("tar 头部数值字段无效: " + text, e);
+        }
+    }
+
+    // pax 扩展头：若干条“长度 键=值\n”，只取 path
+    private static String paxPath(byte[] data) {
+        String records = new String(data, StandardCharsets.UTF_8);
+        for (String record : records.split("\n")) {
+            int space = record.indexOf(' ');
+            if (space > 0 && record.startsWith("path=", space + 1)) {
+                return record.substring(space + 1 + "path=".length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 读取当前条目的全部内容
+     * @param size 条目大小，-1表示读到条目结束
+     */
+    private static byte[] readEntry(InputStream in, long size) throws IOException {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("压缩包条目过大: " + size + " 字节");
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream(size > 0 ? (int) size : 8192);
+        byte[] buffer = new byte[8192];
+        long remaining = size < 0 ? Long.MAX_VALUE : size;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                if (size >= 0) {
+                    throw new EOFException("压缩包条目内容不完整");
+                }
+                break;
+            }
+            content.write(buffer, 0, read);
+            remaining -= read;
+        }
+        return content.toByteArray();
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    throw new EOFException("压缩包内容不完整");
+                }
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+
+    private static String decodeEntry(byte[] data) throws IOException {
+        return readText(new BufferedReader(new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8)));
+    }
+
+    // 跳过隐藏文件和 macOS 打包时附带的元数据
+    private static boolean isSubmission(String entryName) {
+        if (entryName.startsWith("__MACOSX/")) {
+            return false;
+        }
+        String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+        return !fileName.isEmpty() && !fileName.startsWith(".");
+    }
+}
@@ -0,0 +1,293 @@
+package com.plagiarism.checker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 贪心串覆盖（Running-Karp-Rabin Greedy String Tiling）：在两个词语序列中反复寻找最长的公共片段，
+ * 把互不重叠的片段标记为“覆盖块”（tile），直到找不到不短于最小匹配长度的片段。
+ * 整段调换顺序的抄袭仍会被逐块覆盖，覆盖率作为相似度，覆盖块的位置作为抄袭证据。
+ * 每轮只对未标记的长度为 s 的窗口计算滚动哈希并查表，真实文本上平均接近线性。
+ */
+public class GreedyStringTiling {
+    public static final int DEFAULT_MINIMUM_MATCH_LENGTH = 3;
+    // 第一轮的搜索长度，发现更长的匹配时自动加长
+    private static final int INITIAL_SEARCH_LENGTH = 20;
+    private static final long BASE = 0x100000001B3L;
+
+    private final int minimumMatchLength;
+
+    public GreedyStringTiling() {
+        this(DEFAULT_MINIMUM_MATCH_LENGTH);
+    }
+
+    public GreedyStringTiling(int minimumMatchLength) {
+        if (minimumMatchLength <= 0) {
+            throw new IllegalArgumentException("最小匹配长度必须为正数: " + minimumMatchLength);
+        }
+        this.minimumMatchLength = minimumMatchLength;
+    }
+
+    /**
+     * 计算两个词语序列的覆盖块
+     * @param original    原文词语
+     * @param plagiarized 抄袭版词语
+     */
+    public Result tile(List<String> original, List<String> plagiarized) {
+        Map<String, Integer> ids = new HashMap<>();
+        int[] pattern = NGramSimilarity.intern(original, ids);
+        int[] text = NGramSimilarity.intern(plagiarized, ids);
+        return new Result(original, plagiarized, tile(pattern, text));
+    }
+
+    List<Tile> tile(int[] pattern, int[] text) {
+        boolean[] patternMarked = new boolean[pattern.length];
+        boolean[] textMarked = new boolean[text.length];
+        List<Tile> tiles = new ArrayList<>();
+        List<Tile> matches = new ArrayList<>();
+
+        int s = Math.max(minimumMatchLength, INITIAL_SEARCH_LENGTH);
+        while (true) {
+            matches.clear();
+            int longest = scanPatterns(pattern, text, patternMarked, textMarked, s, matches);
+            if (longest > 2 * s) {
+                s = longest; // 存在远长于 s 的匹配，用更长的搜索长度重新扫描
+                continue;
+            }
+            markArrays(matches, patternMarked, textMarked, tiles);
+            if (s > 2 * minimumMatchLength) {
+                s /= 2;
+            } else if (s > minimumMatchLength) {
+                s = minimumMatchLength;
+            } else {
+                break;
+            }
+        }
+        tiles.sort(Comparator.comparingInt(Tile::getOriginalStart));
+        return tiles;
+    }
+
+    /**
+     * 找出所有长度不小于 s 的最大匹配；遇到长度超过 2s 的匹配时立即返回其长度
+     * @return 本轮最长的匹配长度
+     */
+    private static int scanPatterns(int[] pattern, int[] text, boolean[] patternMarked, boolean[] textMarked,
+                                    int s, List<Tile> matches) {
+        if (s > pattern.length || s > text.length) {
+            return 0;
+        }
+        // 抄袭版中未标记窗口的哈希表：head[桶] → 起始位置链表（next）
+        int buckets = Integer.highestOneBit(Math.max(16, text.length * 2));
+        int[] head = new int[buckets];
+        Arrays.fill(head, -1);
+        int[] next = new int[text.length];
+        long[] windowHash = new long[text.length];
+        long power = 1;
+        for (int i = 1; i < s; i++) {
+            power *= BASE;
+        }
+
+        new WindowScanner(text, textMarked, s, power) {
+            @Override
+            boolean accept(int start, long hash) {
+                int bucket = (int) MinHashSketch.mix(hash) & (buckets - 1);
+                windowHash[start] = hash;
+                next[start] = head[bucket];
+                head[bucket] = start;
+                return true;
+            }
+        }.scan();
+
+        int[] longest = {0};
+        new WindowScanner(pattern, patternMarked, s, power) {
+            @Override
+            boolean accept(int start, long hash) {
+                int bucket = (int) MinHashSketch.mix(hash) & (buckets - 1);
+                for (int t = head[bucket]; t != -1; t = next[t]) {
+                    if (windowHash[t] != hash) {
+                        continue;
+                    }
+                    int length = 0;
+                    while (start + length < pattern.length && t + length < text.length
+                            && pattern[start + length] == text[t + length]
+                            && !patternMarked[start + length] && !textMarked[t + length]) {
+                        length++;
+                    }
+                    if (length >= s) {
+                        if (length > 2 * s) {
+                            longest[0] = length;
+                            return false;
+                        }
+                        matches.add(new Tile(start, t, length));
+                        longest[0] = Math.max(longest[0], length);
+                    }
+                }
+                return true;
+            }
+        }.scan();
+        return longest[0];
+    }
+
+    /**
+     * 按长度从长到短把未被遮挡的匹配标记为覆盖块
+     */
+    private static void markArrays(List<Tile> matches, boolean[] patternMarked, boolean[] textMarked,
+                                   List<Tile> tiles) {
+        matches.sort(Comparator.comparingInt(Tile::getLength).reversed());
+        for (Tile match : matches) {
+            if (isOccluded(match, patternMarked, textMarked)) {
+                continue;
+            }
+            for (int i = 0; i < match.length; i++) {
+                patternMarked[match.originalStart + i] = true;
+                textMarked[match.plagiarizedStart + i] = true;
+            }
+            tiles.add(match);
+        }
+    }
+
+    private static boolean isOccluded(Tile match, boolean[] patternMarked, boolean[] textMarked) {
+        for (int i = 0; i < match.length; i++) {
+            if (patternMarked[match.originalStart + i] || textMarked[match.plagiarizedStart + i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 依次计算序列中所有完全未标记的长度为 s 的窗口的滚动哈希
+     */
+    private abstract static class WindowScanner {
+        private final int[] tokens;
+        private final boolean[] marked;
+        private final int s;
+        private final long power;
+
+        WindowScanner(int[] tokens, boolean[] marked, int s, long power) {
+            this.tokens = tokens;
+            this.marked = marked;
+            this.s = s;
+            this.power = power;
+        }
+
+        /**
+         * @return false 表示停止扫描
+         */
+        abstract boolean accept(int start, long hash);
+
+        void scan() {
+            int runStart = 0;
+            while (runStart < tokens.length) {
+                // 跳到下一段未标记区间
+                while (runStart < tokens.length && marked[runStart]) {
+                    runStart++;
+                }
+                int runEnd = runStart;
+                while (runEnd < tokens.length && !marked[runEnd]) {
+                    runEnd++;
+                }
+                if (runEnd - runStart >= s) {
+                    long hash = 0;
+                    for (int i = runStart; i < runStart + s; i++) {
+                        hash = hash * BASE + tokens[i];
+                    }
+                    for (int start = runStart; ; start++) {
+                        if (!accept(start, hash)) {
+                            return;
+                        }
+                        if (start + s >= runEnd) {
+                            break;
+                        }
+                        hash = (hash - tokens[start] * power) * BASE + tokens[start + s];
+                    }
+                }
+                runStart = runEnd;
+            }
+        }
+    }
+
+    /**
+     * 覆盖块：原文与抄袭版中内容相同的一段连续词语
+     */
+    public static final class Tile {
+        private final int originalStart;
+        private final int plagiarizedStart;
+        private final int length;
+
+        Tile(int originalStart, int plagiarizedStart, int length) {
+            this.originalStart = originalStart;
+            this.plagiarizedStart = plagiarizedStart;
+            this.length = length;
+        }
+
+        public int getOriginalStart() { return originalStart; }
+        public int getPlagiarizedStart() { return plagiarizedStart; }
+        public int getLength() { return length; }
+    }
+
+    /**
+     * 覆盖结果
+     */
+    public static final class Result {
+        private final List<String> original;
+        private final List<String> plagiarized;
+        private final List<Tile> tiles;
+
+        Result(List<String> original, List<String> plagiarized, List<Tile> tiles) {
+            this.original = original;
+            this.plagiarized = plagiarized;
+            this.tiles = Collections.unmodifiableList(tiles);
+        }
+
+        /**
+         * 按原文位置排序的覆盖块
+         */
+        public List<Tile> getTiles() {
+            return tiles;
+        }
+
+        public int getCoveredTokens() {
+            int covered = 0;
+            for (Tile tile : tiles) {
+                covered += tile.length;
+            }
+            return covered;
+        }
+
+        /**
+         * 覆盖率：2 × 覆盖的词数 / 两文档词数之和
+         */
+        public double coverage() {
+            int total = original.size() + plagiarized.size();
+            return total == 0 ? 0.0 : 2.0 * getCoveredTokens() / total;
+        }
+
+        /**
+         * 覆盖块对应的词语
+         */
+        public List<String> tokens(Tile tile) {
+            return original.subList(tile.originalStart, tile.originalStart + tile.length);
+        }
+
+        /**
+         * 覆盖率与每个覆盖块的位置（词语下标，左闭右开）
+         */
+        public String formatReport() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("覆盖率 %.2f%%，覆盖块 %d 个%n", coverage() * 100, tiles.size()));
+            for (Tile tile : tiles) {
+                report.append(String.format("原文[%d,%d) ↔ 抄袭版[%d,%d) 长度 %d: %s%n",
+                        tile.originalStart, tile.originalStart + tile.length,
+                        tile.plagiarizedStart, tile.plagiarizedStart + tile.length,
+                        tile.length, String.join(" ", tokens(tile))));
+            }
+            return report.toString();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.plagiarism.checker;
+
+/**
+ * 杰卡德相似度打分器：共同词数 / 词汇并集大小，并集大小由画像的去重词数直接得到
+ */
+public final class JaccardScorer implements SimilarityScorer {
+
+    @Override
+    public double score(DocumentProfile original, DocumentProfile plagiarized) {
+        DocumentProfile smaller = original.distinctTerms() <= plagiarized.distinctTerms() ? original : plagiarized;
+        DocumentProfile larger = smaller == original ? plagiarized : original;
+        int shared = 0;
+        for (String term : smaller.getCounts().keySet()) {
+            if (larger.count(term) > 0) {
+                shared++;
+            }
+        }
+        int union = original.distinctTerms() + plagiarized.distinctTerms() - shared;
+        return union == 0 ? 0.0 : (double) shared / union;
+    }
+
+    @Override
+    public boolean supportsStoredVectors() {
+        return true;
+    }
+
+    @Override
+    public double score(OffHeapVectorStore.Overlap overlap) {
+        int union = overlap.getTermsA() + overlap.getTermsB() - overlap.getShared();
+        return union == 0 ? 0.0 : (double) overlap.getShared() / union;
+    }
+
+    @Override
+    public String getName() {
+        return "jaccard";
+    }
+}
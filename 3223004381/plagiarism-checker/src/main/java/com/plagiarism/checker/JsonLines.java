@@ -0,0 +1,217 @@
+package com.plagiarism.checker;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 精简的 JSON Lines 编解码：每行一个扁平对象，值只支持字符串、数字、布尔和null。
+ * 流式接口只需要这些类型，因此不引入完整的JSON库。
+ */
+public final class JsonLines {
+
+    private JsonLines() {
+    }
+
+    /**
+     * 解析一行扁平JSON对象
+     * @throws IllegalArgumentException 格式错误或包含嵌套对象/数组
+     */
+    public static Map<String, Object> parseObject(String line) {
+        Parser parser = new Parser(line);
+        Map<String, Object> result = parser.parseObject();
+        parser.skipWhitespace();
+        if (parser.pos != line.length()) {
+            throw parser.error("对象之后存在多余内容");
+        }
+        return result;
+    }
+
+    /**
+     * 把扁平对象编码为一行JSON
+     */
+    public static String toJson(Map<String, ?> object) {
+        StringBuilder json = new StringBuilder("{");
+        boolean first = true;
+        for (Map.Entry<String, ?> entry : object.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            appendString(json, entry.getKey());
+            json.append(':');
+            Object value = entry.getValue();
+            if (value == null) {
+                json.append("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                json.append(value);
+            } else {
+                appendString(json, value.toString());
+            }
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, Object> parseObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = parseString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                object.put(key, parseValue());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return object;
+                }
+                if (c != ',') {
+                    throw error("应为 ',' 或 '}'");
+                }
+            }
+        }
+
+        private Object parseValue() {
+            char c = peek();
+            if (c == '"') {
+                return parseString();
+            }
+            if (c == '{' || c == '[') {
+                throw error("不支持嵌套对象或数组");
+            }
+            if (text.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("无法识别的值");
+            }
+            String number = text.substring(start, pos);
+            try {
+                // 整数保留为Long，原样回写时不会变成 1.0
+                if (number.matches("-?\\d{1,18}")) {
+                    return Long.parseLong(number);
+                }
+                return Double.parseDouble(number);
+            } catch (NumberFormatException e) {
+                throw error("数字格式错误");
+            }
+        }
+
+        private String parseString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"': value.append('"'); break;
+                    case '\\': value.append('\\'); break;
+                    case '/': value.append('/'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Unicode转义不完整");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Unicode转义格式错误");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        throw error("非法转义字符: \\" + escaped);
+                }
+            }
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw error("意外的行尾");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw error("应为 '" + expected + "'");
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("JSON解析失败（位置" + pos + "）: " + message);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.plagiarism.checker;
+
+import java.util.Arrays;
+
+/**
+ * long 值的开放寻址哈希集合（线性探测），不为元素装箱，用于大量n元组哈希的去重与求交
+ */
+public final class LongHashSet {
+    private static final long EMPTY = 0L;
+
+    private long[] slots;
+    private int size;
+    // 0 作为空槽标记，元素 0 单独记录
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        slots = new long[capacity];
+    }
+
+    /**
+     * @return 元素此前不存在时返回true
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        if ((size + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        int mask = slots.length - 1;
+        int slot = spread(value) & mask;
+        while (slots[slot] != EMPTY) {
+            if (slots[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = value;
+        size++;
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+        int mask = slots.length - 1;
+        int slot = spread(value) & mask;
+        while (slots[slot] != EMPTY) {
+            if (slots[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        size = 0;
+        containsZero = false;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                int slot = spread(value) & mask;
+                while (slots[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = value;
+            }
+        }
+    }
+
+    private static int spread(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32);
+    }
+}
@@ -1,35 +1,48 @@
 package com.plagiarism.checker;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class Main {
+    private static final String CONFIG_DIR_PROPERTY = "plagiarism.configDir";
+    private static final long CONFIG_RELOAD_MILLIS = 2000;
+
     public static void main(String[] args) {
+        // 以 -- 开头的第一个参数表示扩展模式
+        if (args.length > 0 && args[0].startsWith("--")) {
+            runMode(args);
+            return;
+        }
+
         // 验证命令行参数
         if (args.length != 3) {
-            System.err.println("用法: java -jar main.jar <原文文件路径> <抄袭版文件路径> <结果文件路径>");
+            printUsage();
             System.exit(1);
         }
 
         try {
             // 初始化组件
             FileAccessor fileAccessor = new FileAccessor();
-            ConfigLoader configLoader = new ConfigLoader();
+            ConfigLoader configLoader = createConfigLoader();
 
             // 加载配置文件
             String configDir = Paths.get("").toAbsolutePath().toString();
-            configLoader.loadStopwords();
-            configLoader.loadSynonyms();
-
-            TextPreprocessor preprocessor = new TextPreprocessor(
-                    configLoader.getStopwords(),
-                    configLoader.getSynonyms()
-            );
+            TextPreprocessor preprocessor = createPreprocessor(configLoader);
 
             // 使用从配置文件加载的停用词初始化计算器，确保与测试环境一致
-            SimilarityCalculator calculator = new SimilarityCalculator();
+            SimilarityCalculator calculator = createCalculator();
             PlagiarismCheckerService service = new PlagiarismCheckerService(
                     fileAccessor, preprocessor, calculator
             );
+            // 超大文件改用近似模式的阈值，可用 -Dplagiarism.approximateLimitBytes=... 调整
+            service.setApproximateLimitBytes(Long.getLong("plagiarism.approximateLimitBytes",
+                    PlagiarismCheckerService.DEFAULT_APPROXIMATE_LIMIT_BYTES));
 
             // 执行查重
             service.checkPlagiarism(args[0], args[1], args[2]);
@@ -40,4 +53,306 @@ public class Main {
             System.exit(1);
         }
     }
-}
\ No newline at end of file
+
+    private static void printUsage() {
+        System.err.println("用法: java -jar main.jar <原文文件路径> <抄袭版文件路径> <结果文件路径>");
+        System.err.println("      java -jar main.jar --threshold <原文文件路径> <抄袭版文件路径> <结果文件路径> <相似度阈值0~1>");
+        System.err.println("      java -jar main.jar --deadline <原文文件路径> <抄袭版文件路径> <结果文件路径> <时间预算毫秒>");
+        System.err.println("      java -jar main.jar --tiles <原文文件路径> <抄袭版文件路径> <结果文件路径> [最小匹配词数，默认3]");
+        System.err.println("      java -jar main.jar --archive <压缩包路径(.zip/.tar.gz)> <结果文件路径> [相似度阈值0~1，默认0.8]");
+        System.err.println("      java -jar main.jar --matrix <文档目录> <矩阵文件路径>  （全部文档两两相似度矩阵）");
+        System.err.println("      java -jar main.jar --cluster <提交目录> <结果文件路径> [相似度阈值0~1，默认0.8]");
+        System.err.println("      java -jar main.jar --watch <投稿目录> [告警阈值0~1，默认0.8]");
+        System.err.println("      java -jar main.jar --build-index <文档目录> <索引文件路径> [内存预算MB，默认256]");
+        System.err.println("      java -jar main.jar --shard-search <文档目录> <查询文件路径> [分片进程数，默认2] [返回条数，默认10]");
+        System.err.println("      java -jar main.jar --stream [并行线程数]  （标准输入读取JSON Lines请求，结果输出到标准输出）");
+        System.err.println("      java -jar main.jar --generate <种子文本目录> <输出目录> <原文篇数> <每篇抄袭版篇数> [随机种子]");
+    }
+
+    private static void runMode(String[] args) {
+        try {
+            switch (args[0]) {
+                case "--threshold":
+                    runThreshold(args);
+                    break;
+                case "--deadline":
+                    runDeadline(args);
+                    break;
+                case "--tiles":
+                    runTiles(args);
+                    break;
+                case "--archive":
+                    runArchive(args);
+                    break;
+                case "--matrix":
+                    runMatrix(args);
+                    break;
+                case "--cluster":
+                    runCluster(args);
+                    break;
+                case "--watch":
+                    runWatch(args);
+                    break;
+                case "--generate":
+                    runGenerate(args);
+                    break;
+                case "--build-index":
+                    runBuildIndex(args);
+                    break;
+                case "--shard-search":
+                    runShardSearch(args);
+                    break;
+                case "--stream":
+                    runStream(args);
+                    break;
+                default:
+                    printUsage();
+                    System.exit(1);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("参数错误: " + e.getMessage());
+            printUsage();
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println("程序执行出错: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // 阈值判定：只输出是否达到阈值（true/false），可提前判定时跳过完整计算
+    private static void runThreshold(String[] args) throws IOException {
+        if (args.length != 5) {
+            throw new IllegalArgumentException("--threshold 需要4个参数");
+        }
+        double threshold = parseThreshold(args[4]);
+        PlagiarismCheckerService service = new PlagiarismCheckerService(
+                new FileAccessor(), createPreprocessor(createConfigLoader()), createCalculator());
+        service.checkPlagiarismThreshold(args[1], args[2], args[3], threshold);
+        System.out.println(service.getScreeningStats().formatReport());
+    }
+
+    // 限时查重：预算内未完成精确计算时输出估计值，结果后附“(估计值)”
+    private static void runDeadline(String[] args) throws IOException {
+        if (args.length != 5) {
+            throw new IllegalArgumentException("--deadline 需要4个参数");
+        }
+        long budgetMillis = Long.parseLong(args[4]);
+        FileAccessor fileAccessor = new FileAccessor();
+        String originalText = fileAccessor.readFile(args[1]);
+        String plagiarizedText = fileAccessor.readFile(args[2]);
+        try (DeadlineChecker checker = new DeadlineChecker(
+                createPreprocessor(createConfigLoader()), createCalculator(), 1)) {
+            DeadlineChecker.Result result = checker.check(originalText, plagiarizedText, budgetMillis);
+            String formatted = new DecimalFormat("0.00").format(result.getSimilarity() * 100);
+            fileAccessor.writeFile(args[3], result.isExact() ? formatted : formatted + " (估计值)");
+        }
+    }
+
+    // 贪心串覆盖：输出覆盖率及每个相同片段在两篇文档中的位置
+    private static void runTiles(String[] args) throws IOException {
+        if (args.length != 4 && args.length != 5) {
+            throw new IllegalArgumentException("--tiles 需要3~4个参数");
+        }
+        int minimumMatchLength = args.length == 5
+                ? Integer.parseInt(args[4]) : GreedyStringTiling.DEFAULT_MINIMUM_MATCH_LENGTH;
+        FileAccessor fileAccessor = new FileAccessor();
+        TextPreprocessor preprocessor = createPreprocessor(createConfigLoader());
+        GreedyStringTiling.Result result = new SimilarityCalculator().calculateTiling(
+                preprocessor.preprocess(fileAccessor.readFile(args[1])),
+                preprocessor.preprocess(fileAccessor.readFile(args[2])),
+                minimumMatchLength);
+        fileAccessor.writeFile(args[3], result.formatReport());
+    }
+
+    // 压缩包查重：不解压，直接读取压缩包中的所有提交并两两比较
+    private static void runArchive(String[] args) throws IOException {
+        if (args.length != 3 && args.length != 4) {
+            throw new IllegalArgumentException("--archive 需要2~3个参数");
+        }
+        double threshold = args.length == 4 ? parseThreshold(args[3]) : 0.8;
+        FileAccessor fileAccessor = new FileAccessor();
+        ArchiveChecker checker = new ArchiveChecker(fileAccessor, createPreprocessor(createConfigLoader()),
+                createCalculator(), Runtime.getRuntime().availableProcessors());
+        fileAccessor.writeFile(args[2], checker.check(args[1], threshold).formatReport());
+    }
+
+    // 相似度矩阵：一次稀疏矩阵乘法得到目录中所有文档两两的相似度，写入紧凑的二进制矩阵文件
+    private static void runMatrix(String[] args) throws IOException {
+        if (args.length != 3) {
+            throw new IllegalArgumentException("--matrix 需要2个参数");
+        }
+        FileAccessor fileAccessor = new FileAccessor();
+        TextPreprocessor preprocessor = createPreprocessor(createConfigLoader());
+        Map<String, String> documents = fileAccessor.readDirectory(args[1]);
+        List<String> names = new ArrayList<>(documents.keySet());
+        List<List<String>> tokens = names.parallelStream()
+                .map(name -> preprocessor.preprocess(documents.get(name)))
+                .collect(Collectors.toList());
+        CosineMatrixJob job = new CosineMatrixJob(new SimilarityCalculator(), Runtime.getRuntime().availableProcessors());
+        job.compute(names, tokens).write(Paths.get(args[2]));
+    }
+
+    // 全量聚类：找出提交目录中互相抄袭的文档组
+    private static void runCluster(String[] args) throws IOException {
+        if (args.length != 3 && args.length != 4) {
+            throw new IllegalArgumentException("--cluster 需要2~3个参数");
+        }
+        double threshold = args.length == 4 ? parseThreshold(args[3]) : 0.8;
+
+        FileAccessor fileAccessor = new FileAccessor();
+        Map<String, String> documents = fileAccessor.readDirectory(args[1]);
+        ClusteringJob job = new ClusteringJob(
+                createPreprocessor(createConfigLoader()), createCalculator(), threshold);
+        ClusteringJob.Result result = job.run(documents);
+        fileAccessor.writeFile(args[2], result.formatReport());
+    }
+
+    // 监听投稿目录，新文件与已有文档相似度超过阈值时输出告警，直到进程被终止
+    private static void runWatch(String[] args) throws IOException, InterruptedException {
+        if (args.length != 2 && args.length != 3) {
+            throw new IllegalArgumentException("--watch 需要1~2个参数");
+        }
+        double threshold = args.length == 3 ? parseThreshold(args[2]) : 0.8;
+        DecimalFormat formatter = new DecimalFormat("0.00");
+        ConfigLoader configLoader = createConfigLoader();
+        TextPreprocessor preprocessor = createPreprocessor(configLoader);
+        startConfigReload(configLoader);
+        SubmissionWatcher watcher = new SubmissionWatcher(Paths.get(args[1]),
+                preprocessor, createCalculator(), threshold,
+                500, Runtime.getRuntime().availableProcessors(),
+                (newFile, existingFile, similarity) -> System.out.println(
+                        "疑似抄袭: " + newFile + " 与 " + existingFile + " 相似度 " + formatter.format(similarity * 100) + "%"));
+        watcher.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("阈值判定统计: " + watcher.getScreeningStats().formatReport());
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                System.err.println("关闭监听失败: " + e.getMessage());
+            }
+        }));
+        System.out.println("已导入 " + watcher.documentCount() + " 篇文档，开始监听: " + args[1]);
+        Thread.currentThread().join();
+    }
+
+    // 由种子文本生成合成语料，变异概率使用适中的默认值
+    private static void runGenerate(String[] args) throws IOException {
+        if (args.length != 5 && args.length != 6) {
+            throw new IllegalArgumentException("--generate 需要4~5个参数");
+        }
+        int originals = Integer.parseInt(args[3]);
+        int copies = Integer.parseInt(args[4]);
+        long seed = args.length == 6 ? Long.parseLong(args[5]) : 42L;
+
+        FileAccessor fileAccessor = new FileAccessor();
+        ConfigLoader configLoader = createConfigLoader();
+        configLoader.loadSynonyms();
+        SyntheticCorpusGenerator generator = new SyntheticCorpusGenerator(configLoader.getSynonyms(),
+                new SyntheticCorpusGenerator.MutationRates(0.5, 0.3, 0.1, 0.1, 0.02), seed);
+        List<String> seedTexts = new ArrayList<>(fileAccessor.readDirectory(args[1]).values());
+        generator.generate(seedTexts, originals, 20, copies).writeTo(args[2], fileAccessor);
+    }
+
+    // 外存索引构建：逐篇读取并预处理，超出内存预算时写临时块，最后归并为磁盘索引；
+    // 文档ID与文件名的对应关系写入 <索引文件>.docs（每行一个文件名，行号即文档ID）
+    private static void runBuildIndex(String[] args) throws IOException {
+        if (args.length != 3 && args.length != 4) {
+            throw new IllegalArgumentException("--build-index 需要2~3个参数");
+        }
+        long budgetBytes = (args.length == 4 ? Long.parseLong(args[3]) : 256L) * 1024 * 1024;
+        Path indexFile = Paths.get(args[2]);
+
+        FileAccessor fileAccessor = new FileAccessor();
+        TextPreprocessor preprocessor = createPreprocessor(createConfigLoader());
+        SpimiIndexBuilder builder = new SpimiIndexBuilder(
+                indexFile.toAbsolutePath().resolveSibling(indexFile.getFileName() + ".blocks"), budgetBytes);
+        StringBuilder names = new StringBuilder();
+        for (Path path : fileAccessor.listFiles(args[1])) {
+            builder.addDocument(preprocessor.preprocess(fileAccessor.readFile(path.toString())));
+            names.append(path.getFileName()).append('\n');
+        }
+        SpimiIndexBuilder.BuildStats stats = builder.build(indexFile);
+        fileAccessor.writeFile(args[2] + ".docs", names.toString());
+        System.out.println(stats.formatReport());
+    }
+
+    // 分片检索：在本机启动多个分片进程，协调者分发查询并合并各分片的前K个结果
+    private static void runShardSearch(String[] args) throws IOException {
+        if (args.length < 3 || args.length > 5) {
+            throw new IllegalArgumentException("--shard-search 需要2~4个参数");
+        }
+        int shardCount = args.length >= 4 ? Integer.parseInt(args[3]) : 2;
+        int k = args.length == 5 ? Integer.parseInt(args[4]) : 10;
+        if (shardCount <= 0 || k <= 0) {
+            throw new IllegalArgumentException("分片数和返回条数必须为正数");
+        }
+
+        TextPreprocessor preprocessor = createPreprocessor(createConfigLoader());
+        List<String> query = preprocessor.preprocess(new FileAccessor().readFile(args[2]));
+        DecimalFormat formatter = new DecimalFormat("0.00");
+        try (ShardCoordinator coordinator = ShardCoordinator.launchLocal(args[1], shardCount, new SimilarityCalculator())) {
+            for (ShardCoordinator.Hit hit : coordinator.search(query, k)) {
+                System.out.println(hit.getName() + "\t" + formatter.format(hit.getScore() * 100) + "%");
+            }
+        }
+    }
+
+    // 流式模式：标准输入逐行读取JSON请求，按顺序把结果写到标准输出，便于接入管道
+    private static void runStream(String[] args) throws IOException {
+        if (args.length > 2) {
+            throw new IllegalArgumentException("--stream 最多1个参数");
+        }
+        int parallelism = args.length == 2 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ConfigLoader configLoader = createConfigLoader();
+        TextPreprocessor preprocessor = createPreprocessor(configLoader);
+        SimilarityCache cache = new SimilarityCache(10000);
+        PlagiarismCheckerService service = new PlagiarismCheckerService(new FileAccessor(),
+                preprocessor, createCalculator(), cache);
+        // 配置热加载后清理旧配置下的缓存结果
+        configLoader.addReloadListener(snapshot -> cache.retainFingerprint(service.getCacheFingerprint()));
+        startConfigReload(configLoader);
+        new StreamingChecker(service, parallelism).run(System.in, System.out);
+        // 标准输出是结果流，统计写到标准错误
+        System.err.println("阈值判定统计: " + service.getScreeningStats().formatReport());
+    }
+
+    // 词序权重可用 -Dplagiarism.orderWeight=0.3 -Dplagiarism.orderN=3 开启，默认只用词袋分数
+    static SimilarityCalculator createCalculator() {
+        SimilarityCalculator calculator = new SimilarityCalculator();
+        String weight = System.getProperty("plagiarism.orderWeight");
+        if (weight != null) {
+            calculator.setOrderWeight(Double.parseDouble(weight),
+                    Integer.getInteger("plagiarism.orderN", NGramSimilarity.DEFAULT_N));
+        }
+        return calculator;
+    }
+
+    // 预处理器直接读取加载器的当前快照，配置热加载后无需重建
+    static TextPreprocessor createPreprocessor(ConfigLoader configLoader) throws IOException {
+        configLoader.loadStopwords();
+        configLoader.loadSynonyms();
+        return new TextPreprocessor(configLoader::currentSnapshot, TextPreprocessor.Mode.SEGMENTED);
+    }
+
+    // 指定 -Dplagiarism.configDir=<目录> 时从该目录读取配置，否则使用类路径中的配置
+    static ConfigLoader createConfigLoader() {
+        String directory = System.getProperty(CONFIG_DIR_PROPERTY);
+        return new ConfigLoader(new FileAccessor(), directory == null ? null : Paths.get(directory));
+    }
+
+    // 常驻进程在指定配置目录时定期检查配置变化，修改后无需重启
+    private static void startConfigReload(ConfigLoader configLoader) {
+        if (System.getProperty(CONFIG_DIR_PROPERTY) != null) {
+            configLoader.startAutoReload(CONFIG_RELOAD_MILLIS);
+        }
+    }
+
+    static double parseThreshold(String value) {
+        double threshold = Double.parseDouble(value);
+        if (threshold < 0 || threshold > 1) {
+            throw new IllegalArgumentException("相似度阈值必须在0~1之间: " + value);
+        }
+        return threshold;
+    }
+}
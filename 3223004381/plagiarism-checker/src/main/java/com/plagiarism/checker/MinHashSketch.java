@@ -0,0 +1,116 @@
+package com.plagiarism.checker;
+
+import java.util.Collection;
+
+/**
+ * MinHash签名：k个独立哈希函数下词语集合的最小哈希值，
+ * 两个签名对应位置相等的比例是杰卡德相似度的无偏估计（标准差约 sqrt(J(1-J)/k)）。
+ * 支持逐词更新，可用于流式输入。
+ */
+public class MinHashSketch {
+    public static final int DEFAULT_NUM_HASHES = 128;
+
+    private final long[] seeds;
+    private final long[] minimums;
+    private boolean empty = true;
+
+    public MinHashSketch() {
+        this(DEFAULT_NUM_HASHES);
+    }
+
+    public MinHashSketch(int numHashes) {
+        if (numHashes <= 0) {
+            throw new IllegalArgumentException("哈希函数个数必须为正数: " + numHashes);
+        }
+        this.seeds = new long[numHashes];
+        this.minimums = new long[numHashes];
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < numHashes; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            seeds[i] = mix(seed);
+            minimums[i] = Long.MAX_VALUE;
+        }
+    }
+
+    public static MinHashSketch of(Collection<String> words) {
+        MinHashSketch sketch = new MinHashSketch();
+        for (String word : words) {
+            sketch.update(word);
+        }
+        return sketch;
+    }
+
+    public void update(String word) {
+        update(hashWord(word));
+    }
+
+    /**
+     * 以预先计算好的64位词语哈希更新签名
+     */
+    public void update(long wordHash) {
+        for (int i = 0; i < seeds.length; i++) {
+            long h = mix(wordHash ^ seeds[i]);
+            if (h < minimums[i]) {
+                minimums[i] = h;
+            }
+        }
+        empty = false;
+    }
+
+    public int numHashes() {
+        return seeds.length;
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public long value(int index) {
+        return minimums[index];
+    }
+
+    /**
+     * 估计杰卡德相似度
+     */
+    public double estimateJaccard(MinHashSketch other) {
+        if (other.seeds.length != seeds.length) {
+            throw new IllegalArgumentException("签名长度不一致");
+        }
+        if (empty || other.empty) {
+            return 0.0;
+        }
+        int equal = 0;
+        for (int i = 0; i < minimums.length; i++) {
+            if (minimums[i] == other.minimums[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / minimums.length;
+    }
+
+    /**
+     * 计算签名中 [from, to) 一段的哈希，用于LSH分桶
+     */
+    public long bandHash(int from, int to) {
+        long h = 0x2545F4914F6CDD1DL;
+        for (int i = from; i < to; i++) {
+            h = mix(h ^ minimums[i]);
+        }
+        return h;
+    }
+
+    static long hashWord(String word) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < word.length(); i++) {
+            h = 31 * h + word.charAt(i);
+        }
+        return mix(h);
+    }
+
+    // SplitMix64 混合函数
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,135 @@
+package com.plagiarism.checker;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 考虑词序的词语n元组相似度：把两篇文档的词语映射为整数ID，
+ * 在ID序列上用多项式滚动哈希得到每个长度为n的窗口的64位哈希，全程不拼接字符串。
+ * <ul>
+ *     <li>包含度（containment）：抄袭版的n元组中出现在原文里的比例，对原文多出的内容不敏感</li>
+ *     <li>相似度（resemblance）：两个n元组集合的杰卡德相似度</li>
+ * </ul>
+ * 句子被打乱时词袋相似度不变，而跨句子边界的n元组会丢失，因此两者结合可以区分重排。
+ */
+public class NGramSimilarity {
+    public static final int DEFAULT_N = 3;
+    // 滚动哈希的底数（奇数，按 2^64 取模）
+    private static final long BASE = 0x100000001B3L;
+
+    private final int n;
+    private final long highestPower;
+
+    public NGramSimilarity() {
+        this(DEFAULT_N);
+    }
+
+    public NGramSimilarity(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n元组长度必须为正数: " + n);
+        }
+        this.n = n;
+        long power = 1;
+        for (int i = 1; i < n; i++) {
+            power *= BASE;
+        }
+        this.highestPower = power;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    /**
+     * 比较两篇文档的n元组
+     * @param original    原文词语
+     * @param plagiarized 抄袭版词语
+     */
+    public Result compare(List<String> original, List<String> plagiarized) {
+        Map<String, Integer> ids = new HashMap<>();
+        int[] originalIds = intern(original, ids);
+        int[] plagiarizedIds = intern(plagiarized, ids);
+
+        LongHashSet originalShingles = new LongHashSet(Math.max(0, originalIds.length - n + 1));
+        forEachShingle(originalIds, originalShingles, null);
+        LongHashSet plagiarizedShingles = new LongHashSet(Math.max(0, plagiarizedIds.length - n + 1));
+        int shared = forEachShingle(plagiarizedIds, plagiarizedShingles, originalShingles);
+        return new Result(shared, originalShingles.size(), plagiarizedShingles.size());
+    }
+
+    /**
+     * 把词语映射为整数ID序列，多篇文档共用同一个 ids 映射；ID从1开始连续分配
+     */
+    static int[] intern(List<String> words, Map<String, Integer> ids) {
+        int[] sequence = new int[words.size()];
+        int i = 0;
+        for (String word : words) {
+            Integer id = ids.get(word);
+            if (id == null) {
+                id = ids.size() + 1; // 从1开始，避免ID为0的词对哈希没有贡献
+                ids.put(word, id);
+            }
+            sequence[i++] = id;
+        }
+        return sequence;
+    }
+
+    /**
+     * 把序列的所有n元组哈希加入 target；other 不为null时返回新加入且在 other 中存在的个数
+     */
+    private int forEachShingle(int[] sequence, LongHashSet target, LongHashSet other) {
+        if (sequence.length < n) {
+            return 0;
+        }
+        int shared = 0;
+        long hash = 0;
+        for (int i = 0; i < n; i++) {
+            hash = hash * BASE + sequence[i];
+        }
+        for (int start = 0; ; start++) {
+            long mixed = MinHashSketch.mix(hash);
+            if (target.add(mixed) && other != null && other.contains(mixed)) {
+                shared++;
+            }
+            if (start + n >= sequence.length) {
+                return shared;
+            }
+            hash = (hash - sequence[start] * highestPower) * BASE + sequence[start + n];
+        }
+    }
+
+    /**
+     * n元组比较结果
+     */
+    public static final class Result {
+        private final int shared;
+        private final int originalCount;
+        private final int plagiarizedCount;
+
+        Result(int shared, int originalCount, int plagiarizedCount) {
+            this.shared = shared;
+            this.originalCount = originalCount;
+            this.plagiarizedCount = plagiarizedCount;
+        }
+
+        public int getShared() { return shared; }
+        public int getOriginalCount() { return originalCount; }
+        public int getPlagiarizedCount() { return plagiarizedCount; }
+
+        /**
+         * 抄袭版n元组出现在原文中的比例
+         */
+        public double containment() {
+            return plagiarizedCount == 0 ? 0.0 : (double) shared / plagiarizedCount;
+        }
+
+        /**
+         * n元组集合的杰卡德相似度
+         */
+        public double resemblance() {
+            int union = originalCount + plagiarizedCount - shared;
+            return union == 0 ? 0.0 : (double) shared / union;
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.plagiarism.checker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 堆外文档向量存储：词项ID与权重保存在直接内存（或内存映射文件）中，
+ * 堆内只保留每篇文档一个long的偏移表，避免大语料下大量小对象造成GC停顿。
+ *
+ * 单条记录布局：[int 词项数n][float 范数][n个int 词项ID(升序)][n个float 权重]
+ * 文件布局：[int 魔数][int 版本][int 文档数][int 分段数][long[] 分段长度][long[] 偏移表][各分段数据]
+ *
+ * 写入非线程安全；构建完成后读取（点积、余弦）可多线程并发进行。
+ * 保存词频向量时，{@link #overlap} 在堆外数据上一次归并得到共同词统计，
+ * 支持的打分器（余弦、杰卡德及其融合）据此打分，见 {@link SimilarityCalculator#calculateSimilarity(OffHeapVectorStore, int, int)}。
+ */
+public class OffHeapVectorStore {
+    private static final int MAGIC = 0x50564331; // "PVC1"
+    private static final int VERSION = 1;
+    // 单个分段上限（ByteBuffer按int寻址，预留余量）
+    private static final int MAX_SEGMENT_SIZE = 1 << 30;
+    private static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+    private static final int RECORD_HEADER = 8;
+
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private final int segmentSize;
+    private final boolean readOnly;
+    // 偏移表：高32位为分段号，低32位为分段内位置
+    private long[] offsets;
+    private int docCount;
+
+    public OffHeapVectorStore() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param segmentSize 每个直接内存分段的字节数
+     */
+    public OffHeapVectorStore(int segmentSize) {
+        if (segmentSize <= RECORD_HEADER || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("分段大小不合法: " + segmentSize);
+        }
+        this.segmentSize = segmentSize;
+        this.readOnly = false;
+        this.offsets = new long[1024];
+    }
+
+    private OffHeapVectorStore(List<ByteBuffer> mapped, long[] offsets, int docCount) {
+        this.segments.addAll(mapped);
+        this.segmentSize = 0;
+        this.readOnly = true;
+        this.offsets = offsets;
+        this.docCount = docCount;
+    }
+
+    /**
+     * 追加一篇文档向量
+     * @return 文档ID（从0开始连续分配）
+     */
+    public int add(SparseVector vector) {
+        if (readOnly) {
+            throw new IllegalStateException("内存映射打开的向量存储为只读");
+        }
+        int recordSize = RECORD_HEADER + vector.size() * 8;
+        if (recordSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("单篇文档向量过大: " + vector.size());
+        }
+        ByteBuffer segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.remaining() < recordSize) {
+            segment = ByteBuffer.allocateDirect(Math.max(segmentSize, recordSize));
+            segments.add(segment);
+        }
+
+        if (docCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[docCount] = ((long) (segments.size() - 1) << 32) | segment.position();
+
+        segment.putInt(vector.size());
+        segment.putFloat((float) vector.norm());
+        for (int i = 0; i < vector.size(); i++) {
+            segment.putInt(vector.termId(i));
+        }
+        for (int i = 0; i < vector.size(); i++) {
+            segment.putFloat(vector.weight(i));
+        }
+        return docCount++;
+    }
+
+    public int size() {
+        return docCount;
+    }
+
+    public int termCount(int doc) {
+        return segmentOf(doc).getInt(positionOf(doc));
+    }
+
+    public double norm(int doc) {
+        return segmentOf(doc).getFloat(positionOf(doc) + 4);
+    }
+
+    /**
+     * 存储中的文档与查询向量的点积，直接在堆外数据上归并，不复制到堆内
+     */
+    public double dot(int doc, SparseVector query) {
+        ByteBuffer segment = segmentOf(doc);
+        int base = positionOf(doc);
+        int n = segment.getInt(base);
+        int idBase = base + RECORD_HEADER;
+        int weightBase = idBase + n * 4;
+
+        double sum = 0.0;
+        int i = 0;
+        int j = 0;
+        while (i < n && j < query.size()) {
+            int a = segment.getInt(idBase + i * 4);
+            int b = query.termId(j);
+            if (a == b) {
+                sum += (double) segment.getFloat(weightBase + i * 4) * query.weight(j);
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 存储中两篇文档的点积
+     */
+    public double dot(int docA, int docB) {
+        ByteBuffer segA = segmentOf(docA);
+        ByteBuffer segB = segmentOf(docB);
+        int baseA = positionOf(docA);
+        int baseB = positionOf(docB);
+        int nA = segA.getInt(baseA);
+        int nB = segB.getInt(baseB);
+        int idA = baseA + RECORD_HEADER;
+        int idB = baseB + RECORD_HEADER;
+        int weightA = idA + nA * 4;
+        int weightB = idB + nB * 4;
+
+        double sum = 0.0;
+        int i = 0;
+        int j = 0;
+        while (i < nA && j < nB) {
+            int a = segA.getInt(idA + i * 4);
+            int b = segB.getInt(idB + j * 4);
+            if (a == b) {
+                sum += (double) segA.getFloat(weightA + i * 4) * segB.getFloat(weightB + j * 4);
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 两篇文档的共同词统计：一次归并同时累计点积、双方在共同词上的权重平方和与共同词数
+     */
+    public Overlap overlap(int docA, int docB) {
+        ByteBuffer segA = segmentOf(docA);
+        ByteBuffer segB = segmentOf(docB);
+        int baseA = positionOf(docA);
+        int baseB = positionOf(docB);
+        int nA = segA.getInt(baseA);
+        int nB = segB.getInt(baseB);
+        int idA = baseA + RECORD_HEADER;
+        int idB = baseB + RECORD_HEADER;
+        int weightA = idA + nA * 4;
+        int weightB = idB + nB * 4;
+
+        double dot = 0.0;
+        double squaresA = 0.0;
+        double squaresB = 0.0;
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < nA && j < nB) {
+            int a = segA.getInt(idA + i * 4);
+            int b = segB.getInt(idB + j * 4);
+            if (a == b) {
+                double x = segA.getFloat(weightA + i * 4);
+                double y = segB.getFloat(weightB + j * 4);
+                dot += x * y;
+                squaresA += x * x;
+                squaresB += y * y;
+                shared++;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return new Overlap(nA, nB, segA.getFloat(baseA + 4), segB.getFloat(baseB + 4),
+                dot, squaresA, squaresB, shared);
+    }
+
+    public double cosine(int doc, SparseVector query) {
+        double norm = norm(doc);
+        if (norm == 0 || query.norm() == 0) {
+            return 0.0;
+        }
+        return dot(doc, query) / (norm * query.norm());
+    }
+
+    public double cosine(int docA, int docB) {
+        double normA = norm(docA);
+        double normB = norm(docB);
+        if (normA == 0 || normB == 0) {
+            return 0.0;
+        }
+        return dot(docA, docB) / (normA * normB);
+    }
+
+    /**
+     * 读出一篇文档的向量（会复制到堆内，仅用于调试和导出）
+     */
+    public SparseVector get(int doc) {
+        ByteBuffer segment = segmentOf(doc);
+        int base = positionOf(doc);
+        int n = segment.getInt(base);
+        int[] ids = new int[n];
+        float[] weights = new float[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = segment.getInt(base + RECORD_HEADER + i * 4);
+            weights[i] = segment.getFloat(base + RECORD_HEADER + n * 4 + i * 4);
+        }
+        return new SparseVector(ids, weights);
+    }
+
+    /**
+     * 持久化到文件，之后可通过 {@link #open(Path)} 以内存映射方式重新打开
+     */
+    public void save(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        int headerSize = 16 + segments.size() * 8 + docCount * 8;
+        ByteBuffer header = ByteBuffer.allocate(headerSize);
+        header.putInt(MAGIC).putInt(VERSION).putInt(docCount).putInt(segments.size());
+        for (ByteBuffer segment : segments) {
+            header.putLong(usedBytes(segment));
+        }
+        for (int i = 0; i < docCount; i++) {
+            header.putLong(offsets[i]);
+        }
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            for (ByteBuffer segment : segments) {
+                ByteBuffer data = segment.duplicate();
+                data.position(0);
+                data.limit(usedBytes(segment));
+                writeFully(channel, data);
+            }
+        }
+    }
+
+    /**
+     * 以只读内存映射方式打开已持久化的向量存储，数据按需由操作系统换入，不占用Java堆
+     */
+    public static OffHeapVectorStore open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer fixed = readFully(channel, 0, 16);
+            if (fixed.getInt() != MAGIC) {
+                throw new IOException("不是有效的向量存储文件: " + path);
+            }
+            int version = fixed.getInt();
+            if (version != VERSION) {
+                throw new IOException("不支持的向量存储版本: " + version);
+            }
+            int docCount = fixed.getInt();
+            int segmentCount = fixed.getInt();
+
+            ByteBuffer table = readFully(channel, 16, (long) segmentCount * 8 + (long) docCount * 8);
+            long[] segmentLengths = new long[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                segmentLengths[i] = table.getLong();
+            }
+            long[] offsets = new long[Math.max(docCount, 1)];
+            for (int i = 0; i < docCount; i++) {
+                offsets[i] = table.getLong();
+            }
+
+            List<ByteBuffer> mapped = new ArrayList<>();
+            long position = 16 + table.capacity();
+            for (long length : segmentLengths) {
+                mapped.add(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                position += length;
+            }
+            return new OffHeapVectorStore(mapped, offsets, docCount);
+        }
+    }
+
+    private ByteBuffer segmentOf(int doc) {
+        checkDoc(doc);
+        return segments.get((int) (offsets[doc] >>> 32));
+    }
+
+    private int positionOf(int doc) {
+        return (int) offsets[doc];
+    }
+
+    private void checkDoc(int doc) {
+        if (doc < 0 || doc >= docCount) {
+            throw new IndexOutOfBoundsException("文档ID越界: " + doc);
+        }
+    }
+
+    private int usedBytes(ByteBuffer segment) {
+        // 可写分段以position为已用长度，映射分段整体有效
+        return readOnly ? segment.capacity() : segment.position();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("向量存储偏移表过大");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("向量存储文件不完整");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 存储中两篇文档的共同词统计，供打分器在不复制向量的情况下打分
+     */
+    public static final class Overlap {
+        private final int termsA;
+        private final int termsB;
+        private final double normA;
+        private final double normB;
+        private final double dot;
+        private final double sharedSquaresA;
+        private final double sharedSquaresB;
+        private final int shared;
+
+        Overlap(int termsA, int termsB, double normA, double normB,
+                double dot, double sharedSquaresA, double sharedSquaresB, int shared) {
+            this.termsA = termsA;
+            this.termsB = termsB;
+            this.normA = normA;
+            this.normB = normB;
+            this.dot = dot;
+            this.sharedSquaresA = sharedSquaresA;
+            this.sharedSquaresB = sharedSquaresB;
+            this.shared = shared;
+        }
+
+        public int getTermsA() { return termsA; }
+        public int getTermsB() { return termsB; }
+        public double getNormA() { return normA; }
+        public double getNormB() { return normB; }
+        public double getDot() { return dot; }
+        public double getSharedSquaresA() { return sharedSquaresA; }
+        public double getSharedSquaresB() { return sharedSquaresB; }
+        public int getShared() { return shared; }
+    }
+}
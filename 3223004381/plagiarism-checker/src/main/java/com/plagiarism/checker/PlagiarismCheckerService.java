@@ -1,32 +1,57 @@
 package com.plagiarism.checker;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.util.List;
 
 public class PlagiarismCheckerService {
+    public static final long DEFAULT_APPROXIMATE_LIMIT_BYTES = 256L * 1024 * 1024;
+    // 近似模式每次读取并预处理的字符数
+    private static final int APPROXIMATE_CHUNK_CHARS = 1 << 20;
+
     private final FileAccessor fileAccessor;
     private final TextPreprocessor preprocessor;
     private final SimilarityCalculator calculator;
+    // 结果缓存，为null时不启用
+    private final SimilarityCache cache;
+    private final ScreeningStats screeningStats = new ScreeningStats();
     private final DecimalFormat resultFormatter = new DecimalFormat("0.00"); // 保留两位小数
+    // 任一输入文件超过该字节数时改用近似模式（Count-Min摘要，内存固定）
+    private long approximateLimitBytes = DEFAULT_APPROXIMATE_LIMIT_BYTES;
 
     public PlagiarismCheckerService(FileAccessor fileAccessor, TextPreprocessor preprocessor, SimilarityCalculator calculator) {
+        this(fileAccessor, preprocessor, calculator, null);
+    }
+
+    // 服务/批处理模式下传入缓存，重复提交的文本对直接返回缓存结果
+    public PlagiarismCheckerService(FileAccessor fileAccessor, TextPreprocessor preprocessor,
+                                    SimilarityCalculator calculator, SimilarityCache cache) {
         this.fileAccessor = fileAccessor;
         this.preprocessor = preprocessor;
         this.calculator = calculator;
+        this.cache = cache;
     }
 
-    public void checkPlagiarism(String originalPath, String plagiarizedPath, String resultPath) throws IOException {
-        SimilarityCalculator calculator = new SimilarityCalculator();
-
-        String originalText = fileAccessor.readFile(originalPath);
-        String plagiarizedText = fileAccessor.readFile(plagiarizedPath);
-
-        List<String> originalWords = preprocessor.preprocess(originalText);
-        List<String> plagiarizedWords = preprocessor.preprocess(plagiarizedText);
+    /**
+     * 设置启用近似模式的文件大小上限（字节），Long.MAX_VALUE 表示始终精确计算
+     */
+    public void setApproximateLimitBytes(long approximateLimitBytes) {
+        this.approximateLimitBytes = approximateLimitBytes;
+    }
 
-        double similarity = calculator.calculateSimilarity(originalWords, plagiarizedWords);
-        similarity = Math.min(1.0, Math.max(0.0, similarity)); // 限制在[0,1]
+    public void checkPlagiarism(String originalPath, String plagiarizedPath, String resultPath) throws IOException {
+        double similarity;
+        // 近似模式只实现了默认打分，自定义打分方式下超大文件也按精确模式计算
+        if (calculator.isDefaultScoring()
+                && Math.max(Files.size(Paths.get(originalPath)), Files.size(Paths.get(plagiarizedPath))) > approximateLimitBytes) {
+            similarity = calculateApproximateSimilarity(originalPath, plagiarizedPath);
+        } else {
+            String originalText = fileAccessor.readFile(originalPath);
+            String plagiarizedText = fileAccessor.readFile(plagiarizedPath);
+            similarity = calculateSimilarity(originalText, plagiarizedText);
+        }
 
         String result = resultFormatter.format(similarity * 100); // 转为百分比并格式化
 
@@ -43,4 +68,86 @@ public class PlagiarismCheckerService {
             throw e; // 重新抛出异常，让上层处理
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 计算两段文本的相似度，结果限制在[0,1]
+     */
+    public double calculateSimilarity(String originalText, String plagiarizedText) {
+        // 整个请求使用同一个配置快照：缓存指纹与两次预处理不会跨越一次热加载
+        ConfigSnapshot snapshot = preprocessor.currentConfig();
+        if (cache == null) {
+            return computeSimilarity(originalText, plagiarizedText, snapshot);
+        }
+        return cache.getOrCompute(
+                SimilarityCache.contentHash(originalText),
+                SimilarityCache.contentHash(plagiarizedText),
+                getCacheFingerprint(snapshot),
+                () -> computeSimilarity(originalText, plagiarizedText, snapshot));
+    }
+
+    /**
+     * 缓存结果所依赖的配置：预处理配置加上计算器的打分参数
+     */
+    public String getCacheFingerprint() {
+        return getCacheFingerprint(preprocessor.currentConfig());
+    }
+
+    private String getCacheFingerprint(ConfigSnapshot snapshot) {
+        return preprocessor.getConfigFingerprint(snapshot) + calculator.getScoringFingerprint();
+    }
+
+    /**
+     * 近似模式：分块读取和预处理两个文件，只保留固定大小的词频摘要，结果限制在[0,1]
+     */
+    public double calculateApproximateSimilarity(String originalPath, String plagiarizedPath) throws IOException {
+        ConfigSnapshot snapshot = preprocessor.currentConfig();
+        ApproximateTermProfile original = buildApproximateProfile(originalPath, snapshot);
+        ApproximateTermProfile plagiarized = buildApproximateProfile(plagiarizedPath, snapshot);
+        double similarity = calculator.calculateApproximateSimilarity(original, plagiarized);
+        return Math.min(1.0, Math.max(0.0, similarity));
+    }
+
+    private ApproximateTermProfile buildApproximateProfile(String path, ConfigSnapshot snapshot) throws IOException {
+        ApproximateTermProfile profile = new ApproximateTermProfile();
+        fileAccessor.readChunks(path, APPROXIMATE_CHUNK_CHARS,
+                chunk -> calculator.updateApproximateProfile(profile, preprocessor.preprocess(chunk, snapshot)));
+        return profile;
+    }
+
+    private double computeSimilarity(String originalText, String plagiarizedText, ConfigSnapshot snapshot) {
+        List<String> originalWords = preprocessor.preprocess(originalText, snapshot);
+        List<String> plagiarizedWords = preprocessor.preprocess(plagiarizedText, snapshot);
+
+        double similarity = calculator.calculateSimilarity(originalWords, plagiarizedWords);
+        return Math.min(1.0, Math.max(0.0, similarity)); // 限制在[0,1]
+    }
+
+    /**
+     * 阈值判定模式：只判断相似度是否达到阈值，结果写入 true/false
+     * @param threshold 相似度阈值（0~1）
+     */
+    public void checkPlagiarismThreshold(String originalPath, String plagiarizedPath, String resultPath,
+                                         double threshold) throws IOException {
+        String originalText = fileAccessor.readFile(originalPath);
+        String plagiarizedText = fileAccessor.readFile(plagiarizedPath);
+        boolean plagiarized = isSimilarityAtLeast(originalText, plagiarizedText, threshold);
+        fileAccessor.writeFile(resultPath, String.valueOf(plagiarized));
+    }
+
+    /**
+     * 判断两段文本的相似度是否≥threshold，能由上下界决定时跳过完整计算
+     */
+    public boolean isSimilarityAtLeast(String originalText, String plagiarizedText, double threshold) {
+        ConfigSnapshot snapshot = preprocessor.currentConfig();
+        List<String> originalWords = preprocessor.preprocess(originalText, snapshot);
+        List<String> plagiarizedWords = preprocessor.preprocess(plagiarizedText, snapshot);
+        return calculator.isSimilarityAtLeast(originalWords, plagiarizedWords, threshold, screeningStats);
+    }
+
+    /**
+     * 阈值判定模式的累计统计（提前判定比例等）
+     */
+    public ScreeningStats getScreeningStats() {
+        return screeningStats;
+    }
+}
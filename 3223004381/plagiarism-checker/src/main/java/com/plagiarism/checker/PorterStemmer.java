@@ -0,0 +1,305 @@
+package com.plagiarism.checker;
+
+/**
+ * Porter 词干提取（M.F. Porter, 1980），把英文单词的屈折、派生后缀还原到共同词干，
+ * 例如 copying / copied / copies 都得到 copi。输入应为小写ASCII单词，长度不超过2的词原样返回。
+ */
+public final class PorterStemmer {
+    private final char[] b;
+    private int k; // 当前词末尾下标
+    private int j; // 后缀匹配后词干的末尾下标
+
+    private PorterStemmer(String word) {
+        b = word.toCharArray();
+        k = b.length - 1;
+    }
+
+    public static String stem(String word) {
+        if (word.length() <= 2) {
+            return word;
+        }
+        PorterStemmer stemmer = new PorterStemmer(word);
+        stemmer.step1ab();
+        if (stemmer.k > 0) {
+            stemmer.step1c();
+            stemmer.step2();
+            stemmer.step3();
+            stemmer.step4();
+            stemmer.step5();
+        }
+        return new String(stemmer.b, 0, stemmer.k + 1);
+    }
+
+    // b[i] 是否为辅音（y 前面是辅音时视为元音）
+    private boolean cons(int i) {
+        switch (b[i]) {
+            case 'a':
+            case 'e':
+            case 'i':
+            case 'o':
+            case 'u':
+                return false;
+            case 'y':
+                return i == 0 || !cons(i - 1);
+            default:
+                return true;
+        }
+    }
+
+    // b[0..j] 形如 [C](VC)^m[V] 时的 m
+    private int m() {
+        int n = 0;
+        int i = 0;
+        while (true) {
+            if (i > j) {
+                return n;
+            }
+            if (!cons(i)) {
+                break;
+            }
+            i++;
+        }
+        i++;
+        while (true) {
+            while (true) {
+                if (i > j) {
+                    return n;
+                }
+                if (cons(i)) {
+                    break;
+                }
+                i++;
+            }
+            i++;
+            n++;
+            while (true) {
+                if (i > j) {
+                    return n;
+                }
+                if (!cons(i)) {
+                    break;
+                }
+                i++;
+            }
+            i++;
+        }
+    }
+
+    private boolean vowelInStem() {
+        for (int i = 0; i <= j; i++) {
+            if (!cons(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean doubleConsonant(int i) {
+        return i >= 1 && b[i] == b[i - 1] && cons(i);
+    }
+
+    // i-2, i-1, i 为辅音-元音-辅音，且最后一个辅音不是 w、x、y（如 hop、cav）
+    private boolean cvc(int i) {
+        if (i < 2 || !cons(i) || cons(i - 1) || !cons(i - 2)) {
+            return false;
+        }
+        char c = b[i];
+        return c != 'w' && c != 'x' && c != 'y';
+    }
+
+    private boolean ends(String suffix) {
+        int length = suffix.length();
+        if (length > k + 1 || suffix.charAt(length - 1) != b[k]) {
+            return false;
+        }
+        int offset = k - length + 1;
+        for (int i = 0; i < length; i++) {
+            if (b[offset + i] != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        j = k - length;
+        return true;
+    }
+
+    // 把 b[j+1..k] 替换为 replacement（替换后的长度不会超过原词）
+    private void setTo(String replacement) {
+        for (int i = 0; i < replacement.length(); i++) {
+            b[j + 1 + i] = replacement.charAt(i);
+        }
+        k = j + replacement.length();
+    }
+
+    private void replaceIfMeasured(String replacement) {
+        if (m() > 0) {
+            setTo(replacement);
+        }
+    }
+
+    // 复数与 -ed、-ing
+    private void step1ab() {
+        if (b[k] == 's') {
+            if (ends("sses")) {
+                k -= 2;
+            } else if (ends("ies")) {
+                setTo("i");
+            } else if (b[k - 1] != 's') {
+                k--;
+            }
+        }
+        if (ends("eed")) {
+            if (m() > 0) {
+                k--;
+            }
+        } else if ((ends("ed") || ends("ing")) && vowelInStem()) {
+            k = j;
+            if (ends("at")) {
+                setTo("ate");
+            } else if (ends("bl")) {
+                setTo("ble");
+            } else if (ends("iz")) {
+                setTo("ize");
+            } else if (doubleConsonant(k)) {
+                k--;
+                char c = b[k];
+                if (c == 'l' || c == 's' || c == 'z') {
+                    k++;
+                }
+            } else if (m() == 1 && cvc(k)) {
+                setTo("e");
+            }
+        }
+    }
+
+    // 词干含元音时末尾的 y 改为 i
+    private void step1c() {
+        if (ends("y") && vowelInStem()) {
+            b[k] = 'i';
+        }
+    }
+
+    // 双后缀还原为单后缀，如 -ization → -ize
+    private void step2() {
+        switch (b[k - 1]) {
+            case 'a':
+                replaceFirst(new String[]{"ational", "ate", "tional", "tion"});
+                break;
+            case 'c':
+                replaceFirst(new String[]{"enci", "ence", "anci", "ance"});
+                break;
+            case 'e':
+                replaceFirst(new String[]{"izer", "ize"});
+                break;
+            case 'l':
+                replaceFirst(new String[]{"bli", "ble", "alli", "al", "entli", "ent", "eli", "e", "ousli", "ous"});
+                break;
+            case 'o':
+                replaceFirst(new String[]{"ization", "ize", "ation", "ate", "ator", "ate"});
+                break;
+            case 's':
+                replaceFirst(new String[]{"alism", "al", "iveness", "ive", "fulness", "ful", "ousness", "ous"});
+                break;
+            case 't':
+                replaceFirst(new String[]{"aliti", "al", "iviti", "ive", "biliti", "ble"});
+                break;
+            case 'g':
+                replaceFirst(new String[]{"logi", "log"});
+                break;
+            default:
+                break;
+        }
+    }
+
+    // -ic-、-full、-ness 等
+    private void step3() {
+        switch (b[k]) {
+            case 'e':
+                replaceFirst(new String[]{"icate", "ic", "ative", "", "alize", "al"});
+                break;
+            case 'i':
+                replaceFirst(new String[]{"iciti", "ic"});
+                break;
+            case 'l':
+                replaceFirst(new String[]{"ical", "ic", "ful", ""});
+                break;
+            case 's':
+                replaceFirst(new String[]{"ness", ""});
+                break;
+            default:
+                break;
+        }
+    }
+
+    // 成对的 {后缀, 替换}，按顺序匹配第一个后缀
+    private void replaceFirst(String[] rules) {
+        for (int i = 0; i < rules.length; i += 2) {
+            if (ends(rules[i])) {
+                replaceIfMeasured(rules[i + 1]);
+                return;
+            }
+        }
+    }
+
+    // m > 1 时去掉 -ant、-ence 等后缀
+    private void step4() {
+        boolean matched;
+        switch (b[k - 1]) {
+            case 'a':
+                matched = ends("al");
+                break;
+            case 'c':
+                matched = ends("ance") || ends("ence");
+                break;
+            case 'e':
+                matched = ends("er");
+                break;
+            case 'i':
+                matched = ends("ic");
+                break;
+            case 'l':
+                matched = ends("able") || ends("ible");
+                break;
+            case 'n':
+                matched = ends("ant") || ends("ement") || ends("ment") || ends("ent");
+                break;
+            case 'o':
+                matched = (ends("ion") && j >= 0 && (b[j] == 's' || b[j] == 't')) || ends("ou");
+                break;
+            case 's':
+                matched = ends("ism");
+                break;
+            case 't':
+                matched = ends("ate") || ends("iti");
+                break;
+            case 'u':
+                matched = ends("ous");
+                break;
+            case 'v':
+                matched = ends("ive");
+                break;
+            case 'z':
+                matched = ends("ize");
+                break;
+            default:
+                matched = false;
+                break;
+        }
+        if (matched && m() > 1) {
+            k = j;
+        }
+    }
+
+    // 去掉末尾的 -e，-ll 变为 -l
+    private void step5() {
+        j = k;
+        if (b[k] == 'e') {
+            int measure = m();
+            if (measure > 1 || (measure == 1 && !cvc(k - 1))) {
+                k--;
+            }
+        }
+        if (b[k] == 'l' && doubleConsonant(k) && m() > 1) {
+            k--;
+        }
+    }
+}
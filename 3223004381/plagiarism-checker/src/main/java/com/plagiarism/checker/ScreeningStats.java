@@ -0,0 +1,62 @@
+package com.plagiarism.checker;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 阈值判定模式的统计：记录每次判定在哪个阶段得出结论，用于评估提前判定的比例
+ */
+public class ScreeningStats {
+
+    /**
+     * 判定阶段，按计算代价从低到高排列
+     */
+    public enum Stage {
+        EMPTY,              // 过滤后为空，相似度必为0
+        LENGTH_RATIO,       // 去重词数比例上界
+        VOCABULARY_OVERLAP, // 词汇重叠的上下界
+        FULL                // 完整的TF-IDF与余弦计算
+    }
+
+    private final Map<Stage, LongAdder> counters = new EnumMap<>(Stage.class);
+
+    public ScreeningStats() {
+        for (Stage stage : Stage.values()) {
+            counters.put(stage, new LongAdder());
+        }
+    }
+
+    public void record(Stage stage) {
+        counters.get(stage).increment();
+    }
+
+    public long count(Stage stage) {
+        return counters.get(stage).sum();
+    }
+
+    public long total() {
+        long total = 0;
+        for (LongAdder counter : counters.values()) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    /**
+     * 无需完整计算即得出结论的比例
+     */
+    public double earlyDecisionRate() {
+        long total = total();
+        return total == 0 ? 0.0 : 1.0 - (double) count(Stage.FULL) / total;
+    }
+
+    public String formatReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("判定总数: %d, 提前判定比例: %.2f%%", total(), earlyDecisionRate() * 100));
+        for (Stage stage : Stage.values()) {
+            report.append(", ").append(stage).append('=').append(count(stage));
+        }
+        return report.toString();
+    }
+}
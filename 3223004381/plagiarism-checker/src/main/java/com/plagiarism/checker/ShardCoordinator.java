@@ -0,0 +1,326 @@
+package com.plagiarism.checker;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 分片检索协调者：把查询分发到所有 {@link ShardServer}，合并各分片的前K个结果。
+ *
+ * 首次检索前同步一轮全局统计：收集各分片的文档数和词项文档频率，汇总后把每个分片词项的
+ * 全局文档频率下发给该分片，分片据此缓存每篇文档完整TF-IDF向量的模。检索时查询词的全局IDF
+ * 随查询下发，各分片按同一套权重打分，分数与
+ * {@link SimilarityCalculator#calculateSimilarity(List, List, DfSnapshot)} 在全量语料上的结果一致。
+ */
+public class ShardCoordinator implements Closeable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+    private static final int READ_TIMEOUT_MILLIS = 60_000;
+    // 启动本机分片进程时转发的系统属性前缀
+    private static final String FORWARDED_PROPERTY_PREFIX = "plagiarism.";
+
+    private final List<URI> shards;
+    private final List<Process> processes;
+    private final SimilarityCalculator calculator;
+    private final ExecutorService executor;
+    // 全局统计：文档总数与词项文档频率，首次检索时同步
+    private long corpusDocuments;
+    private Map<String, Long> corpusDf;
+
+    /**
+     * @param shards 各分片服务的地址，如 http://127.0.0.1:8081
+     */
+    public ShardCoordinator(List<URI> shards, SimilarityCalculator calculator) {
+        this(shards, Collections.<Process>emptyList(), calculator);
+    }
+
+    private ShardCoordinator(List<URI> shards, List<Process> processes, SimilarityCalculator calculator) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个分片");
+        }
+        if (!calculator.isDefaultScoring()) {
+            throw new IllegalArgumentException("分片检索只支持默认的余弦与杰卡德融合打分");
+        }
+        this.shards = new ArrayList<>(shards);
+        this.processes = new ArrayList<>(processes);
+        this.calculator = calculator;
+        this.executor = Executors.newFixedThreadPool(shards.size());
+    }
+
+    /**
+     * 在本机启动 shardCount 个分片进程（与当前进程使用相同的JVM、类路径和 plagiarism.* 系统属性），
+     * 关闭协调者时一并结束这些进程
+     */
+    public static ShardCoordinator launchLocal(String documentDirectory, int shardCount,
+                                               SimilarityCalculator calculator) throws IOException {
+        List<Process> processes = new ArrayList<>();
+        List<URI> shards = new ArrayList<>();
+        try {
+            for (int i = 0; i < shardCount; i++) {
+                ProcessBuilder builder = new ProcessBuilder(shardCommand(documentDirectory, i, shardCount));
+                builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+                processes.add(builder.start());
+            }
+            // 各进程并行加载文档，依次读取它们报告的端口
+            for (Process process : processes) {
+                shards.add(URI.create("http://127.0.0.1:" + readPort(process)));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Process process : processes) {
+                process.destroy();
+            }
+            throw e;
+        }
+        return new ShardCoordinator(shards, processes, calculator);
+    }
+
+    // 分片进程的启动命令：转发 plagiarism.* 系统属性，使分片使用与当前进程相同的配置目录等设置
+    static List<String> shardCommand(String documentDirectory, int shardIndex, int shardCount) {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        for (String name : new TreeSet<>(System.getProperties().stringPropertyNames())) {
+            if (name.startsWith(FORWARDED_PROPERTY_PREFIX)) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ShardServer.class.getName());
+        command.add(documentDirectory);
+        command.add(String.valueOf(shardIndex));
+        command.add(String.valueOf(shardCount));
+        return command;
+    }
+
+    private static int readPort(Process process) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("PORT ")) {
+                return Integer.parseInt(line.substring(5).trim());
+            }
+        }
+        throw new IOException("分片进程启动失败");
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    /**
+     * 检索与查询最相似的前K篇文档
+     * @param queryWords 预处理后的查询词语
+     */
+    public List<Hit> search(List<String> queryWords, int k) throws IOException {
+        Map<String, Integer> queryCounts = new LinkedHashMap<>();
+        for (String word : calculator.filterScoredWords(queryWords)) {
+            queryCounts.merge(word, 1, Integer::sum);
+        }
+        if (queryCounts.isEmpty() || k <= 0) {
+            return Collections.emptyList();
+        }
+        String terms = String.join(ShardServer.FIELD_SEPARATOR, queryCounts.keySet());
+        Map<String, Long> df = synchronizeCorpus();
+
+        // 带着全局IDF检索，合并各分片的前K个结果
+        StringBuilder counts = new StringBuilder();
+        StringBuilder idf = new StringBuilder();
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : queryCounts.entrySet()) {
+            if (i > 0) {
+                counts.append(ShardServer.FIELD_SEPARATOR);
+                idf.append(ShardServer.FIELD_SEPARATOR);
+            }
+            counts.append(entry.getValue());
+            idf.append(DfSnapshot.smoothedIdf(corpusDocuments, df.getOrDefault(entry.getKey(), 0L)));
+            i++;
+        }
+        Map<String, Object> searchRequest = new LinkedHashMap<>();
+        searchRequest.put("documents", corpusDocuments);
+        searchRequest.put("terms", terms);
+        searchRequest.put("counts", counts.toString());
+        searchRequest.put("idf", idf.toString());
+        searchRequest.put("k", k);
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(Hit.ASCENDING);
+        for (String response : scatter("/search", JsonLines.toJson(searchRequest))) {
+            for (String line : response.split("\n")) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                Map<String, Object> hit = JsonLines.parseObject(line);
+                top.add(new Hit((String) hit.get("name"), ((Number) hit.get("score")).doubleValue()));
+                if (top.size() > k) {
+                    top.poll();
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(Hit.ASCENDING.reversed());
+        return hits;
+    }
+
+    /**
+     * 汇总各分片的文档数和词项文档频率，并把全局文档频率下发给各分片（只在首次调用时进行）
+     * @return 全局词项文档频率
+     */
+    private synchronized Map<String, Long> synchronizeCorpus() throws IOException {
+        if (corpusDf != null) {
+            return corpusDf;
+        }
+        long documents = 0;
+        Map<String, Long> df = new HashMap<>();
+        List<String[]> shardTerms = new ArrayList<>();
+        for (String response : scatter("/vocabulary", JsonLines.toJson(new LinkedHashMap<String, Object>()))) {
+            Map<String, Object> vocabulary = JsonLines.parseObject(response.trim());
+            documents += ((Number) vocabulary.get("documents")).longValue();
+            String terms = (String) vocabulary.get("terms");
+            String[] termFields = terms.isEmpty() ? new String[0] : terms.split(ShardServer.FIELD_SEPARATOR, -1);
+            String[] dfFields = ((String) vocabulary.get("df")).split(ShardServer.FIELD_SEPARATOR, -1);
+            for (int i = 0; i < termFields.length; i++) {
+                df.merge(termFields[i], Long.parseLong(dfFields[i]), Long::sum);
+            }
+            shardTerms.add(termFields);
+        }
+
+        List<String> bodies = new ArrayList<>();
+        for (String[] terms : shardTerms) {
+            StringBuilder globalDf = new StringBuilder();
+            for (int i = 0; i < terms.length; i++) {
+                if (i > 0) {
+                    globalDf.append(ShardServer.FIELD_SEPARATOR);
+                }
+                globalDf.append(df.get(terms[i]));
+            }
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("documents", documents);
+            request.put("terms", String.join(ShardServer.FIELD_SEPARATOR, terms));
+            request.put("df", globalDf.toString());
+            bodies.add(JsonLines.toJson(request));
+        }
+        scatter("/corpus", bodies);
+
+        corpusDocuments = documents;
+        corpusDf = df;
+        return df;
+    }
+
+    // 并行向所有分片发送同一请求，按分片顺序返回响应
+    private List<String> scatter(String path, String body) throws IOException {
+        return scatter(path, Collections.nCopies(shards.size(), body));
+    }
+
+    // 并行向各分片发送各自的请求体，按分片顺序返回响应
+    private List<String> scatter(String path, List<String> bodies) throws IOException {
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            URI shard = shards.get(i);
+            String body = bodies.get(i);
+            futures.add(executor.submit(() -> post(shard.resolve(path), body)));
+        }
+        List<String> responses = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                responses.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                throw new IOException("分片 " + shards.get(i) + " 请求失败: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("分片请求被中断", e);
+            }
+        }
+        return responses;
+    }
+
+    private static String post(URI uri, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        try {
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+            connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+            int status = connection.getResponseCode();
+            InputStream in = status == 200 ? connection.getInputStream() : connection.getErrorStream();
+            String response = readAll(in);
+            if (status != 200) {
+                throw new IOException("HTTP " + status + ": " + response.trim());
+            }
+            return response;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        if (in == null) {
+            return "";
+        }
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (Process process : processes) {
+            process.destroy();
+        }
+    }
+
+    /**
+     * 一条检索结果
+     */
+    public static final class Hit {
+        // 分数升序，同分时名称降序；反转后即为结果展示顺序（分数降序、名称升序）
+        static final Comparator<Hit> ASCENDING = Comparator.comparingDouble(Hit::getScore)
+                .thenComparing(Hit::getName, Comparator.reverseOrder());
+
+        private final String name;
+        private final double score;
+
+        public Hit(String name, double score) {
+            this.name = name;
+            this.score = score;
+        }
+
+        public String getName() { return name; }
+        public double getScore() { return score; }
+
+        @Override
+        public String toString() {
+            return name + ":" + String.format("%.4f", score);
+        }
+    }
+}
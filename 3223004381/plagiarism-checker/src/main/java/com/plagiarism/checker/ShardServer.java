@@ -0,0 +1,344 @@
+package com.plagiarism.checker;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 文档分片服务：持有语料的一个分片（按文档划分），通过本机HTTP接口提供三类请求：
+ * <ul>
+ *     <li>POST /vocabulary {} → {"documents":N,"terms":"词1\t词2","df":"3\t1"}，供协调者汇总全局文档频率</li>
+ *     <li>POST /corpus {"documents":N,"terms":..,"df":..} 下发本分片词项的全局文档频率，分片据此预先计算文档向量的模</li>
+ *     <li>POST /search {"documents":N,"terms":..,"counts":..,"idf":..,"k":10} → 每行一个 {"name":..,"score":..}</li>
+ * </ul>
+ * 打分使用协调者下发的全局IDF，因此各分片的分数可以直接合并排序。
+ * 既可在进程内启动（测试），也可通过 {@link #main} 作为独立进程运行。
+ */
+public class ShardServer implements Closeable {
+    static final String FIELD_SEPARATOR = "\t";
+
+    private final SimilarityCalculator calculator;
+    private final CorpusIndex index = new CorpusIndex();
+    private final List<String> names = new ArrayList<>();
+    private final List<Map<String, Integer>> termCounts = new ArrayList<>();
+    private final List<Integer> lengths = new ArrayList<>();
+    // 本分片出现过的词项，与 /vocabulary 返回的顺序一致
+    private final List<String> vocabulary;
+    private volatile CorpusNorms corpusNorms;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param documents 本分片的文档：文档名 → 预处理后的词语
+     */
+    public ShardServer(Map<String, List<String>> documents, SimilarityCalculator calculator) {
+        if (!calculator.isDefaultScoring()) {
+            throw new IllegalArgumentException("分片检索只支持默认的余弦与杰卡德融合打分");
+        }
+        this.calculator = calculator;
+        Set<String> terms = new LinkedHashSet<>();
+        for (Map.Entry<String, List<String>> entry : documents.entrySet()) {
+            List<String> words = calculator.filterScoredWords(entry.getValue());
+            Map<String, Integer> counts = new HashMap<>();
+            for (String word : words) {
+                counts.merge(word, 1, Integer::sum);
+            }
+            index.addDocument(words);
+            names.add(entry.getKey());
+            termCounts.add(counts);
+            lengths.add(words.size());
+            terms.addAll(counts.keySet());
+        }
+        this.vocabulary = new ArrayList<>(terms);
+    }
+
+    /**
+     * 在本机回环地址上启动HTTP服务
+     * @param port 端口，0表示自动分配
+     * @return 实际监听的端口
+     */
+    public int start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        server.setExecutor(executor);
+        server.createContext("/vocabulary", exchange -> handle(exchange, body -> JsonLines.toJson(vocabulary())));
+        server.createContext("/corpus", exchange -> handle(exchange, body -> JsonLines.toJson(applyCorpus(body))));
+        server.createContext("/search", exchange -> handle(exchange, this::search));
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    public int documentCount() {
+        return names.size();
+    }
+
+    private interface Handler {
+        String apply(Map<String, Object> request);
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        int status = 200;
+        String response;
+        try {
+            response = handler.apply(JsonLines.parseObject(readBody(exchange.getRequestBody())));
+        } catch (RuntimeException e) {
+            status = 400;
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("error", e.getMessage());
+            response = JsonLines.toJson(error);
+        }
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // 本分片的文档数及所有词项的文档频率
+    Map<String, Object> vocabulary() {
+        StringBuilder df = new StringBuilder();
+        for (int i = 0; i < vocabulary.size(); i++) {
+            if (i > 0) {
+                df.append(FIELD_SEPARATOR);
+            }
+            df.append(index.documentFrequency(vocabulary.get(i)));
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("documents", names.size());
+        response.put("terms", String.join(FIELD_SEPARATOR, vocabulary));
+        response.put("df", df.toString());
+        return response;
+    }
+
+    // 按全局文档频率计算每篇文档完整TF-IDF向量的模，之后的检索都使用这一轮的统计
+    Map<String, Object> applyCorpus(Map<String, Object> request) {
+        String[] terms = splitField(request, "terms");
+        String[] dfFields = splitField(request, "df");
+        if (dfFields.length != terms.length) {
+            throw new IllegalArgumentException("terms、df 的个数不一致");
+        }
+        long documents = documentsField(request);
+        Map<String, Double> idf = new HashMap<>();
+        for (int i = 0; i < terms.length; i++) {
+            idf.put(terms[i], DfSnapshot.smoothedIdf(documents, Long.parseLong(dfFields[i])));
+        }
+        double[] norms = new double[names.size()];
+        for (int doc = 0; doc < norms.length; doc++) {
+            double squares = 0;
+            for (Map.Entry<String, Integer> entry : termCounts.get(doc).entrySet()) {
+                Double termIdf = idf.get(entry.getKey());
+                if (termIdf == null) {
+                    throw new IllegalArgumentException("缺少词项的全局文档频率: " + entry.getKey());
+                }
+                double weight = weight(entry.getValue(), lengths.get(doc), termIdf);
+                squares += weight * weight;
+            }
+            norms[doc] = Math.sqrt(squares);
+        }
+        corpusNorms = new CorpusNorms(documents, norms);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("documents", documents);
+        return response;
+    }
+
+    // 按全局IDF给本分片的候选文档打分，返回前K个结果（JSON Lines）
+    private String search(Map<String, Object> request) {
+        String[] terms = splitField(request, "terms");
+        String[] countFields = splitField(request, "counts");
+        String[] idfFields = splitField(request, "idf");
+        if (countFields.length != terms.length || idfFields.length != terms.length) {
+            throw new IllegalArgumentException("terms、counts、idf 的个数不一致");
+        }
+        int[] counts = new int[terms.length];
+        double[] idf = new double[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            counts[i] = Integer.parseInt(countFields[i]);
+            idf[i] = Double.parseDouble(idfFields[i]);
+        }
+        Object k = request.get("k");
+        if (!(k instanceof Number)) {
+            throw new IllegalArgumentException("缺少参数: k");
+        }
+        CorpusNorms norms = corpusNorms;
+        if (norms == null || norms.documents != documentsField(request)) {
+            throw new IllegalStateException("分片尚未同步本轮的全局文档频率");
+        }
+
+        StringBuilder response = new StringBuilder();
+        for (ShardCoordinator.Hit hit : search(terms, counts, idf, norms.norms, ((Number) k).intValue())) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("name", hit.getName());
+            line.put("score", hit.getScore());
+            response.append(JsonLines.toJson(line)).append('\n');
+        }
+        return response.toString();
+    }
+
+    /**
+     * 本分片内与查询最相似的前K篇文档，按分数降序
+     * @param terms  查询的去重词语
+     * @param counts 各词语在查询中的出现次数
+     * @param idf    各词语的全局IDF
+     * @param norms  各文档在全局IDF下TF-IDF向量的模
+     */
+    List<ShardCoordinator.Hit> search(String[] terms, int[] counts, double[] idf, double[] norms, int k) {
+        int queryLength = 0;
+        List<String> termList = new ArrayList<>();
+        for (int i = 0; i < terms.length; i++) {
+            queryLength += counts[i];
+            termList.add(terms[i]);
+        }
+        PriorityQueue<ShardCoordinator.Hit> top = new PriorityQueue<>(ShardCoordinator.Hit.ASCENDING);
+        CompressedPostings.Cursor cursor = index.documentsContainingAny(termList).cursor();
+        for (int doc = cursor.nextDoc(); doc != CompressedPostings.NO_MORE_DOCS; doc = cursor.nextDoc()) {
+            double score = score(terms, counts, queryLength, idf, termCounts.get(doc), lengths.get(doc), norms[doc]);
+            top.add(new ShardCoordinator.Hit(names.get(doc), score));
+            if (top.size() > k) {
+                top.poll();
+            }
+        }
+        List<ShardCoordinator.Hit> hits = new ArrayList<>(top);
+        hits.sort(ShardCoordinator.Hit.ASCENDING.reversed());
+        return hits;
+    }
+
+    /**
+     * 与 {@link SimilarityCalculator#calculateSimilarity(List, List, DfSnapshot)} 相同：
+     * 完整TF-IDF向量（含高频词衰减）的余弦与杰卡德相似度按6:4融合，IDF使用全局值
+     * @param documentNorm 文档向量的模，由 /corpus 按同一套全局IDF预先计算
+     */
+    static double score(String[] terms, int[] counts, int queryLength, double[] idf,
+                        Map<String, Integer> document, int documentLength, double documentNorm) {
+        double dot = 0;
+        double queryNorm = 0;
+        int shared = 0;
+        for (int i = 0; i < terms.length; i++) {
+            double queryWeight = weight(counts[i], queryLength, idf[i]);
+            queryNorm += queryWeight * queryWeight;
+            Integer count = document.get(terms[i]);
+            if (count != null) {
+                shared++;
+                dot += queryWeight * weight(count, documentLength, idf[i]);
+            }
+        }
+        if (shared == 0 || queryNorm == 0 || documentNorm == 0) {
+            return 0.0;
+        }
+        double cosine = dot / (Math.sqrt(queryNorm) * documentNorm);
+        double jaccard = (double) shared / (terms.length + document.size() - shared);
+        return SimilarityCalculator.COSINE_WEIGHT * cosine + SimilarityCalculator.JACCARD_WEIGHT * jaccard;
+    }
+
+    // 词频×IDF，超过高频阈值的权重按 SimilarityCalculator 的规则衰减
+    static double weight(int count, int length, double idf) {
+        double weight = (double) count / length * idf;
+        if (weight / length > SimilarityCalculator.HIGH_FREQ_THRESHOLD) {
+            weight *= SimilarityCalculator.HIGH_FREQ_DECAY;
+        }
+        return weight;
+    }
+
+    private static long documentsField(Map<String, Object> request) {
+        Object documents = request.get("documents");
+        if (!(documents instanceof Number)) {
+            throw new IllegalArgumentException("缺少参数: documents");
+        }
+        return ((Number) documents).longValue();
+    }
+
+    private static String[] splitField(Map<String, Object> request, String field) {
+        Object value = request.get(field);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("缺少参数: " + field);
+        }
+        String text = (String) value;
+        return text.isEmpty() ? new String[0] : text.split(FIELD_SEPARATOR, -1);
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 作为独立进程运行：加载目录中属于本分片的文档（按文件名排序后序号对分片数取模），
+     * 在标准输出打印 "PORT <端口>"，标准输入关闭（父进程退出）时结束
+     * 用法: ShardServer <文档目录> <分片编号> <分片总数>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("用法: ShardServer <文档目录> <分片编号> <分片总数>");
+            System.exit(1);
+        }
+        int shardIndex = Integer.parseInt(args[1]);
+        int shardCount = Integer.parseInt(args[2]);
+
+        FileAccessor fileAccessor = new FileAccessor();
+        TextPreprocessor preprocessor = Main.createPreprocessor(Main.createConfigLoader());
+        Map<String, List<String>> documents = new LinkedHashMap<>();
+        List<Path> files = fileAccessor.listFiles(args[0]);
+        for (int i = shardIndex; i < files.size(); i += shardCount) {
+            Path file = files.get(i);
+            documents.put(file.getFileName().toString(), preprocessor.preprocess(fileAccessor.readFile(file.toString())));
+        }
+
+        ShardServer shard = new ShardServer(documents, new SimilarityCalculator());
+        int port = shard.start(0);
+        System.out.println("PORT " + port);
+        System.out.flush();
+
+        BufferedReader stdin = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        while (stdin.readLine() != null) {
+            // 等待父进程关闭标准输入
+        }
+        shard.close();
+    }
+
+    // 某一轮全局统计下各文档向量的模
+    private static final class CorpusNorms {
+        private final long documents;
+        private final double[] norms;
+
+        CorpusNorms(long documents, double[] norms) {
+            this.documents = documents;
+            this.norms = norms;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.plagiarism.checker;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 查重结果缓存：按 (原文内容哈希, 抄袭版内容哈希, 配置指纹) 缓存相似度。
+ * 分段加锁的LRU，总容量有上限，提供命中、未命中、淘汰计数。
+ */
+public class SimilarityCache {
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries 缓存最多保存的结果数
+     */
+    public SimilarityCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("缓存容量必须为正数: " + maxEntries);
+        }
+        int perSegment = (maxEntries + SEGMENT_COUNT - 1) / SEGMENT_COUNT;
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(perSegment, evictions);
+        }
+    }
+
+    /**
+     * 计算文本内容哈希（SHA-256十六进制）
+     */
+    public static String contentHash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JVM不支持SHA-256", e);
+        }
+    }
+
+    /**
+     * 命中时直接返回缓存结果，否则调用calculator计算并写入缓存
+     */
+    public double getOrCompute(String originalHash, String plagiarizedHash, String configFingerprint,
+                               DoubleSupplier calculator) {
+        Key key = new Key(originalHash, plagiarizedHash, configFingerprint);
+        Segment segment = segmentFor(key);
+        Double cached;
+        synchronized (segment) {
+            cached = segment.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        // 在锁外计算，避免慢计算阻塞同一分段的其他请求
+        double value = calculator.getAsDouble();
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * 移除配置指纹与当前不一致的结果（配置变更后旧结果不再有效）
+     */
+    public void retainFingerprint(String configFingerprint) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.keySet().removeIf(key -> !key.fingerprint.equals(configFingerprint));
+            }
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int total = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                total += segment.size();
+            }
+        }
+        return total;
+    }
+
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+
+    private Segment segmentFor(Key key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENT_COUNT - 1)];
+    }
+
+    private static final class Segment extends LinkedHashMap<Key, Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private final transient LongAdder evictions;
+
+        Segment(int capacity, LongAdder evictions) {
+            super(16, 0.75f, true); // 按访问顺序排列，实现LRU
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Key {
+        private final String original;
+        private final String plagiarized;
+        private final String fingerprint;
+        private final int hash;
+
+        Key(String original, String plagiarized, String fingerprint) {
+            this.original = original;
+            this.plagiarized = plagiarized;
+            this.fingerprint = fingerprint;
+            this.hash = Objects.hash(original, plagiarized, fingerprint);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return original.equals(other.original)
+                    && plagiarized.equals(other.plagiarized)
+                    && fingerprint.equals(other.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
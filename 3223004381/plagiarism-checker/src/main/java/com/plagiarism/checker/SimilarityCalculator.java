@@ -8,13 +8,22 @@ public class SimilarityCalculator {
     // 停用词集合（无意义高频词）
     private final Set<String> stopWords = new HashSet<>();
     // 高频词阈值（超过此频率将降低权重）
-    private static final double HIGH_FREQ_THRESHOLD = 0.05;
+    static final double HIGH_FREQ_THRESHOLD = 0.05;
     // 高频词权重衰减系数
-    private static final double HIGH_FREQ_DECAY = 0.3;
-    // 干扰字符正则（保留中英文、数字和常见标点，剔除其他干扰符号）
-    private static final String NOISE_PATTERN = "[^a-zA-Z0-9\u4e00-\u9fa5，。,;！!？?]";
+    static final double HIGH_FREQ_DECAY = 0.3;
     // 最小词长度（过滤单字干扰词，如“丽”“医”）
     private static final int MIN_WORD_LENGTH = 2;
+    // 融合权重：余弦相似度与杰卡德相似度
+    static final double COSINE_WEIGHT = 0.6;
+    static final double JACCARD_WEIGHT = 0.4;
+    // 上界的浮点余量（余弦计算可能因舍入略大于1）
+    private static final double BOUND_EPSILON = 1e-12;
+
+    // 词袋部分的打分器，默认即余弦0.6 + 杰卡德0.4
+    private volatile SimilarityScorer scorer = BlendScorer.defaultBlend();
+    // 词序（n元组包含度）在最终分数中的权重，0表示只用词袋分数
+    private volatile double orderWeight = 0.0;
+    private volatile NGramSimilarity ngramSimilarity = new NGramSimilarity();
 
     public SimilarityCalculator() {
         // 初始化停用词
@@ -25,6 +34,151 @@ public class SimilarityCalculator {
             e.printStackTrace();
         }
     }
+    /**
+     * 把考虑词序的n元组包含度按权重融合进最终分数：
+     * 分数 = (1 - weight) × 词袋分数 + weight × n元组包含度。
+     * 默认权重为0，与原有分数完全一致
+     * @param weight 词序权重，取值[0,1]
+     * @param n      n元组长度
+     */
+    public void setOrderWeight(double weight, int n) {
+        if (weight < 0 || weight > 1) {
+            throw new IllegalArgumentException("词序权重必须在0~1之间: " + weight);
+        }
+        this.ngramSimilarity = new NGramSimilarity(n);
+        this.orderWeight = weight;
+    }
+
+    public double getOrderWeight() {
+        return orderWeight;
+    }
+
+    /**
+     * 影响分数的计算器参数，缓存键需要包含它；默认参数下为空串
+     */
+    public String getScoringFingerprint() {
+        StringBuilder fingerprint = new StringBuilder();
+        SimilarityScorer current = scorer;
+        if (current != BlendScorer.defaultBlend()) {
+            fingerprint.append(";scorer=").append(current.getName());
+        }
+        double weight = orderWeight;
+        if (weight != 0) {
+            fingerprint.append(";order=").append(weight).append('@').append(ngramSimilarity.getN());
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * 替换词袋部分的打分器（例如BM25或自定义融合），默认为 {@link BlendScorer#defaultBlend()}
+     */
+    public void setScorer(SimilarityScorer scorer) {
+        if (scorer == null) {
+            throw new IllegalArgumentException("打分器不能为空");
+        }
+        this.scorer = scorer;
+    }
+
+    public SimilarityScorer getScorer() {
+        return scorer;
+    }
+
+    /**
+     * 经过干扰词、停用词过滤后的文档画像；同一篇文档与多篇文档比较时可只构建一次
+     */
+    public DocumentProfile profile(List<String> words) {
+        return new DocumentProfile(filterScoredWords(words));
+    }
+
+    /**
+     * 对预先构建的画像计算相似度，结果与 calculateSimilarity(words1, words2) 相同
+     */
+    public double calculateSimilarity(DocumentProfile profile1, DocumentProfile profile2) {
+        if (profile1.isEmpty() || profile2.isEmpty()) {
+            return 0.0;
+        }
+        return scoreProfiles(profile1, profile2);
+    }
+
+    /**
+     * 经过与相似度计算相同过滤的词频向量，用于写入 {@link OffHeapVectorStore}
+     */
+    public SparseVector termFrequencyVector(List<String> words, TermDictionary dictionary) {
+        List<String> filtered = filterScoredWords(words);
+        return filtered.isEmpty() ? new SparseVector(new int[0], new float[0])
+                : SparseVector.fromTermFrequencies(filtered, dictionary);
+    }
+
+    /**
+     * 是否为默认打分：余弦与杰卡德按6:4融合，且不融合词序。
+     * 语料级IDF、近似模式、矩阵与分片检索只实现了这一种打分
+     */
+    public boolean isDefaultScoring() {
+        return scorer == BlendScorer.defaultBlend() && orderWeight == 0;
+    }
+
+    // 只支持默认打分的计算路径：设置了其他打分方式时报错，而不是悄悄按默认方式计算
+    private void requireDefaultScoring(String path) {
+        if (!isDefaultScoring()) {
+            throw new IllegalStateException(path + "只支持默认的余弦与杰卡德融合打分，当前设置: "
+                    + getScoringFingerprint().substring(1));
+        }
+    }
+
+    /**
+     * 当前打分方式能否直接在堆外向量存储上计算（打分器支持且未融合词序）
+     */
+    public boolean supportsStoredVectors() {
+        return orderWeight == 0 && scorer.supportsStoredVectors();
+    }
+
+    /**
+     * 对堆外向量存储中的两篇文档计算相似度，向量由 {@link #termFrequencyVector} 构建。
+     * 数据不复制到堆内，结果与 calculateSimilarity(profile1, profile2) 一致（只差单精度舍入）
+     */
+    public double calculateSimilarity(OffHeapVectorStore store, int doc1, int doc2) {
+        if (!supportsStoredVectors()) {
+            throw new IllegalStateException("当前打分方式不支持堆外向量: " + scorer.getName());
+        }
+        if (store.termCount(doc1) == 0 || store.termCount(doc2) == 0) {
+            return 0.0;
+        }
+        return scorer.score(store.overlap(doc1, doc2));
+    }
+
+    /**
+     * 考虑词序的n元组比较，输入经过与相似度计算相同的干扰词、停用词过滤
+     */
+    public NGramSimilarity.Result compareNGrams(List<String> words1, List<String> words2) {
+        return ngramSimilarity.compare(filterScoredWords(words1), filterScoredWords(words2));
+    }
+
+    /**
+     * 词语级编辑相似度：1 - 编辑距离 / 较长文档的词数，输入经过与相似度计算相同的过滤。
+     * 适合短答案、段落级的近似改写检测，作为TF-IDF分数之外的补充指标
+     */
+    public double calculateEditSimilarity(List<String> words1, List<String> words2) {
+        if (words1.isEmpty() || words2.isEmpty()) {
+            return 0.0;
+        }
+        List<String> filteredWords1 = filterScoredWords(words1);
+        List<String> filteredWords2 = filterScoredWords(words2);
+        if (filteredWords1.isEmpty() || filteredWords2.isEmpty()) {
+            return 0.0;
+        }
+        return TokenEditDistance.similarity(filteredWords1, filteredWords2);
+    }
+
+    /**
+     * 贪心串覆盖：在过滤后的词语序列上寻找整段相同的片段（可被调换顺序），
+     * 覆盖率可作为相似度，覆盖块给出片段在两篇文档中的位置
+     * @param minimumMatchLength 覆盖块的最小词数
+     */
+    public GreedyStringTiling.Result calculateTiling(List<String> words1, List<String> words2,
+                                                     int minimumMatchLength) {
+        return new GreedyStringTiling(minimumMatchLength).tile(filterScoredWords(words1), filterScoredWords(words2));
+    }
+
     /**
      * 相似度计算：结合干扰词过滤、优化TF-IDF和权重融合
      */
@@ -47,23 +201,193 @@ public class SimilarityCalculator {
             return 0.0;
         }
 
-        // 3. 构建文档集合（移除过度扩展的空文档，避免IDF计算异常）
-        List<List<String>> documents = buildDocumentSet(filteredWords1, filteredWords2);
+        return scoreFiltered(filteredWords1, filteredWords2);
+    }
 
-        // 4. 计算优化后的TF-IDF向量
-        Map<String, Double> tfIdf1 = calculateOptimizedTfIdf(filteredWords1, documents);
-        Map<String, Double> tfIdf2 = calculateOptimizedTfIdf(filteredWords2, documents);
+    /**
+     * 使用语料级IDF的相似度：IDF取自并行导入时发布的文档频率快照，而不是只由两篇文档计算。
+     * 只实现了默认打分，设置了其他打分器或词序权重时抛出 IllegalStateException
+     * @param corpus 文档频率快照
+     */
+    public double calculateSimilarity(List<String> words1, List<String> words2, DfSnapshot corpus) {
+        requireDefaultScoring("语料级IDF打分");
+        if (words1.isEmpty() || words2.isEmpty()) {
+            return 0.0;
+        }
+        List<String> filteredWords1 = filterStopWords(cleanNoiseWords(words1));
+        List<String> filteredWords2 = filterStopWords(cleanNoiseWords(words2));
+        if (filteredWords1.isEmpty() || filteredWords2.isEmpty()) {
+            return 0.0;
+        }
+        return scoreCorpus(filteredWords1, filteredWords2, corpus);
+    }
 
-        // 5. 优化高频词权重
+    // 对已过滤的非空词语列表按语料级IDF计算融合相似度
+    private double scoreCorpus(List<String> filteredWords1, List<String> filteredWords2, DfSnapshot corpus) {
+        Map<String, Double> tfIdf1 = calculateCorpusTfIdf(filteredWords1, corpus);
+        Map<String, Double> tfIdf2 = calculateCorpusTfIdf(filteredWords2, corpus);
         optimizeHighFrequencyWords(tfIdf1, filteredWords1.size());
         optimizeHighFrequencyWords(tfIdf2, filteredWords2.size());
 
-        // 6. 计算核心相似度
         double cosineSimilarity = calculateCosineSimilarity(tfIdf1, tfIdf2);
         double jaccardSimilarity = calculateJaccardSimilarity(filteredWords1, filteredWords2);
+        return COSINE_WEIGHT * cosineSimilarity + JACCARD_WEIGHT * jaccardSimilarity;
+    }
+
+    /**
+     * 阈值判定模式：只回答“相似度是否≥threshold”。
+     * 先用廉价的上下界（去重词数比例、词汇重叠）判定，只有界无法决定时才做完整的TF-IDF和余弦计算，
+     * 判定结果与 calculateSimilarity(words1, words2) >= threshold 完全一致。
+     * @param stats 统计各阶段提前判定的次数，可为null
+     */
+    public boolean isSimilarityAtLeast(List<String> words1, List<String> words2, double threshold,
+                                       ScreeningStats stats) {
+        return screen(words1, words2, threshold, null, stats);
+    }
+
+    /**
+     * 按语料级IDF打分的阈值判定，判定结果与 calculateSimilarity(words1, words2, corpus) >= threshold 一致。
+     * 两种余弦都在[0,1]内、没有共同词时都为0，因此沿用同一组上下界，只有完整计算改用语料级IDF
+     */
+    public boolean isSimilarityAtLeast(List<String> words1, List<String> words2, double threshold,
+                                       DfSnapshot corpus, ScreeningStats stats) {
+        requireDefaultScoring("语料级IDF打分");
+        return screen(words1, words2, threshold, corpus, stats);
+    }
+
+    // corpus 为null时完整计算使用当前打分器，否则使用语料级IDF
+    private boolean screen(List<String> words1, List<String> words2, double threshold,
+                           DfSnapshot corpus, ScreeningStats stats) {
+        if (words1.isEmpty() || words2.isEmpty()) {
+            return record(stats, ScreeningStats.Stage.EMPTY, 0.0 >= threshold);
+        }
+        List<String> filteredWords1 = filterStopWords(cleanNoiseWords(words1));
+        List<String> filteredWords2 = filterStopWords(cleanNoiseWords(words2));
+        if (filteredWords1.isEmpty() || filteredWords2.isEmpty()) {
+            return record(stats, ScreeningStats.Stage.EMPTY, 0.0 >= threshold);
+        }
+        DocumentProfile profile1 = new DocumentProfile(filteredWords1);
+        DocumentProfile profile2 = new DocumentProfile(filteredWords2);
+        if (corpus == null && scorer != BlendScorer.defaultBlend()) {
+            // 上下界按默认融合方式推导，自定义打分器直接完整计算
+            return record(stats, ScreeningStats.Stage.FULL, scoreProfiles(profile1, profile2) >= threshold);
+        }
+
+        // 余弦相似度的取值范围是[0,1]，杰卡德相似度不超过去重词数之比
+        DocumentProfile smaller = profile1.distinctTerms() <= profile2.distinctTerms() ? profile1 : profile2;
+        DocumentProfile larger = smaller == profile1 ? profile2 : profile1;
+        double jaccardUpper = (double) smaller.distinctTerms() / larger.distinctTerms();
+        if (blend(COSINE_WEIGHT + JACCARD_WEIGHT * jaccardUpper, 1.0) + BOUND_EPSILON < threshold) {
+            return record(stats, ScreeningStats.Stage.LENGTH_RATIO, false);
+        }
+
+        // 词汇重叠：得到精确的杰卡德相似度；没有共同词时TF-IDF向量正交，余弦为0
+        int overlap = 0;
+        for (String word : smaller.getCounts().keySet()) {
+            if (larger.count(word) > 0) {
+                overlap++;
+            }
+        }
+        double jaccard = (double) overlap / (profile1.distinctTerms() + profile2.distinctTerms() - overlap);
+        double cosineUpper = overlap == 0 ? 0.0 : 1.0;
+        if (blend(COSINE_WEIGHT * cosineUpper + JACCARD_WEIGHT * jaccard, 1.0) + BOUND_EPSILON < threshold) {
+            return record(stats, ScreeningStats.Stage.VOCABULARY_OVERLAP, false);
+        }
+        if (blend(JACCARD_WEIGHT * jaccard, 0.0) >= threshold) {
+            return record(stats, ScreeningStats.Stage.VOCABULARY_OVERLAP, true);
+        }
+
+        // 界无法决定时复用已构建的画像做完整计算
+        double score = corpus == null ? scoreProfiles(profile1, profile2)
+                : scoreCorpus(filteredWords1, filteredWords2, corpus);
+        return record(stats, ScreeningStats.Stage.FULL, score >= threshold);
+    }
+
+    /**
+     * 候选过滤用的重叠下界：过滤后有 distinctTerms 个不同词的文档，至少要与另一篇文档
+     * 共享多少个过滤后的词，{@link #isSimilarityAtLeast} 才可能成立。
+     * 余弦按上界1计，杰卡德不超过共享词数除以本文档词数；自定义打分器无法推导，返回1
+     */
+    public int minimumSharedTerms(int distinctTerms, double threshold) {
+        double jaccardNeeded = minimumJaccard(threshold);
+        if (jaccardNeeded <= 0) {
+            return 1;
+        }
+        return Math.max(1, (int) Math.ceil(jaccardNeeded * distinctTerms - BOUND_EPSILON));
+    }
+
+    /**
+     * 相似度达到阈值时杰卡德相似度的下界：余弦和词序分数按上界1计，默认打分下为 (T-0.6)/0.4。
+     * 不大于0表示只共享一个词的文档对也可能达到阈值；自定义打分器无法推导，返回0
+     */
+    public double minimumJaccard(double threshold) {
+        double weight = orderWeight;
+        if (scorer != BlendScorer.defaultBlend() || weight >= 1) {
+            return 0.0;
+        }
+        double bagNeeded = (threshold - weight) / (1 - weight);
+        return (bagNeeded - COSINE_WEIGHT) / JACCARD_WEIGHT;
+    }
+
+    private static boolean record(ScreeningStats stats, ScreeningStats.Stage stage, boolean result) {
+        if (stats != null) {
+            stats.record(stage);
+        }
+        return result;
+    }
+
+    /**
+     * 与相似度计算相同的干扰词、停用词过滤，供需要在计算器之外打分的模块（如分片检索）使用
+     */
+    public List<String> filterScoredWords(List<String> words) {
+        return filterStopWords(cleanNoiseWords(words));
+    }
+
+    /**
+     * 把一批预处理后的词语经过同样的干扰词、停用词过滤后累加到近似画像，
+     * 超大文档可分块多次调用
+     */
+    public void updateApproximateProfile(ApproximateTermProfile profile, List<String> words) {
+        for (String word : filterStopWords(cleanNoiseWords(words))) {
+            profile.add(word);
+        }
+    }
 
-        // 7. 融合相似度（6:4权重，平衡语义相关性和词汇匹配度）
-        return 0.6 * cosineSimilarity + 0.4 * jaccardSimilarity;
+    /**
+     * 近似模式的融合相似度：词频余弦由Count-Min摘要估计，杰卡德由MinHash估计。
+     * 只实现了默认打分，设置了其他打分器或词序权重时抛出 IllegalStateException
+     */
+    public double calculateApproximateSimilarity(ApproximateTermProfile profile1, ApproximateTermProfile profile2) {
+        requireDefaultScoring("近似模式");
+        if (profile1.isEmpty() || profile2.isEmpty()) {
+            return 0.0;
+        }
+        return COSINE_WEIGHT * profile1.estimateCosine(profile2)
+                + JACCARD_WEIGHT * profile1.estimateJaccard(profile2);
+    }
+
+    /**
+     * 对已过滤的非空词语列表计算融合相似度
+     */
+    private double scoreFiltered(List<String> filteredWords1, List<String> filteredWords2) {
+        return scoreProfiles(new DocumentProfile(filteredWords1), new DocumentProfile(filteredWords2));
+    }
+
+    private double scoreProfiles(DocumentProfile profile1, DocumentProfile profile2) {
+        // 词袋分数（默认：成对TF-IDF余弦与杰卡德按6:4融合）
+        double bagScore = scorer.score(profile1, profile2);
+
+        // 按需融合词序：抄袭版的n元组在原文中的包含度
+        if (orderWeight == 0) {
+            return bagScore;
+        }
+        return blend(bagScore, ngramSimilarity.compare(profile1.getWords(), profile2.getWords()).containment());
+    }
+
+    // 词袋分数与词序分数按权重融合（权重为0时原样返回词袋分数）
+    private double blend(double bagScore, double orderScore) {
+        double weight = orderWeight;
+        return weight == 0 ? bagScore : (1 - weight) * bagScore + weight * orderScore;
     }
 
     /**
@@ -73,7 +397,7 @@ public class SimilarityCalculator {
         List<String> cleaned = new ArrayList<>();
         for (String word : words) {
             // 步骤1：移除特殊干扰字符
-            String cleanWord = word.replaceAll(NOISE_PATTERN, "").trim();
+            String cleanWord = removeNoise(word);
             // 步骤2：过滤单字和空字符串（保留长度≥2的有效词）
             if (!cleanWord.isEmpty() && cleanWord.length() >= MIN_WORD_LENGTH) {
                 cleaned.add(cleanWord);
@@ -82,6 +406,26 @@ public class SimilarityCalculator {
         return cleaned;
     }
 
+    // 剔除干扰字符（保留中英文、数字和常见标点，与预处理的清洗规则相同），不含干扰字符时不复制
+    private static String removeNoise(String word) {
+        int length = word.length();
+        int first = 0;
+        while (first < length && CharFolder.isKept(word.charAt(first))) {
+            first++;
+        }
+        if (first == length) {
+            return word;
+        }
+        StringBuilder cleaned = new StringBuilder(length).append(word, 0, first);
+        for (int i = first + 1; i < length; i++) {
+            char c = word.charAt(i);
+            if (CharFolder.isKept(c)) {
+                cleaned.append(c);
+            }
+        }
+        return cleaned.toString();
+    }
+
     /**
      * 过滤停用词
      */
@@ -92,42 +436,14 @@ public class SimilarityCalculator {
     }
 
     /**
-     * 构建文档集合（仅包含两篇目标文档，确保IDF计算合理）
+     * 基于语料文档频率快照的TF-IDF
      */
-    private List<List<String>> buildDocumentSet(List<String> words1, List<String> words2) {
-        List<List<String>> documents = new ArrayList<>();
-        documents.add(words1);
-        documents.add(words2);
-        return documents;
-    }
-
-    /**
-     * 优化TF-IDF计算：基于真实文档集合，提升核心词权重
-     */
-    private Map<String, Double> calculateOptimizedTfIdf(List<String> words, List<List<String>> documents) {
-        Map<String, Integer> termFreq = buildFrequencyMap(words);
+    private Map<String, Double> calculateCorpusTfIdf(List<String> words, DfSnapshot corpus) {
         Map<String, Double> tfIdfMap = new HashMap<>();
         int totalWords = words.size();
-        int totalDocs = documents.size();
-
-        for (Map.Entry<String, Integer> entry : termFreq.entrySet()) {
-            String word = entry.getKey();
-            int freq = entry.getValue();
-
-            // 计算TF（词频/总词数）
-            double tf = totalWords == 0 ? 0.0 : (double) freq / totalWords;
-
-            // 计算IDF（log(总文档数/(包含该词的文档数+1))，避免除零）
-            int docCount = 0;
-            for (List<String> doc : documents) {
-                if (doc.contains(word)) {
-                    docCount++;
-                }
-            }
-            double idf = Math.log((double) totalDocs / (docCount + 1));
-
-            // 计算TF-IDF（核心词权重更高，干扰词权重更低）
-            tfIdfMap.put(word, tf * idf);
+        for (Map.Entry<String, Integer> entry : buildFrequencyMap(words).entrySet()) {
+            double tf = (double) entry.getValue() / totalWords;
+            tfIdfMap.put(entry.getKey(), tf * corpus.idf(entry.getKey()));
         }
         return tfIdfMap;
     }
@@ -174,7 +490,7 @@ public class SimilarityCalculator {
     /**
      * 计算杰卡德相似度（衡量词汇集合重叠度，适配文本长度差异）
      */
-    private double calculateJaccardSimilarity(List<String> words1, List<String> words2) {
+    public double calculateJaccardSimilarity(List<String> words1, List<String> words2) {
         Set<String> set1 = new HashSet<>(words1);
         Set<String> set2 = new HashSet<>(words2);
 
@@ -0,0 +1,218 @@
+package com.plagiarism.checker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 精确阈值相似连接（PPJoin）：找出词语集合杰卡德相似度≥t的所有文档对。
+ *
+ * 词语按全局文档频率升序编号，每篇文档只需用前缀中的低频词探测倒排索引，
+ * 再结合长度过滤和位置过滤剪枝候选，最后精确校验。结果与逐对调用
+ * {@link SimilarityCalculator#calculateJaccardSimilarity} 完全一致。
+ */
+public class SimilarityJoin {
+    // 浮点误差余量：所有过滤条件都向保守方向放宽，保证不漏结果
+    private static final double EPSILON = 1e-9;
+
+    private final double threshold;
+
+    /**
+     * @param threshold 杰卡德相似度阈值，取值 (0, 1]
+     */
+    public SimilarityJoin(double threshold) {
+        if (threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("相似度阈值必须在(0,1]之间: " + threshold);
+        }
+        this.threshold = threshold;
+    }
+
+    /**
+     * 对 TextPreprocessor 输出的词语列表做自连接
+     * @return 满足阈值的文档对（下标a<b），按 (a, b) 排序
+     */
+    public List<Match> join(List<List<String>> documents) {
+        int[][] records = buildRecords(documents);
+
+        // 按集合大小升序处理，长度过滤只需检查索引中较早加入的短记录
+        Integer[] order = new Integer[records.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(records[a].length, records[b].length));
+
+        Map<Integer, PostingList> index = new HashMap<>();
+        int[] overlap = new int[records.length];
+        List<Integer> touched = new ArrayList<>();
+        List<Match> matches = new ArrayList<>();
+
+        for (int x : order) {
+            int[] recordX = records[x];
+            int sizeX = recordX.length;
+            if (sizeX == 0) {
+                continue;
+            }
+            double minSize = threshold * sizeX - EPSILON;
+            int probePrefix = sizeX - requiredOverlap(threshold * sizeX) + 1;
+
+            for (int i = 0; i < probePrefix; i++) {
+                PostingList postings = index.get(recordX[i]);
+                if (postings == null) {
+                    continue;
+                }
+                // 长度过滤：过短的记录以后也不会再匹配（后续记录更长），从表头移除
+                while (postings.start < postings.size && records[postings.records[postings.start]].length < minSize) {
+                    postings.start++;
+                }
+                for (int k = postings.start; k < postings.size; k++) {
+                    int y = postings.records[k];
+                    if (overlap[y] < 0) {
+                        continue; // 已被位置过滤剪枝
+                    }
+                    int j = postings.positions[k];
+                    int sizeY = records[y].length;
+                    int alpha = requiredOverlap(threshold / (1 + threshold) * (sizeX + sizeY));
+                    int upperBound = 1 + Math.min(sizeX - i - 1, sizeY - j - 1);
+                    if (overlap[y] == 0) {
+                        touched.add(y);
+                    }
+                    if (overlap[y] + upperBound >= alpha) {
+                        overlap[y]++;
+                    } else {
+                        overlap[y] = -1;
+                    }
+                }
+            }
+
+            for (int y : touched) {
+                if (overlap[y] > 0) {
+                    double similarity = jaccard(recordX, records[y]);
+                    if (similarity >= threshold) {
+                        matches.add(new Match(Math.min(x, y), Math.max(x, y), similarity));
+                    }
+                }
+                overlap[y] = 0;
+            }
+            touched.clear();
+
+            // 索引前缀比探测前缀短（PPJoin的中间前缀），因为后续记录不短于当前记录
+            int indexPrefix = sizeX - requiredOverlap(2 * threshold / (1 + threshold) * sizeX) + 1;
+            for (int i = 0; i < indexPrefix; i++) {
+                index.computeIfAbsent(recordX[i], k -> new PostingList()).add(x, i);
+            }
+        }
+
+        matches.sort((m1, m2) -> m1.first != m2.first
+                ? Integer.compare(m1.first, m2.first)
+                : Integer.compare(m1.second, m2.second));
+        return matches;
+    }
+
+    /**
+     * 去重并按全局顺序（文档频率升序，再按词语本身）把每篇文档转成有序ID数组
+     */
+    private int[][] buildRecords(List<List<String>> documents) {
+        List<Set<String>> sets = new ArrayList<>(documents.size());
+        Map<String, Integer> frequency = new HashMap<>();
+        for (List<String> words : documents) {
+            Set<String> set = new HashSet<>(words);
+            sets.add(set);
+            for (String word : set) {
+                frequency.merge(word, 1, Integer::sum);
+            }
+        }
+
+        List<String> vocabulary = new ArrayList<>(frequency.keySet());
+        vocabulary.sort((a, b) -> {
+            int byFrequency = Integer.compare(frequency.get(a), frequency.get(b));
+            return byFrequency != 0 ? byFrequency : a.compareTo(b);
+        });
+        Map<String, Integer> rank = new HashMap<>();
+        for (int i = 0; i < vocabulary.size(); i++) {
+            rank.put(vocabulary.get(i), i);
+        }
+
+        int[][] records = new int[sets.size()][];
+        for (int d = 0; d < sets.size(); d++) {
+            int[] record = new int[sets.get(d).size()];
+            int i = 0;
+            for (String word : sets.get(d)) {
+                record[i++] = rank.get(word);
+            }
+            Arrays.sort(record);
+            records[d] = record;
+        }
+        return records;
+    }
+
+    // 满足阈值所需的最小重叠数 ceil(value)，减去余量避免浮点误差导致过严
+    private static int requiredOverlap(double value) {
+        return (int) Math.ceil(value - EPSILON);
+    }
+
+    // 与 SimilarityCalculator.calculateJaccardSimilarity 相同的计算方式
+    private static double jaccard(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        int common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - common;
+        return union == 0 ? 0.0 : (double) common / union;
+    }
+
+    /**
+     * 一个满足阈值的文档对
+     */
+    public static final class Match {
+        private final int first;
+        private final int second;
+        private final double similarity;
+
+        Match(int first, int second, double similarity) {
+            this.first = first;
+            this.second = second;
+            this.similarity = similarity;
+        }
+
+        public int getFirst() { return first; }
+        public int getSecond() { return second; }
+        public double getSimilarity() { return similarity; }
+
+        @Override
+        public String toString() {
+            return first + "-" + second + ":" + similarity;
+        }
+    }
+
+    // 倒排列表：记录下标及该词在记录中的位置，start之前的项已被长度过滤淘汰
+    private static final class PostingList {
+        private int[] records = new int[4];
+        private int[] positions = new int[4];
+        private int size;
+        private int start;
+
+        void add(int record, int position) {
+            if (size == records.length) {
+                records = Arrays.copyOf(records, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            records[size] = record;
+            positions[size] = position;
+            size++;
+        }
+    }
+}
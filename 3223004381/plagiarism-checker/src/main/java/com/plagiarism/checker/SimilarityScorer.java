@@ -0,0 +1,34 @@
+package com.plagiarism.checker;
+
+/**
+ * 相似度打分器：给两篇文档画像打出[0,1]的分数。
+ * 通过 {@link SimilarityCalculator#setScorer} 替换默认的“余弦0.6 + 杰卡德0.4”融合。
+ * 实现必须是无状态或线程安全的，计算器会在多个线程中并发调用。
+ */
+public interface SimilarityScorer {
+
+    /**
+     * @param original    原文画像
+     * @param plagiarized 抄袭版画像
+     */
+    double score(DocumentProfile original, DocumentProfile plagiarized);
+
+    /**
+     * 打分器及其参数的描述，用作缓存指纹的一部分，参数不同时必须不同
+     */
+    String getName();
+
+    /**
+     * 是否支持按堆外向量存储（词频向量）中的共同词统计打分
+     */
+    default boolean supportsStoredVectors() {
+        return false;
+    }
+
+    /**
+     * 按堆外向量存储中两篇文档的共同词统计打分，结果与对应画像的 {@link #score} 一致（只差单精度舍入）
+     */
+    default double score(OffHeapVectorStore.Overlap overlap) {
+        throw new UnsupportedOperationException("打分器不支持堆外向量: " + getName());
+    }
+}
@@ -0,0 +1,95 @@
+package com.plagiarism.checker;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 稀疏向量：按词项ID升序保存的 (ID, 权重) 对，用于TF-IDF等向量计算
+ */
+public final class SparseVector {
+    private final int[] termIds;
+    private final float[] weights;
+    private final double norm;
+
+    /**
+     * @param termIds 词项ID（可无序，构造时按ID排序）
+     * @param weights 与ID一一对应的权重
+     */
+    public SparseVector(int[] termIds, float[] weights) {
+        if (termIds.length != weights.length) {
+            throw new IllegalArgumentException("词项ID与权重数量不一致");
+        }
+        Integer[] order = new Integer[termIds.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(termIds[a], termIds[b]));
+
+        this.termIds = new int[termIds.length];
+        this.weights = new float[weights.length];
+        double sumSquares = 0.0;
+        for (int i = 0; i < order.length; i++) {
+            this.termIds[i] = termIds[order[i]];
+            this.weights[i] = weights[order[i]];
+            if (i > 0 && this.termIds[i] == this.termIds[i - 1]) {
+                throw new IllegalArgumentException("重复的词项ID: " + this.termIds[i]);
+            }
+            sumSquares += (double) this.weights[i] * this.weights[i];
+        }
+        this.norm = Math.sqrt(sumSquares);
+    }
+
+    /**
+     * 由词语列表构建词频向量（TF = 词频/总词数）
+     */
+    public static SparseVector fromTermFrequencies(List<String> words, TermDictionary dictionary) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (String word : words) {
+            counts.merge(dictionary.intern(word), 1, Integer::sum);
+        }
+        int[] ids = new int[counts.size()];
+        float[] values = new float[counts.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            ids[i] = entry.getKey();
+            values[i] = (float) entry.getValue() / words.size();
+            i++;
+        }
+        return new SparseVector(ids, values);
+    }
+
+    public int size() { return termIds.length; }
+    public int termId(int index) { return termIds[index]; }
+    public float weight(int index) { return weights[index]; }
+    public double norm() { return norm; }
+
+    /**
+     * 点积：两个有序ID序列归并
+     */
+    public double dot(SparseVector other) {
+        double sum = 0.0;
+        int i = 0;
+        int j = 0;
+        while (i < termIds.length && j < other.termIds.length) {
+            int a = termIds[i];
+            int b = other.termIds[j];
+            if (a == b) {
+                sum += (double) weights[i++] * other.weights[j++];
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return sum;
+    }
+
+    public double cosine(SparseVector other) {
+        if (norm == 0 || other.norm == 0) {
+            return 0.0;
+        }
+        return dot(other) / (norm * other.norm);
+    }
+}
@@ -0,0 +1,256 @@
+package com.plagiarism.checker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 外存倒排索引构建（SPIMI，单遍内存索引）：
+ * 文档依次加入当前内存块，块的估计大小超过内存预算时把词项排序后写成一个临时块文件；
+ * 全部文档加入后对所有块做 k 路归并，生成可由 {@link DiskIndex} 读取的最终索引。
+ *
+ * 文档ID按加入顺序递增，后写的块中文档ID一定更大，
+ * 因此归并同一词项时按块顺序拼接倒排列表即可保持有序。
+ */
+public class SpimiIndexBuilder {
+    // 内存块中每个新词项的估计开销（HashMap节点、String、Builder对象）
+    private static final int TERM_OVERHEAD_BYTES = 128;
+    // 每条倒排记录的估计开销（变长编码及缓冲区预留）
+    private static final int POSTING_BYTES = 3;
+
+    private final Path workDirectory;
+    private final long memoryBudgetBytes;
+    private final List<Path> blocks = new ArrayList<>();
+    private Map<String, CompressedPostings.Builder> block = new HashMap<>();
+    private long blockBytes;
+    private boolean createdWorkDirectory;
+    private int documentCount;
+    private long postingCount;
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * @param workDirectory     存放临时块文件的目录
+     * @param memoryBudgetBytes 内存块的大小预算（字节，估计值）
+     */
+    public SpimiIndexBuilder(Path workDirectory, long memoryBudgetBytes) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("内存预算必须为正数: " + memoryBudgetBytes);
+        }
+        this.workDirectory = workDirectory;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        resetPeakHeap();
+    }
+
+    /**
+     * 加入一篇文档（TextPreprocessor 预处理后的词语序列）
+     * @return 文档ID
+     */
+    public int addDocument(List<String> words) throws IOException {
+        int docId = documentCount++;
+        for (String word : new HashSet<>(words)) {
+            CompressedPostings.Builder builder = block.get(word);
+            if (builder == null) {
+                builder = new CompressedPostings.Builder();
+                block.put(word, builder);
+                blockBytes += TERM_OVERHEAD_BYTES + 2L * word.length();
+            }
+            builder.add(docId);
+            blockBytes += POSTING_BYTES;
+            postingCount++;
+        }
+        if (blockBytes >= memoryBudgetBytes) {
+            flushBlock();
+        }
+        return docId;
+    }
+
+    public int documentCount() {
+        return documentCount;
+    }
+
+    /**
+     * 写出剩余的内存块并归并所有块，生成最终索引文件，临时块文件随后删除
+     */
+    public BuildStats build(Path indexFile) throws IOException {
+        if (!block.isEmpty() || blocks.isEmpty()) {
+            flushBlock();
+        }
+        Path parent = indexFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        int termCount = 0;
+        List<BlockReader> readers = new ArrayList<>();
+        try (DiskIndex.Writer writer = new DiskIndex.Writer(indexFile, documentCount)) {
+            PriorityQueue<BlockReader> queue = new PriorityQueue<>((a, b) -> {
+                int order = a.term.compareTo(b.term);
+                return order != 0 ? order : Integer.compare(a.blockNumber, b.blockNumber);
+            });
+            for (int i = 0; i < blocks.size(); i++) {
+                BlockReader reader = new BlockReader(blocks.get(i), i);
+                readers.add(reader);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                String term = queue.peek().term;
+                CompressedPostings.Builder merged = new CompressedPostings.Builder();
+                // 同一词项按块顺序出队，文档ID自然递增
+                while (!queue.isEmpty() && queue.peek().term.equals(term)) {
+                    BlockReader reader = queue.poll();
+                    CompressedPostings.Cursor cursor = reader.postings.cursor();
+                    for (int doc = cursor.nextDoc(); doc != CompressedPostings.NO_MORE_DOCS; doc = cursor.nextDoc()) {
+                        merged.add(doc);
+                    }
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    }
+                }
+                writer.write(term, merged.build());
+                termCount++;
+            }
+        } finally {
+            for (BlockReader reader : readers) {
+                reader.close();
+            }
+        }
+
+        for (Path blockFile : blocks) {
+            Files.deleteIfExists(blockFile);
+        }
+        if (createdWorkDirectory) {
+            Files.deleteIfExists(workDirectory);
+        }
+        return new BuildStats(documentCount, termCount, postingCount, blocks.size(),
+                (System.nanoTime() - startNanos) / 1_000_000, peakHeapBytes(), Files.size(indexFile));
+    }
+
+    // 块文件格式：重复 [UTF词项][int 长度][压缩倒排列表]，词项按字典序排列
+    private void flushBlock() throws IOException {
+        if (!Files.isDirectory(workDirectory)) {
+            Files.createDirectories(workDirectory);
+            createdWorkDirectory = true;
+        }
+        Path blockFile = workDirectory.resolve(String.format("spimi-block-%05d.tmp", blocks.size()));
+        List<String> terms = new ArrayList<>(block.keySet());
+        terms.sort(null);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(blockFile), 1 << 16))) {
+            for (String term : terms) {
+                byte[] postings = block.get(term).build().toBytes();
+                out.writeUTF(term);
+                out.writeInt(postings.length);
+                out.write(postings);
+            }
+        }
+        blocks.add(blockFile);
+        block = new HashMap<>();
+        blockBytes = 0;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    // 各堆内存池峰值之和（各池峰值不一定同时出现，是实际峰值的上界）
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static final class BlockReader implements Closeable {
+        private final DataInputStream in;
+        private final int blockNumber;
+        private String term;
+        private CompressedPostings postings;
+
+        BlockReader(Path file, int blockNumber) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+            this.blockNumber = blockNumber;
+        }
+
+        boolean advance() throws IOException {
+            try {
+                term = in.readUTF();
+            } catch (EOFException e) {
+                return false;
+            }
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            postings = CompressedPostings.fromBytes(ByteBuffer.wrap(data));
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * 构建统计：耗时、堆内存峰值、块数等
+     */
+    public static final class BuildStats {
+        private final int documents;
+        private final int terms;
+        private final long postings;
+        private final int blocks;
+        private final long buildMillis;
+        private final long peakHeapBytes;
+        private final long indexBytes;
+
+        BuildStats(int documents, int terms, long postings, int blocks, long buildMillis,
+                   long peakHeapBytes, long indexBytes) {
+            this.documents = documents;
+            this.terms = terms;
+            this.postings = postings;
+            this.blocks = blocks;
+            this.buildMillis = buildMillis;
+            this.peakHeapBytes = peakHeapBytes;
+            this.indexBytes = indexBytes;
+        }
+
+        public int getDocuments() { return documents; }
+        public int getTerms() { return terms; }
+        public long getPostings() { return postings; }
+        public int getBlocks() { return blocks; }
+        public long getBuildMillis() { return buildMillis; }
+        public long getPeakHeapBytes() { return peakHeapBytes; }
+        public long getIndexBytes() { return indexBytes; }
+
+        public String formatReport() {
+            return String.format("文档数: %d, 词项数: %d, 倒排记录数: %d, 临时块数: %d%n"
+                            + "构建耗时: %d ms, 堆内存峰值: %.1f MB, 索引大小: %.1f MB",
+                    documents, terms, postings, blocks, buildMillis,
+                    peakHeapBytes / 1048576.0, indexBytes / 1048576.0);
+        }
+    }
+}
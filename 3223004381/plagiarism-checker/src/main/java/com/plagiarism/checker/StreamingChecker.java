@@ -0,0 +1,146 @@
+package com.plagiarism.checker;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * JSON Lines 流式查重：从输入流逐行读取请求，并发计算，按输入顺序逐行输出结果。
+ *
+ * 请求：{"id": ..., "original": "...", "suspect": "...", "threshold": 0.8}（threshold可选）
+ * 结果：{"id": ..., "similarity": 0.8532}，带threshold时为 {"id": ..., "plagiarized": true}，
+ * 出错时为 {"id": ..., "error": "..."}，单行出错不影响后续请求。
+ *
+ * 读取线程把任务提交到线程池，并把 Future 放入有界队列；队列满时读取线程阻塞，
+ * 不再从输入读取（背压），因此内存中最多只有 2×并行度 个未输出的请求。
+ */
+public class StreamingChecker {
+    private final PlagiarismCheckerService service;
+    private final int parallelism;
+
+    public StreamingChecker(PlagiarismCheckerService service, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("并行度必须大于0: " + parallelism);
+        }
+        this.service = service;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 处理整个输入流，直到输入结束
+     * @return 输出的结果行数
+     */
+    public long run(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        BlockingQueue<Future<String>> window = new ArrayBlockingQueue<>(parallelism * 2);
+        // 输入结束标记；读取失败时携带异常
+        CompletableFuture<String> endOfInput = new CompletableFuture<>();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+
+        Thread readerThread = new Thread(() -> {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    String request = line;
+                    window.put(executor.submit(() -> process(request)));
+                }
+                endOfInput.complete(null);
+            } catch (IOException e) {
+                endOfInput.completeExceptionally(e);
+            } catch (InterruptedException e) {
+                endOfInput.cancel(false);
+                Thread.currentThread().interrupt();
+            }
+            try {
+                window.put(endOfInput);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "jsonl-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        long written = 0;
+        try {
+            while (true) {
+                Future<String> next = window.take();
+                if (next == endOfInput) {
+                    endOfInput.get();
+                    break;
+                }
+                writer.write(next.get());
+                writer.write('\n');
+                written++;
+                // 暂无后续结果时立即刷新，下游不必等缓冲区写满
+                if (window.isEmpty()) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("流式处理被中断", e);
+        } catch (ExecutionException e) {
+            throw new IOException("读取输入失败: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            readerThread.interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    // 处理一行请求，任何错误都转成 error 结果行
+    private String process(String line) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        try {
+            Map<String, Object> request = JsonLines.parseObject(line);
+            response.put("id", request.get("id"));
+            String original = requireText(request, "original");
+            String suspect = requireText(request, "suspect");
+            Object threshold = request.get("threshold");
+            if (threshold == null) {
+                double similarity = service.calculateSimilarity(original, suspect);
+                response.put("similarity", Math.round(similarity * 10000) / 10000.0);
+            } else if (threshold instanceof Number) {
+                double value = ((Number) threshold).doubleValue();
+                if (value < 0 || value > 1) {
+                    throw new IllegalArgumentException("相似度阈值必须在0~1之间: " + value);
+                }
+                response.put("plagiarized", service.isSimilarityAtLeast(original, suspect, value));
+            } else {
+                throw new IllegalArgumentException("threshold 必须是数字");
+            }
+        } catch (RuntimeException e) {
+            response.remove("similarity");
+            response.put("error", e.getMessage() == null ? e.toString() : e.getMessage());
+        }
+        return JsonLines.toJson(response);
+    }
+
+    private static String requireText(Map<String, Object> request, String field) {
+        Object value = request.get(field);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("缺少文本字段: " + field);
+        }
+        return (String) value;
+    }
+}
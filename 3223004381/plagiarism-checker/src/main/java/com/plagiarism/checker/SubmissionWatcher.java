@@ -0,0 +1,267 @@
+package com.plagiarism.checker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 投稿目录监听：基于 WatchService 发现新增或修改的文件，去抖后并行预处理，
+ * 增量追加到语料索引（无需全量重建），并在新文件与已有文档相似度超过阈值时发出告警。
+ */
+public class SubmissionWatcher implements Closeable {
+
+    /**
+     * 相似度告警回调
+     */
+    public interface MatchListener {
+        /**
+         * @param similarity 触发告警的分数（不低于阈值）：默认打分时按语料级IDF（监听目录当前所有文档的
+         *                   文档频率）计算，自定义打分方式下只由两篇文档计算
+         */
+        void onMatch(String newFile, String existingFile, double similarity);
+    }
+
+    private final Path directory;
+    private final FileAccessor fileAccessor;
+    private final TextPreprocessor preprocessor;
+    private final SimilarityCalculator calculator;
+    private final double threshold;
+    private final long debounceMillis;
+    private final MatchListener listener;
+
+    private final CorpusIndex index = new CorpusIndex();
+    private final ScreeningStats screeningStats = new ScreeningStats();
+    // 语料文档频率：导入线程各自无锁计数，告警打分时取最新快照
+    private final DocumentFrequencyAccumulator documentFrequencies = new DocumentFrequencyAccumulator();
+    // 文档ID → 文件名 / 预处理结果；文件名 → 当前版本的文档ID
+    private final Map<Integer, String> names = new HashMap<>();
+    private final Map<Integer, List<String>> tokens = new HashMap<>();
+    private final Map<String, Integer> currentVersion = new HashMap<>();
+
+    private final Map<Path, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService debouncer = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService workers;
+    private WatchService watchService;
+    private Thread watchThread;
+
+    /**
+     * @param threshold      告警阈值（0~1）
+     * @param debounceMillis 同一文件最后一次变更后等待多久再处理，避免处理写了一半的文件
+     * @param threads        预处理线程数
+     */
+    public SubmissionWatcher(Path directory, TextPreprocessor preprocessor, SimilarityCalculator calculator,
+                             double threshold, long debounceMillis, int threads, MatchListener listener) {
+        this.directory = directory;
+        this.fileAccessor = new FileAccessor();
+        this.preprocessor = preprocessor;
+        this.calculator = calculator;
+        this.threshold = threshold;
+        this.debounceMillis = debounceMillis;
+        this.listener = listener;
+        this.workers = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * 先导入目录中已有的文件（不告警），再开始监听
+     */
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        List<Path> existing = fileAccessor.listFiles(directory.toString());
+        List<Future<?>> imports = new ArrayList<>();
+        for (Path path : existing) {
+            imports.add(workers.submit(() -> ingest(path, false)));
+        }
+        for (Future<?> future : imports) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                throw new IOException("导入已有文件失败: " + e.getMessage(), e);
+            }
+        }
+        documentFrequencies.publish();
+
+        watchThread = new Thread(this::watchLoop, "submission-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /**
+     * 当前索引中的有效文档数
+     */
+    public synchronized int documentCount() {
+        return currentVersion.size();
+    }
+
+    /**
+     * 最近一次发布的语料文档频率快照
+     */
+    public DfSnapshot getDocumentFrequencies() {
+        return documentFrequencies.latest();
+    }
+
+    /**
+     * 新文件与候选文档阈值判定的累计统计（提前判定比例等）
+     */
+    public ScreeningStats getScreeningStats() {
+        return screeningStats;
+    }
+
+    private void watchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // 事件丢失时重新扫描整个目录，已处理且未变化的文件会被跳过
+                        for (Path path : fileAccessor.listFiles(directory.toString())) {
+                            schedule(path);
+                        }
+                        continue;
+                    }
+                    schedule(directory.resolve((Path) event.context()));
+                }
+                if (!key.reset()) {
+                    System.err.println("监听目录已不可用: " + directory);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("扫描监听目录失败: " + e.getMessage());
+        }
+    }
+
+    // 去抖：同一文件在等待期内的新事件会推迟处理时间
+    private void schedule(Path path) {
+        pending.compute(path, (p, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            return debouncer.schedule(() -> {
+                pending.remove(p);
+                // 任务异常不会有人取回Future，在任务内记录，避免投稿被静默跳过
+                workers.submit(() -> {
+                    try {
+                        ingest(p, true);
+                    } catch (RuntimeException e) {
+                        System.err.println("处理投稿失败: " + p + ", " + e);
+                    }
+                });
+            }, debounceMillis, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void ingest(Path path, boolean alert) {
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        String name = path.getFileName().toString();
+        List<String> words;
+        try {
+            words = preprocessor.preprocess(fileAccessor.readFile(path.toString()));
+        } catch (IOException e) {
+            System.err.println("读取投稿失败: " + path + ", " + e.getMessage());
+            return;
+        }
+
+        // 索引存放参与打分的词，候选过滤与相似度校验看到的是同一组词
+        List<String> scoredWords = calculator.filterScoredWords(words);
+
+        // 加锁只做索引追加和候选收集，相似度校验在锁外并行进行
+        int docId;
+        List<String> replaced = null;
+        List<Integer> candidates = new ArrayList<>();
+        synchronized (this) {
+            Integer previous = currentVersion.get(name);
+            if (previous != null) {
+                if (tokens.get(previous).equals(words)) {
+                    return; // 内容未变化（例如重复的修改事件）
+                }
+                index.removeDocument(previous);
+                replaced = tokens.remove(previous);
+                names.remove(previous);
+            }
+            if (alert && !scoredWords.isEmpty()) {
+                // 重叠计数过滤：共享词数达不到阈值下界的文档不可能超过阈值
+                int minShared = calculator.minimumSharedTerms(new HashSet<>(scoredWords).size(), threshold);
+                CompressedPostings.Cursor cursor = index.documentsSharingAtLeast(scoredWords, minShared).cursor();
+                for (int doc = cursor.nextDoc(); doc != CompressedPostings.NO_MORE_DOCS; doc = cursor.nextDoc()) {
+                    candidates.add(doc);
+                }
+            }
+            docId = index.addDocument(scoredWords);
+            names.put(docId, name);
+            tokens.put(docId, words);
+            currentVersion.put(name, docId);
+        }
+
+        // 文档频率在锁外统计，导入线程之间不竞争
+        if (replaced != null) {
+            documentFrequencies.removeDocument(replaced);
+        }
+        documentFrequencies.addDocument(words);
+        if (!alert) {
+            return; // 导入已有文件时由 start() 统一发布快照
+        }
+        DfSnapshot corpus = documentFrequencies.publish();
+
+        for (int candidate : candidates) {
+            String existingName;
+            List<String> existingWords;
+            synchronized (this) {
+                existingName = names.get(candidate);
+                existingWords = tokens.get(candidate);
+            }
+            if (existingWords == null) {
+                continue; // 校验期间已被新版本替换
+            }
+            // 判定和告警使用同一个分数：默认打分用语料级IDF，自定义打分方式用两篇文档自身
+            if (calculator.isDefaultScoring()) {
+                if (calculator.isSimilarityAtLeast(words, existingWords, threshold, corpus, screeningStats)) {
+                    listener.onMatch(name, existingName, calculator.calculateSimilarity(words, existingWords, corpus));
+                }
+            } else if (calculator.isSimilarityAtLeast(words, existingWords, threshold, screeningStats)) {
+                listener.onMatch(name, existingName, calculator.calculateSimilarity(words, existingWords));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+        debouncer.shutdownNow();
+        workers.shutdown();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.plagiarism.checker;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 合成查重语料生成器：由少量种子文本生成大规模语料，用于压测、基准测试和LSH召回率检查。
+ *
+ * 先从种子文本的句子池中随机拼出若干“原文”，再对每篇原文施加可控的变异
+ * （同义词替换、句子重排、插入、删除、标点噪声）得到“抄袭版”，并记录真实相似度。
+ * 相同的随机种子总是生成完全相同的语料。
+ *
+ * 真实相似度 = 保留下来的原文字符数 / (原文字符数 + 插入的字符数)，
+ * 同义词替换和标点噪声视为保留（预处理会把它们还原）。
+ */
+public class SyntheticCorpusGenerator {
+    private static final String SENTENCE_ENDINGS = "。！？!?";
+    private static final String NOISE_CHARACTERS = "、；：“”‘’（）《》【】…—·~#*&^%$@ ";
+
+    private final Map<String, List<String>> synonymGroups = new HashMap<>();
+    private final List<String> synonymWords = new ArrayList<>();
+    private final MutationRates rates;
+    private final Random random;
+
+    /**
+     * @param synonyms 同义词映射（同义词 → 标准词），与 synonyms.txt 相同
+     * @param rates    各类变异的概率
+     * @param seed     随机种子
+     */
+    public SyntheticCorpusGenerator(Map<String, String> synonyms, MutationRates rates, long seed) {
+        this.rates = rates;
+        this.random = new Random(seed);
+        // 同一标准词下的所有词互为同义词
+        Map<String, List<String>> byStandard = new HashMap<>();
+        for (Map.Entry<String, String> entry : synonyms.entrySet()) {
+            List<String> group = byStandard.computeIfAbsent(entry.getValue(), k -> new ArrayList<>());
+            group.add(entry.getKey());
+            if (!group.contains(entry.getValue())) {
+                group.add(entry.getValue());
+            }
+        }
+        for (List<String> group : byStandard.values()) {
+            Collections.sort(group); // 保证遍历顺序与HashMap无关，结果可复现
+            for (String word : group) {
+                synonymGroups.put(word, group);
+            }
+        }
+        synonymWords.addAll(synonymGroups.keySet());
+        // 长词优先匹配
+        synonymWords.sort((a, b) -> a.length() != b.length() ? b.length() - a.length() : a.compareTo(b));
+    }
+
+    /**
+     * 生成语料
+     * @param seedTexts         种子文本
+     * @param originals         原文篇数
+     * @param sentencesPerDoc   每篇原文的句子数
+     * @param copiesPerOriginal 每篇原文派生的抄袭版篇数
+     */
+    public Corpus generate(List<String> seedTexts, int originals, int sentencesPerDoc, int copiesPerOriginal) {
+        List<String> pool = new ArrayList<>();
+        for (String text : seedTexts) {
+            pool.addAll(splitSentences(text));
+        }
+        if (pool.isEmpty()) {
+            throw new IllegalArgumentException("种子文本中没有可用的句子");
+        }
+
+        Corpus corpus = new Corpus();
+        for (int o = 0; o < originals; o++) {
+            List<String> sentences = new ArrayList<>();
+            for (int s = 0; s < sentencesPerDoc; s++) {
+                sentences.add(pool.get(random.nextInt(pool.size())));
+            }
+            String originalName = String.format("orig_%06d.txt", o);
+            corpus.documents.put(originalName, String.join("", sentences));
+
+            for (int c = 0; c < copiesPerOriginal; c++) {
+                String copyName = String.format("copy_%06d_%03d.txt", o, c);
+                Mutation mutation = mutate(sentences, pool);
+                corpus.documents.put(copyName, mutation.text);
+                corpus.groundTruth.add(new GroundTruth(copyName, originalName, mutation.similarity()));
+            }
+        }
+        return corpus;
+    }
+
+    private Mutation mutate(List<String> sentences, List<String> pool) {
+        List<String> result = new ArrayList<>();
+        long sourceChars = 0;
+        long keptChars = 0;
+        long insertedChars = 0;
+
+        for (String sentence : sentences) {
+            sourceChars += sentence.length();
+            if (random.nextDouble() < rates.insertion) {
+                String inserted = pool.get(random.nextInt(pool.size()));
+                result.add(inserted);
+                insertedChars += inserted.length();
+            }
+            if (random.nextDouble() < rates.deletion) {
+                continue;
+            }
+            keptChars += sentence.length();
+            result.add(addPunctuationNoise(substituteSynonyms(sentence)));
+        }
+
+        if (random.nextDouble() < rates.reorder) {
+            Collections.shuffle(result, random);
+        }
+        return new Mutation(String.join("", result), sourceChars, keptChars, insertedChars);
+    }
+
+    private String substituteSynonyms(String sentence) {
+        if (rates.synonym <= 0) {
+            return sentence;
+        }
+        StringBuilder out = new StringBuilder(sentence.length());
+        int i = 0;
+        outer:
+        while (i < sentence.length()) {
+            for (String word : synonymWords) {
+                if (sentence.startsWith(word, i)) {
+                    List<String> group = synonymGroups.get(word);
+                    out.append(random.nextDouble() < rates.synonym
+                            ? group.get(random.nextInt(group.size())) : word);
+                    i += word.length();
+                    continue outer;
+                }
+            }
+            out.append(sentence.charAt(i++));
+        }
+        return out.toString();
+    }
+
+    private String addPunctuationNoise(String sentence) {
+        if (rates.punctuation <= 0) {
+            return sentence;
+        }
+        StringBuilder out = new StringBuilder(sentence.length() + 4);
+        for (int i = 0; i < sentence.length(); i++) {
+            if (random.nextDouble() < rates.punctuation) {
+                out.append(NOISE_CHARACTERS.charAt(random.nextInt(NOISE_CHARACTERS.length())));
+            }
+            out.append(sentence.charAt(i));
+        }
+        return out.toString();
+    }
+
+    /**
+     * 按句末标点切分句子，句末标点保留在句子中
+     */
+    static List<String> splitSentences(String text) {
+        List<String> sentences = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\r' || c == '\n') {
+                continue;
+            }
+            current.append(c);
+            if (SENTENCE_ENDINGS.indexOf(c) >= 0) {
+                addSentence(sentences, current);
+            }
+        }
+        addSentence(sentences, current);
+        return sentences;
+    }
+
+    private static void addSentence(List<String> sentences, StringBuilder current) {
+        String sentence = current.toString().trim();
+        if (!sentence.isEmpty()) {
+            sentences.add(sentence);
+        }
+        current.setLength(0);
+    }
+
+    /**
+     * 各类变异的概率：同义词按每个可替换词计，重排按整篇计，插入、删除按每句计，标点噪声按每个字符计
+     */
+    public static class MutationRates {
+        private final double synonym;
+        private final double reorder;
+        private final double insertion;
+        private final double deletion;
+        private final double punctuation;
+
+        public MutationRates(double synonym, double reorder, double insertion, double deletion, double punctuation) {
+            this.synonym = synonym;
+            this.reorder = reorder;
+            this.insertion = insertion;
+            this.deletion = deletion;
+            this.punctuation = punctuation;
+        }
+    }
+
+    private static final class Mutation {
+        private final String text;
+        private final long sourceChars;
+        private final long keptChars;
+        private final long insertedChars;
+
+        Mutation(String text, long sourceChars, long keptChars, long insertedChars) {
+            this.text = text;
+            this.sourceChars = sourceChars;
+            this.keptChars = keptChars;
+            this.insertedChars = insertedChars;
+        }
+
+        double similarity() {
+            long total = sourceChars + insertedChars;
+            return total == 0 ? 0.0 : (double) keptChars / total;
+        }
+    }
+
+    /**
+     * 一篇抄袭版文档的真实相似度
+     */
+    public static final class GroundTruth {
+        private final String document;
+        private final String source;
+        private final double similarity;
+
+        GroundTruth(String document, String source, double similarity) {
+            this.document = document;
+            this.source = source;
+            this.similarity = similarity;
+        }
+
+        public String getDocument() { return document; }
+        public String getSource() { return source; }
+        public double getSimilarity() { return similarity; }
+    }
+
+    /**
+     * 生成的语料：文档名 → 文本（按生成顺序），以及每篇抄袭版的真实相似度
+     */
+    public static final class Corpus {
+        private final Map<String, String> documents = new LinkedHashMap<>();
+        private final List<GroundTruth> groundTruth = new ArrayList<>();
+
+        public Map<String, String> getDocuments() { return Collections.unmodifiableMap(documents); }
+        public List<GroundTruth> getGroundTruth() { return Collections.unmodifiableList(groundTruth); }
+
+        /**
+         * 写入目录：文档写入 docs 子目录（每篇一个文件），真实相似度写入 ground_truth.tsv
+         */
+        public void writeTo(String directory, FileAccessor fileAccessor) throws IOException {
+            for (Map.Entry<String, String> entry : documents.entrySet()) {
+                fileAccessor.writeFile(Paths.get(directory, "docs", entry.getKey()).toString(), entry.getValue());
+            }
+            StringBuilder tsv = new StringBuilder("document\tsource\tsimilarity");
+            for (GroundTruth truth : groundTruth) {
+                tsv.append(System.lineSeparator()).append(truth.document).append('\t')
+                        .append(truth.source).append('\t').append(String.format(Locale.ROOT, "%.4f", truth.similarity));
+            }
+            fileAccessor.writeFile(Paths.get(directory, "ground_truth.tsv").toString(), tsv.toString());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.plagiarism.checker;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 词项字典：把词语映射为连续的整数ID，供向量存储、索引等模块共享
+ */
+public class TermDictionary {
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> terms = new ArrayList<>();
+
+    /**
+     * 获取词语的ID，不存在时分配新ID（线程安全）
+     * @param term 词语
+     * @return 词语ID
+     */
+    public int intern(String term) {
+        Integer id = ids.get(term);
+        if (id != null) {
+            return id;
+        }
+        synchronized (terms) {
+            id = ids.get(term);
+            if (id == null) {
+                id = terms.size();
+                terms.add(term);
+                ids.put(term, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * 查询词语ID，不分配新ID
+     * @return 词语ID，不存在时返回-1
+     */
+    public int lookup(String term) {
+        Integer id = ids.get(term);
+        return id == null ? -1 : id;
+    }
+
+    public String term(int id) {
+        synchronized (terms) {
+            return terms.get(id);
+        }
+    }
+
+    public int size() {
+        synchronized (terms) {
+            return terms.size();
+        }
+    }
+
+    /**
+     * 持久化字典：每行一个词语，行号即ID
+     */
+    public void save(Path path) throws IOException {
+        List<String> snapshot;
+        synchronized (terms) {
+            snapshot = new ArrayList<>(terms);
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.write(path, snapshot, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 从文件恢复字典（与save格式对应）
+     */
+    public static TermDictionary load(Path path) throws IOException {
+        TermDictionary dictionary = new TermDictionary();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            dictionary.intern(line);
+        }
+        return dictionary;
+    }
+}
@@ -3,53 +3,227 @@ package com.plagiarism.checker;
 import com.hankcs.hanlp.HanLP;
 import com.hankcs.hanlp.seg.common.Term;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
 
 public class TextPreprocessor {
-    private Set<String> stopwords;
-    private Map<String, String> synonyms;
 
-    // 清洗规则：只保留中英文、数字，移除所有标点和特殊字符
-    private static final String NOISE_PATTERN = "[^a-zA-Z0-9\u4e00-\u9fa5，。,;！!？?]";
+    /**
+     * 预处理模式
+     */
+    public enum Mode {
+        SEGMENTED,  // 中文HanLP分词、英文切词与词干提取 + 停用词 + 同义词（默认）
+        CHAR_NGRAM  // 字符二元组、三元组，不依赖词典，用于大批量快速筛查
+    }
+
+    // 配置来源：每次预处理开始时取一次快照，热加载替换后下一次请求即生效
+    private final Supplier<ConfigSnapshot> config;
+    private final Mode mode;
+
+    // 中文片段按句切分后交给HanLP的最大长度，分段之间检查线程中断
+    static final int SEGMENT_CHARS = 2000;
+
+    // 英文停用词（内置，不随配置热加载）
+    static final String ENGLISH_STOPWORDS_RESOURCE = "stopwords_en.txt";
+    private static final Set<String> ENGLISH_STOPWORDS = loadEnglishStopwords();
 
     public TextPreprocessor(Set<String> stopwords, Map<String, String> synonyms) {
-        this.stopwords = new HashSet<>(stopwords); // 防御性复制
-        this.synonyms = new HashMap<>(synonyms);   // 防御性复制
+        this(stopwords, synonyms, Mode.SEGMENTED);
+    }
+
+    public TextPreprocessor(Set<String> stopwords, Map<String, String> synonyms, Mode mode) {
+        this(fixedConfig(new ConfigSnapshot(stopwords, synonyms)), mode); // 快照内部做防御性复制
+    }
+
+    /**
+     * 使用可热加载的配置，如 {@code configLoader::currentSnapshot}
+     */
+    public TextPreprocessor(Supplier<ConfigSnapshot> config, Mode mode) {
+        this.config = config;
+        this.mode = mode;
+    }
+
+    private static Supplier<ConfigSnapshot> fixedConfig(ConfigSnapshot snapshot) {
+        return () -> snapshot;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 当前配置与预处理模式的指纹，配置热加载后随之变化
+     */
+    public String getConfigFingerprint() {
+        return getConfigFingerprint(config.get());
     }
 
+    /**
+     * 指定配置快照与预处理模式的指纹，与 {@link #preprocess(String, ConfigSnapshot)} 配合使用
+     */
+    public String getConfigFingerprint(ConfigSnapshot snapshot) {
+        return mode + ":" + snapshot.getFingerprint();
+    }
+
+    /**
+     * 当前配置快照；一次请求内的多次预处理和缓存指纹应使用同一个快照，避免中途热加载造成前后不一致
+     */
+    public ConfigSnapshot currentConfig() {
+        return config.get();
+    }
+
+    /**
+     * 预处理文本。调用线程被中断时在下一个分段处抛出 {@link CancellationException}，
+     * 被取消的限时任务不会一直占用线程
+     */
     public List<String> preprocess(String text) {
+        return preprocess(text, config.get());
+    }
+
+    /**
+     * 使用指定的配置快照预处理文本
+     */
+    public List<String> preprocess(String text, ConfigSnapshot snapshot) {
         if (text == null || text.trim().isEmpty()) {
             return Collections.emptyList();
         }
 
-        // 1. 文本清洗：移除所有非文本字符，统一转为小写
-        String cleanedText = text.replaceAll(NOISE_PATTERN, " ")
-                .toLowerCase()
-                .replaceAll("\\s+", " ") // 合并连续空格
-                .trim();
+        // 1. 文本清洗：繁转简、全角转半角、统一小写，移除所有非文本字符并合并空格（单次查表）
+        String cleanedText = CharFolder.fold(text);
 
         if (cleanedText.isEmpty()) {
             return Collections.emptyList();
         }
 
-        // 2. HanLP分词
-        List<Term> terms = HanLP.segment(cleanedText);
+        if (mode == Mode.CHAR_NGRAM) {
+            return Collections.unmodifiableList(charNgrams(cleanedText));
+        }
+
+        Set<String> stopwords = snapshot.getStopwords();
+        Map<String, String> synonyms = snapshot.getSynonyms();
+        List<String> words = new ArrayList<>();
 
-        // 3. 处理流程：过滤空字符串→停用词→同义词替换
-        return terms.stream()
-                .map(term -> term.word.trim())
-                .filter(word -> !word.isEmpty())          // 过滤空字符串
-                .filter(word -> !stopwords.contains(word)) // 过滤停用词
-                .map(this::replaceSynonym)                // 替换同义词
-                .collect(Collectors.collectingAndThen(
-                        Collectors.toList(),
-                        Collections::unmodifiableList
-                ));
+        // 2. 按文字种类切分片段：英文片段直接切词，只有中文片段交给HanLP分词
+        int runStart = 0;
+        boolean runLatin = false;
+        boolean runHasContent = false;
+        for (int i = 0; i < cleanedText.length(); i++) {
+            char c = cleanedText.charAt(i);
+            boolean latin = isLatin(c);
+            if (!latin && !isCjk(c)) {
+                continue; // 空格和标点归入当前片段
+            }
+            if (runHasContent && latin != runLatin) {
+                addRun(cleanedText.substring(runStart, i), runLatin, stopwords, synonyms, words);
+                runStart = i;
+            }
+            runLatin = latin;
+            runHasContent = true;
+        }
+        addRun(cleanedText.substring(runStart), runLatin, stopwords, synonyms, words);
+        return Collections.unmodifiableList(words);
     }
 
-    // 确保同义词双向替换
-    private String replaceSynonym(String word) {
-        return synonyms.getOrDefault(word, word);
+    private static void addRun(String run, boolean latin, Set<String> stopwords, Map<String, String> synonyms,
+                               List<String> words) {
+        if (latin) {
+            addLatinWords(run, stopwords, synonyms, words);
+            return;
+        }
+        // 3. 处理流程：过滤空字符串→停用词→同义词替换；长片段在句末切开分段处理
+        for (int start = 0; start < run.length(); ) {
+            int end = segmentEnd(run, start);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("预处理已取消");
+            }
+            for (Term term : HanLP.segment(run.substring(start, end))) {
+                String word = term.word.trim();
+                if (!word.isEmpty() && !stopwords.contains(word)) {
+                    words.add(synonyms.getOrDefault(word, word));
+                }
+            }
+            start = end;
+        }
     }
-}
\ No newline at end of file
+
+    // 从 start 起不超过 SEGMENT_CHARS 的分段终点：优先取最后一个句末标点之后，没有句末标点时直接截断
+    private static int segmentEnd(String run, int start) {
+        if (run.length() - start <= SEGMENT_CHARS) {
+            return run.length();
+        }
+        int limit = start + SEGMENT_CHARS;
+        for (int i = limit - 1; i > start; i--) {
+            char c = run.charAt(i);
+            if (c == '。' || c == '！' || c == '？' || c == '!' || c == '?') {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * 英文片段：按空格和标点切出单词，过滤英文停用词和配置的停用词，替换同义词后提取词干，
+     * 使 copying / copied 等词形变化得到相同的词语
+     */
+    private static void addLatinWords(String run, Set<String> stopwords, Map<String, String> synonyms,
+                                      List<String> words) {
+        int wordStart = -1;
+        for (int i = 0; i <= run.length(); i++) {
+            boolean content = i < run.length() && isLatin(run.charAt(i));
+            if (content && wordStart < 0) {
+                wordStart = i;
+            } else if (!content && wordStart >= 0) {
+                String word = run.substring(wordStart, i);
+                if (!ENGLISH_STOPWORDS.contains(word) && !stopwords.contains(word)) {
+                    words.add(PorterStemmer.stem(synonyms.getOrDefault(word, word)));
+                }
+                wordStart = -1;
+            }
+        }
+    }
+
+    // 清洗后的文本只含小写字母、数字、汉字、少量标点和空格
+    private static boolean isLatin(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isCjk(char c) {
+        return c >= '\u4e00' && c <= '\u9fa5';
+    }
+
+    private static Set<String> loadEnglishStopwords() {
+        try {
+            return new HashSet<>(new FileAccessor().readAllLinesFromClasspath(ENGLISH_STOPWORDS_RESOURCE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("加载英文停用词失败: " + ENGLISH_STOPWORDS_RESOURCE, e);
+        }
+    }
+
+    /**
+     * 免分词模式：在连续的文字片段（以空格和标点分隔）内生成字符二元组和三元组，
+     * 直接作为词语交给后续相同的打分流程，不查词典、不做停用词和同义词处理
+     */
+    private List<String> charNgrams(String cleanedText) {
+        List<String> grams = new ArrayList<>(cleanedText.length() * 2);
+        int runStart = -1;
+        for (int i = 0; i <= cleanedText.length(); i++) {
+            boolean content = i < cleanedText.length() && Character.isLetterOrDigit(cleanedText.charAt(i));
+            if (content && runStart < 0) {
+                runStart = i;
+            } else if (!content && runStart >= 0) {
+                for (int start = runStart; start + 2 <= i; start++) {
+                    grams.add(cleanedText.substring(start, start + 2));
+                    if (start + 3 <= i) {
+                        grams.add(cleanedText.substring(start, start + 3));
+                    }
+                }
+                runStart = -1;
+            }
+        }
+        return grams;
+    }
+
+}
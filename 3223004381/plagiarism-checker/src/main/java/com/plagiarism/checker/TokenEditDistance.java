@@ -0,0 +1,161 @@
+package com.plagiarism.checker;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 词语级编辑距离（插入、删除、替换一个词各计1），用于短答案的近似改写检测。
+ * <ul>
+ *     <li>Myers/Hyyrö 位并行算法：较短序列作为模式，每64个词占一个 long，复杂度 O(⌈m/64⌉·n)</li>
+ *     <li>模式的匹配位表（⌈m/64⌉ × 词表大小）过大时，改用带状动态规划，
+ *     带宽从两序列长度差开始倍增，距离较小（近似改写）时接近线性</li>
+ * </ul>
+ */
+public final class TokenEditDistance {
+    // 位并行匹配位表的最大 long 个数（8MB），超过时改用带状动态规划
+    static final int MAX_PEQ_WORDS = 1 << 20;
+    private static final int INF = Integer.MAX_VALUE / 2;
+
+    private TokenEditDistance() {
+    }
+
+    /**
+     * 两个词语序列的编辑距离
+     */
+    public static int distance(List<String> words1, List<String> words2) {
+        Map<String, Integer> ids = new HashMap<>();
+        int[] a = NGramSimilarity.intern(words1, ids);
+        int[] b = NGramSimilarity.intern(words2, ids);
+        return distance(a, b, ids.size() + 1);
+    }
+
+    /**
+     * 编辑相似度：1 - 编辑距离 / 较长序列的长度，两者都为空时为1
+     */
+    public static double similarity(List<String> words1, List<String> words2) {
+        int longer = Math.max(words1.size(), words2.size());
+        return longer == 0 ? 1.0 : 1.0 - (double) distance(words1, words2) / longer;
+    }
+
+    /**
+     * @param alphabetSize 词语ID的上界（不含）
+     */
+    static int distance(int[] a, int[] b, int alphabetSize) {
+        int[] pattern = a.length <= b.length ? a : b;
+        int[] text = pattern == a ? b : a;
+        if (pattern.length == 0) {
+            return text.length;
+        }
+        long blocks = (pattern.length + 63) / 64;
+        if (blocks * alphabetSize <= MAX_PEQ_WORDS) {
+            return bitParallel(pattern, text, alphabetSize);
+        }
+        return banded(a, b);
+    }
+
+    /**
+     * Myers/Hyyrö 位并行编辑距离（多字块版本）：按列推进，块之间传递水平差值进位，
+     * 并跟踪模式最后一行的分数
+     */
+    static int bitParallel(int[] pattern, int[] text, int alphabetSize) {
+        int m = pattern.length;
+        int blocks = (m + 63) / 64;
+        // peq[id * blocks + b]：模式中第 b 块里等于该词的位置
+        long[] peq = new long[alphabetSize * blocks];
+        for (int i = 0; i < m; i++) {
+            peq[pattern[i] * blocks + (i >>> 6)] |= 1L << (i & 63);
+        }
+        long[] pv = new long[blocks];
+        long[] mv = new long[blocks];
+        Arrays.fill(pv, -1L);
+        long lastBit = 1L << ((m - 1) & 63);
+
+        int score = m;
+        for (int symbol : text) {
+            int base = symbol * blocks;
+            // 第0行 D[0][j] = j，进入第一块的水平差值恒为+1
+            int carry = 1;
+            for (int b = 0; b < blocks; b++) {
+                long highBit = b == blocks - 1 ? lastBit : Long.MIN_VALUE;
+                long eq = peq[base + b];
+                long p = pv[b];
+                long n = mv[b];
+
+                long xv = eq | n;
+                if (carry < 0) {
+                    eq |= 1L;
+                }
+                long xh = (((eq & p) + p) ^ p) | eq;
+                long ph = n | ~(xh | p);
+                long mh = p & xh;
+
+                int out = (ph & highBit) != 0 ? 1 : (mh & highBit) != 0 ? -1 : 0;
+                ph <<= 1;
+                mh <<= 1;
+                if (carry < 0) {
+                    mh |= 1L;
+                } else if (carry > 0) {
+                    ph |= 1L;
+                }
+                pv[b] = mh | ~(xv | ph);
+                mv[b] = ph & xv;
+                carry = out;
+            }
+            score += carry;
+        }
+        return score;
+    }
+
+    /**
+     * 带状动态规划：只计算 |i - j| ≤ k 的单元格，结果不超过 k 时即为精确距离，否则带宽加倍重算
+     */
+    static int banded(int[] a, int[] b) {
+        int m = a.length;
+        int n = b.length;
+        int limit = Math.max(m, n);
+        int k = Math.max(Math.abs(m - n), 16);
+        while (true) {
+            int d = bandedWithin(a, b, Math.min(k, limit));
+            if (d <= k || k >= limit) {
+                return d;
+            }
+            k *= 2;
+        }
+    }
+
+    private static int bandedWithin(int[] a, int[] b, int k) {
+        int m = a.length;
+        int n = b.length;
+        int[] prev = new int[n + 2];
+        int[] cur = new int[n + 2];
+        for (int j = 0; j <= n; j++) {
+            prev[j] = j <= k ? j : INF;
+        }
+        prev[Math.min(n, k) + 1] = INF;
+        for (int i = 1; i <= m; i++) {
+            int lo = Math.max(1, i - k);
+            int hi = Math.min(n, i + k);
+            cur[lo - 1] = lo == 1 && i <= k ? i : INF;
+            int symbol = a[i - 1];
+            for (int j = lo; j <= hi; j++) {
+                int value = prev[j - 1] + (symbol == b[j - 1] ? 0 : 1);
+                int up = prev[j] + 1;
+                if (up < value) {
+                    value = up;
+                }
+                int left = cur[j - 1] + 1;
+                if (left < value) {
+                    value = left;
+                }
+                cur[j] = value;
+            }
+            cur[hi + 1] = INF;
+            int[] swap = prev;
+            prev = cur;
+            cur = swap;
+        }
+        return Math.min(prev[n], INF);
+    }
+}
@@ -0,0 +1,55 @@
+package com.plagiarism.checker;
+
+/**
+ * 并查集：路径压缩 + 按规模合并，用于把相似文档对合并成簇
+ */
+public class UnionFind {
+    private final int[] parent;
+    private final int[] size;
+
+    public UnionFind(int n) {
+        parent = new int[n];
+        size = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+    }
+
+    public int find(int x) {
+        int root = x;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[x] != root) {
+            int next = parent[x];
+            parent[x] = root;
+            x = next;
+        }
+        return root;
+    }
+
+    /**
+     * 合并两个元素所在的集合
+     * @return 原本不在同一集合时返回true
+     */
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (size[rootA] < size[rootB]) {
+            int tmp = rootA;
+            rootA = rootB;
+            rootB = tmp;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        return true;
+    }
+
+    public int sizeOf(int x) {
+        return size[find(x)];
+    }
+}
@@ -0,0 +1,787 @@
+package com.plagiarism.checker;
+
+import com.hankcs.hanlp.HanLP;
+import com.hankcs.hanlp.seg.common.Term;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 性能基准：不在单元测试中运行，需手动执行
+ * 用法: java -cp target/classes:target/test-classes:<依赖> com.plagiarism.checker.PerformanceBenchmark [基准名...]
+ */
+public class PerformanceBenchmark {
+
+    // PlagiarismCheckerTest 中使用的文本对
+    static final String[][] FIXTURE_PAIRS = {
+            {"今天是星期天，天气晴，今天晚上我要去看电影。", "今天是星期天，天气晴，今天晚上我要去看电影。"},
+            {"今天是星期天，天气晴，今天晚上我要去看电影。", "今天是周天，天气晴朗，我晚上要去看电影。"},
+            {"计算机科学是一门研究计算理论和实践的学科。", "猫是一种常见的家庭宠物，喜欢吃鱼和老鼠。"},
+            {"苹果是一种水果，味道很甜。", "苹果是一种水果，颜色有红色和绿色。"},
+            {"Java是一种广泛使用的编程语言，由Sun Microsystems开发，后来被Oracle收购。"
+                    + "Java的特点是跨平台性，通过JVM实现一次编写，到处运行。它是一种面向对象的语言，"
+                    + "具有垃圾回收机制，提高了开发效率。",
+                    "Java编程语言由Sun公司开发，现在属于Oracle。它支持跨平台运行，这是通过JVM实现的。"
+                    + "C++也是一种面向对象的语言，但没有自动垃圾回收功能。"},
+            {"Hello, world! This is a test.", "Hello world. This is a test!"},
+            {"Java Python C++", "java python c++"},
+            {"今天是星期天，天气晴。", "今天是周天，天气晴朗。"},
+            {"这是一个测试，的是在有和就不人都一。", "这是测试。"},
+    };
+
+    public static void main(String[] args) throws Exception {
+        List<String> selected = Arrays.asList(args);
+        if (selected.isEmpty() || selected.contains("postings")) {
+            benchmarkPostings();
+        }
+        if (selected.isEmpty() || selected.contains("join")) {
+            benchmarkSimilarityJoin();
+        }
+        if (selected.isEmpty() || selected.contains("ngram")) {
+            benchmarkCharNgramMode();
+        }
+        if (selected.isEmpty() || selected.contains("arena")) {
+            benchmarkCompactDocuments();
+        }
+        if (selected.isEmpty() || selected.contains("df")) {
+            benchmarkDocumentFrequency();
+        }
+        if (selected.isEmpty() || selected.contains("order")) {
+            benchmarkOrderAwareScore();
+        }
+        if (selected.isEmpty() || selected.contains("edit")) {
+            benchmarkEditDistance();
+        }
+        if (selected.isEmpty() || selected.contains("gst")) {
+            benchmarkGreedyStringTiling();
+        }
+        if (selected.isEmpty() || selected.contains("scorer")) {
+            benchmarkScorers();
+        }
+        if (selected.isEmpty() || selected.contains("matrix")) {
+            benchmarkCosineMatrix();
+        }
+        if (selected.isEmpty() || selected.contains("fold")) {
+            benchmarkCharFolding();
+        }
+        if (selected.isEmpty() || selected.contains("english")) {
+            benchmarkEnglishFastPath();
+        }
+        if (selected.isEmpty() || selected.contains("screening")) {
+            benchmarkThresholdScreening();
+        }
+    }
+
+    /**
+     * 压缩倒排列表与 int[] 的索引大小、求交吞吐对比
+     */
+    static void benchmarkPostings() {
+        int docCount = 200_000;
+        int termCount = 2_000;
+        Random random = new Random(42);
+
+        // 按Zipf分布生成词项文档频率：少数高频词稠密，大量低频词稀疏
+        List<int[]> plain = new ArrayList<>();
+        List<CompressedPostings> compressed = new ArrayList<>();
+        long plainBytes = 0;
+        long compressedBytes = 0;
+        for (int term = 1; term <= termCount; term++) {
+            double probability = Math.min(0.5, 1.0 / term);
+            CompressedPostings.Builder builder = new CompressedPostings.Builder();
+            int[] docs = new int[docCount];
+            int n = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                if (random.nextDouble() < probability) {
+                    docs[n++] = doc;
+                    builder.add(doc);
+                }
+            }
+            int[] list = Arrays.copyOf(docs, n);
+            plain.add(list);
+            plainBytes += list.length * 4L;
+            CompressedPostings postings = builder.build();
+            compressed.add(postings);
+            compressedBytes += postings.sizeInBytes();
+        }
+        System.out.printf("[postings] int[] 索引: %.2f MB, 压缩索引: %.2f MB, 压缩比 %.2fx%n",
+                plainBytes / 1048576.0, compressedBytes / 1048576.0, (double) plainBytes / compressedBytes);
+
+        int queries = 20_000;
+        int[][] pairs = new int[queries][2];
+        for (int i = 0; i < queries; i++) {
+            pairs[i][0] = random.nextInt(50);
+            pairs[i][1] = random.nextInt(termCount);
+        }
+
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int[] pair : pairs) {
+            checksum += intersectPlain(plain.get(pair[0]), plain.get(pair[1]));
+        }
+        double plainSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        for (int[] pair : pairs) {
+            checksum -= CompressedPostings.intersect(compressed.get(pair[0]), compressed.get(pair[1])).size();
+        }
+        double compressedSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("[postings] 求交吞吐 int[]: %.0f 次/秒, 压缩: %.0f 次/秒 (校验 %d)%n",
+                queries / plainSeconds, queries / compressedSeconds, checksum);
+    }
+
+    /**
+     * PPJoin相似连接与逐对计算杰卡德相似度的耗时对比（结果必须一致）
+     */
+    static void benchmarkSimilarityJoin() {
+        Random random = new Random(42);
+        List<List<String>> documents = new ArrayList<>();
+        // 100篇源文档，每篇派生若干近似副本，词汇表服从长尾分布
+        for (int source = 0; source < 100; source++) {
+            List<String> words = new ArrayList<>();
+            for (int w = 0; w < 150; w++) {
+                words.add("w" + (int) Math.pow(random.nextInt(1000) + 1, 1.5));
+            }
+            documents.add(words);
+            for (int copy = 0; copy < 9; copy++) {
+                List<String> mutated = new ArrayList<>(words);
+                for (int edit = 0; edit < 10; edit++) {
+                    mutated.set(random.nextInt(mutated.size()), "w" + random.nextInt(40000));
+                }
+                documents.add(mutated);
+            }
+        }
+        SimilarityCalculator calculator = new SimilarityCalculator();
+
+        for (double threshold : new double[]{0.7, 0.9}) {
+            long start = System.nanoTime();
+            int bruteMatches = 0;
+            for (int a = 0; a < documents.size(); a++) {
+                for (int b = a + 1; b < documents.size(); b++) {
+                    if (calculator.calculateJaccardSimilarity(documents.get(a), documents.get(b)) >= threshold) {
+                        bruteMatches++;
+                    }
+                }
+            }
+            double bruteSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            int joinMatches = new SimilarityJoin(threshold).join(documents).size();
+            double joinSeconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("[join] t=%.1f 文档数 %d: 逐对 %.2fs (%d 对), PPJoin %.3fs (%d 对), 加速 %.0fx%n",
+                    threshold, documents.size(), bruteSeconds, bruteMatches, joinSeconds, joinMatches,
+                    bruteSeconds / joinSeconds);
+        }
+    }
+
+    /**
+     * 免分词字符n元组模式与HanLP分词模式的吞吐及结果一致性对比
+     */
+    static void benchmarkCharNgramMode() throws IOException {
+        ConfigLoader configLoader = new ConfigLoader();
+        configLoader.loadStopwords();
+        configLoader.loadSynonyms();
+        TextPreprocessor segmented = new TextPreprocessor(
+                configLoader.getStopwords(), configLoader.getSynonyms(), TextPreprocessor.Mode.SEGMENTED);
+        TextPreprocessor ngram = new TextPreprocessor(
+                configLoader.getStopwords(), configLoader.getSynonyms(), TextPreprocessor.Mode.CHAR_NGRAM);
+        SimilarityCalculator calculator = new SimilarityCalculator();
+
+        StringBuilder corpus = new StringBuilder();
+        for (String[] pair : FIXTURE_PAIRS) {
+            corpus.append(pair[0]).append(pair[1]);
+        }
+        String text = corpus.toString();
+        int rounds = 2000;
+        for (TextPreprocessor preprocessor : new TextPreprocessor[]{segmented, ngram}) {
+            preprocessor.preprocess(text); // 预热（HanLP首次调用会加载模型）
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                preprocessor.preprocess(text);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("[ngram] %s 预处理吞吐: %.2f MB字符/秒%n",
+                    preprocessor.getMode(), (double) text.length() * rounds / seconds / 1e6);
+        }
+
+        double totalDifference = 0;
+        int agreements = 0;
+        for (String[] pair : FIXTURE_PAIRS) {
+            double expected = calculator.calculateSimilarity(segmented.preprocess(pair[0]), segmented.preprocess(pair[1]));
+            double actual = calculator.calculateSimilarity(ngram.preprocess(pair[0]), ngram.preprocess(pair[1]));
+            totalDifference += Math.abs(expected - actual);
+            if ((expected >= 0.3) == (actual >= 0.3)) {
+                agreements++;
+            }
+            System.out.printf("[ngram] 分词 %.3f / n元组 %.3f%n", expected, actual);
+        }
+        System.out.printf("[ngram] 平均绝对差 %.3f, 30%%阈值判定一致 %d/%d%n",
+                totalDifference / FIXTURE_PAIRS.length, agreements, FIXTURE_PAIRS.length);
+    }
+
+    /**
+     * 紧凑文档（变长整数词项ID）与 List<String> 的堆内存占用对比
+     */
+    static void benchmarkCompactDocuments() {
+        int documents = 20_000;
+        int tokensPerDocument = 500;
+        Random random = new Random(42);
+
+        long before = usedHeap();
+        List<List<String>> plain = new ArrayList<>();
+        for (int d = 0; d < documents; d++) {
+            List<String> words = new ArrayList<>(tokensPerDocument);
+            for (int t = 0; t < tokensPerDocument; t++) {
+                // 分词器为每个词生成独立的String对象
+                words.add(new String("词" + (int) Math.pow(random.nextInt(200) + 1, 2)));
+            }
+            plain.add(Collections.unmodifiableList(words));
+        }
+        long plainBytes = usedHeap() - before;
+
+        TermDictionary dictionary = new TermDictionary();
+        before = usedHeap();
+        List<CompactDocument> compact = new ArrayList<>();
+        for (List<String> words : plain) {
+            compact.add(CompactDocument.encode(words, dictionary));
+        }
+        long compactBytes = usedHeap() - before;
+        plain.clear();
+
+        CompactDocument.Cursor cursor = new CompactDocument.Cursor();
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (CompactDocument document : compact) {
+            cursor.reset(document);
+            while (cursor.hasNext()) {
+                checksum += cursor.next();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("[arena] %d篇×%d词: List<String> %.1f MB, 紧凑表示(含字典) %.1f MB, 每词 %.1f → %.1f 字节%n",
+                documents, tokensPerDocument, plainBytes / 1048576.0, compactBytes / 1048576.0,
+                (double) plainBytes / documents / tokensPerDocument,
+                (double) compactBytes / documents / tokensPerDocument);
+        System.out.printf("[arena] 游标遍历: %.0f 百万词/秒 (校验 %d)%n",
+                (double) documents * tokensPerDocument / seconds / 1e6, checksum);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static int intersectPlain(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                count++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 并行导入时DF统计的线程扩展性：全局同步Map与线程本地计数器对比
+     */
+    static void benchmarkDocumentFrequency() throws InterruptedException {
+        Random random = new Random(42);
+        List<List<String>> documents = new ArrayList<>();
+        for (int d = 0; d < 40_000; d++) {
+            List<String> words = new ArrayList<>();
+            for (int w = 0; w < 200; w++) {
+                words.add("w" + (int) Math.pow(random.nextInt(1000) + 1, 1.5));
+            }
+            documents.add(words);
+        }
+        int maxThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        System.out.printf("[df] 文档数 %d, 可用处理器 %d%n", documents.size(), Runtime.getRuntime().availableProcessors());
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            Map<String, Integer> shared = new HashMap<>();
+            double syncSeconds = runParallel(documents, threads, words -> {
+                Set<String> distinct = new HashSet<>(words);
+                synchronized (shared) {
+                    for (String word : distinct) {
+                        shared.merge(word, 1, Integer::sum);
+                    }
+                }
+            });
+
+            DocumentFrequencyAccumulator accumulator = new DocumentFrequencyAccumulator();
+            double accumulatorSeconds = runParallel(documents, threads, accumulator::addDocument);
+            DfSnapshot snapshot = accumulator.publish();
+            if (snapshot.documentCount() != documents.size()
+                    || snapshot.documentFrequency("w1") != shared.getOrDefault("w1", 0)) {
+                throw new IllegalStateException("DF统计结果不一致");
+            }
+
+            System.out.printf("[df] %d 线程: 同步Map %.0f 文档/秒, 线程本地计数 %.0f 文档/秒%n",
+                    threads, documents.size() / syncSeconds, documents.size() / accumulatorSeconds);
+        }
+    }
+
+    /**
+     * 融合词序（n元组包含度）后整条流水线（预处理+打分）的额外耗时，以及句子打乱后的分数变化
+     */
+    static void benchmarkOrderAwareScore() throws IOException {
+        ConfigLoader configLoader = new ConfigLoader();
+        configLoader.loadStopwords();
+        configLoader.loadSynonyms();
+        TextPreprocessor preprocessor = new TextPreprocessor(configLoader.getStopwords(), configLoader.getSynonyms());
+        SimilarityCalculator bagOnly = new SimilarityCalculator();
+        SimilarityCalculator ordered = new SimilarityCalculator();
+        ordered.setOrderWeight(0.3, NGramSimilarity.DEFAULT_N);
+
+        // 由测试文本拼成较长的文档，再按句子打乱得到“重排抄袭”
+        List<String> sentences = new ArrayList<>();
+        for (String[] pair : FIXTURE_PAIRS) {
+            for (String sentence : pair[0].split("(?<=[。！？.!?])")) {
+                if (!sentence.trim().isEmpty()) {
+                    sentences.add(sentence);
+                }
+            }
+        }
+        StringBuilder original = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            for (String sentence : sentences) {
+                original.append(sentence);
+            }
+        }
+        List<String> shuffled = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            shuffled.addAll(sentences);
+        }
+        Collections.shuffle(shuffled, new Random(42));
+        String reordered = String.join("", shuffled);
+        String originalText = original.toString();
+
+        int rounds = 200;
+        for (SimilarityCalculator calculator : new SimilarityCalculator[]{bagOnly, ordered, bagOnly, ordered}) {
+            long start = System.nanoTime();
+            double score = 0;
+            for (int i = 0; i < rounds; i++) {
+                for (String[] pair : FIXTURE_PAIRS) {
+                    calculator.calculateSimilarity(preprocessor.preprocess(pair[0]), preprocessor.preprocess(pair[1]));
+                }
+                score = calculator.calculateSimilarity(preprocessor.preprocess(originalText),
+                        preprocessor.preprocess(reordered));
+            }
+            double millis = (System.nanoTime() - start) / 1e6 / rounds;
+            System.out.printf("[order] 词序权重 %.1f: 每轮 %.2f ms, 打乱句子后的分数 %.3f%n",
+                    calculator.getOrderWeight(), millis, score);
+        }
+    }
+
+    /**
+     * 词语编辑距离：位并行、带状动态规划与朴素动态规划的耗时对比（结果必须一致）
+     */
+    static void benchmarkEditDistance() {
+        Random random = new Random(42);
+        int vocabulary = 2000;
+        for (int length : new int[]{50, 500, 5000}) {
+            int pairs = Math.max(1, 200_000 / length);
+            int[][] originals = new int[pairs][];
+            int[][] copies = new int[pairs][];
+            for (int p = 0; p < pairs; p++) {
+                originals[p] = randomTokens(random, length, vocabulary);
+                copies[p] = paraphrase(random, originals[p], vocabulary, 0.1);
+            }
+
+            long start = System.nanoTime();
+            long naive = 0;
+            for (int p = 0; p < pairs; p++) {
+                naive += naiveEditDistance(originals[p], copies[p]);
+            }
+            double naiveSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            long bitParallel = 0;
+            for (int p = 0; p < pairs; p++) {
+                int[] shorter = originals[p].length <= copies[p].length ? originals[p] : copies[p];
+                int[] longer = shorter == originals[p] ? copies[p] : originals[p];
+                bitParallel += TokenEditDistance.bitParallel(shorter, longer, vocabulary + 1);
+            }
+            double bitParallelSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            long banded = 0;
+            for (int p = 0; p < pairs; p++) {
+                banded += TokenEditDistance.banded(originals[p], copies[p]);
+            }
+            double bandedSeconds = (System.nanoTime() - start) / 1e9;
+
+            if (naive != bitParallel || naive != banded) {
+                throw new IllegalStateException("编辑距离结果不一致");
+            }
+            System.out.printf("[edit] %d 词 × %d 对: 朴素DP %.1f ms, 位并行 %.1f ms (%.1fx), 带状DP %.1f ms (%.1fx)%n",
+                    length, pairs, naiveSeconds * 1e3, bitParallelSeconds * 1e3, naiveSeconds / bitParallelSeconds,
+                    bandedSeconds * 1e3, naiveSeconds / bandedSeconds);
+        }
+    }
+
+    /**
+     * 贪心串覆盖在整段调换顺序的抄袭上的耗时随文档长度的变化（平均应接近线性）
+     */
+    static void benchmarkGreedyStringTiling() {
+        Random random = new Random(42);
+        GreedyStringTiling tiling = new GreedyStringTiling();
+        for (int length : new int[]{1_000, 10_000, 100_000}) {
+            int[] original = randomTokens(random, length, 20_000);
+            // 按约50词切块后打乱块顺序，再做少量改写
+            List<int[]> blocks = new ArrayList<>();
+            for (int start = 0; start < length; start += 50) {
+                blocks.add(Arrays.copyOfRange(original, start, Math.min(length, start + 50)));
+            }
+            Collections.shuffle(blocks, random);
+            int[] reordered = new int[length];
+            int n = 0;
+            for (int[] block : blocks) {
+                System.arraycopy(block, 0, reordered, n, block.length);
+                n += block.length;
+            }
+            int[] copy = paraphrase(random, reordered, 20_000, 0.05);
+
+            tiling.tile(original, copy); // 预热
+            int rounds = Math.max(1, 100_000 / length);
+            long start = System.nanoTime();
+            int covered = 0;
+            for (int i = 0; i < rounds; i++) {
+                covered = 0;
+                for (GreedyStringTiling.Tile tile : tiling.tile(original, copy)) {
+                    covered += tile.getLength();
+                }
+            }
+            double micros = (System.nanoTime() - start) / 1e3 / rounds;
+            System.out.printf("[gst] %d 词: 每次 %.0f µs (%.2f µs/词), 覆盖率 %.3f%n",
+                    length, micros, micros / length, 2.0 * covered / (original.length + copy.length));
+        }
+    }
+
+    /**
+     * 一篇原文与多篇文档比较：每次从词语列表计算与复用预先构建的画像的耗时对比，以及各打分器的吞吐
+     */
+    static void benchmarkScorers() {
+        Random random = new Random(42);
+        SimilarityCalculator calculator = new SimilarityCalculator();
+        List<String> original = randomWords(random, 2000);
+        List<List<String>> others = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            others.add(randomWords(random, 2000));
+        }
+
+        long start = System.nanoTime();
+        double listChecksum = 0;
+        for (List<String> other : others) {
+            listChecksum += calculator.calculateSimilarity(original, other);
+        }
+        double listMillis = (System.nanoTime() - start) / 1e6;
+
+        DocumentProfile originalProfile = calculator.profile(original);
+        List<DocumentProfile> profiles = new ArrayList<>();
+        for (List<String> other : others) {
+            profiles.add(calculator.profile(other));
+        }
+        start = System.nanoTime();
+        double profileChecksum = 0;
+        for (DocumentProfile profile : profiles) {
+            profileChecksum += calculator.calculateSimilarity(originalProfile, profile);
+        }
+        double profileMillis = (System.nanoTime() - start) / 1e6;
+        if (Math.abs(listChecksum - profileChecksum) > 1e-9) {
+            throw new IllegalStateException("画像打分结果不一致");
+        }
+        System.out.printf("[scorer] %d 次比较: 词语列表 %.1f ms, 预建画像 %.1f ms (%.1fx)%n",
+                others.size(), listMillis, profileMillis, listMillis / profileMillis);
+
+        SimilarityScorer[] scorers = {BlendScorer.defaultBlend(), CosineScorer.pairwiseTfIdf(),
+                CosineScorer.termFrequency(), new JaccardScorer(), new Bm25Scorer()};
+        for (SimilarityScorer scorer : scorers) {
+            start = System.nanoTime();
+            double sum = 0;
+            for (DocumentProfile profile : profiles) {
+                sum += scorer.score(originalProfile, profile);
+            }
+            System.out.printf("[scorer] %s: %.2f ms, 平均分 %.3f%n",
+                    scorer.getName(), (System.nanoTime() - start) / 1e6, sum / profiles.size());
+        }
+    }
+
+    /**
+     * 全量相似度矩阵：稀疏矩阵乘法与逐对调用 calculateSimilarity（预建画像）的耗时对比
+     */
+    static void benchmarkCosineMatrix() {
+        Random random = new Random(42);
+        SimilarityCalculator calculator = new SimilarityCalculator();
+        int n = 1000;
+        List<String> names = new ArrayList<>();
+        List<List<String>> tokens = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            names.add("doc" + i);
+            tokens.add(randomWords(random, 300));
+        }
+
+        long start = System.nanoTime();
+        List<DocumentProfile> profiles = new ArrayList<>();
+        for (List<String> words : tokens) {
+            profiles.add(calculator.profile(words));
+        }
+        double[] pairwise = new double[n * (n - 1) / 2];
+        for (int i = 0, k = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                pairwise[k++] = calculator.calculateSimilarity(profiles.get(i), profiles.get(j));
+            }
+        }
+        double pairwiseMillis = (System.nanoTime() - start) / 1e6;
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        start = System.nanoTime();
+        CosineMatrix matrix = new CosineMatrixJob(calculator, threads).compute(names, tokens);
+        double matrixMillis = (System.nanoTime() - start) / 1e6;
+
+        double maxDifference = 0;
+        for (int i = 0, k = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                maxDifference = Math.max(maxDifference, Math.abs(pairwise[k++] - matrix.get(i, j)));
+            }
+        }
+        System.out.printf("[matrix] %d 篇文档 %d 对: 逐对计算 %.0f ms, 稀疏矩阵乘法(%d线程) %.0f ms (%.1fx), 最大误差 %.2e%n",
+                n, pairwise.length, pairwiseMillis, threads, matrixMillis, pairwiseMillis / matrixMillis, maxDifference);
+    }
+
+    /**
+     * 查表归一化与原先正则清洗的吞吐对比（简体半角文本上结果必须一致）
+     */
+    static void benchmarkCharFolding() {
+        StringBuilder corpus = new StringBuilder();
+        for (String[] pair : FIXTURE_PAIRS) {
+            corpus.append(pair[0]).append("  ").append(pair[1]).append("\n(#) ");
+        }
+        String text = corpus.toString();
+        String noisePattern = "[^a-zA-Z0-9\u4e00-\u9fa5，。,;！!？?]";
+        String expected = text.replaceAll(noisePattern, " ").toLowerCase().replaceAll("\\s+", " ").trim();
+        if (!expected.equals(CharFolder.fold(text))) {
+            throw new IllegalStateException("查表归一化与正则清洗结果不一致");
+        }
+
+        int rounds = 20_000;
+        long checksum = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                checksum += text.replaceAll(noisePattern, " ").length();
+            }
+            double singleRegex = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                checksum += text.replaceAll(noisePattern, " ").toLowerCase().replaceAll("\\s+", " ").trim().length();
+            }
+            double regexPipeline = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                checksum += CharFolder.fold(text).length();
+            }
+            double folding = (System.nanoTime() - start) / 1e9;
+            double megaChars = (double) text.length() * rounds / 1e6;
+            System.out.printf("[fold] 单次正则替换 %.1f, 原清洗流程 %.1f, 查表归一化 %.1f MB字符/秒 (%.1fx, 校验 %d)%n",
+                    megaChars / singleRegex, megaChars / regexPipeline, megaChars / folding,
+                    regexPipeline / folding, checksum);
+        }
+    }
+
+    /**
+     * 英文论文预处理吞吐：英文切词+词干提取与整段交给HanLP分词的对比
+     */
+    static void benchmarkEnglishFastPath() throws IOException {
+        ConfigLoader configLoader = new ConfigLoader();
+        configLoader.loadStopwords();
+        configLoader.loadSynonyms();
+        Set<String> stopwords = configLoader.getStopwords();
+        Map<String, String> synonyms = configLoader.getSynonyms();
+        TextPreprocessor preprocessor = new TextPreprocessor(stopwords, synonyms);
+
+        String[] vocabulary = ("the student copied copying copies answer answers of a paper papers is was "
+                + "algorithm algorithms relational database databases generalization effective adjustment "
+                + "plagiarism detection detected detecting similarity similar measure measured measuring "
+                + "document documents in and to with for by analysis analyses result results").split(" ");
+        Random random = new Random(42);
+        StringBuilder paper = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            paper.append(vocabulary[random.nextInt(vocabulary.length)]);
+            paper.append(i % 12 == 11 ? ". " : i % 5 == 4 ? ", " : " ");
+        }
+        String text = paper.toString();
+
+        int rounds = 20;
+        long checksum = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                // 原流程：整段英文交给HanLP分词，不提取词干
+                for (Term term : HanLP.segment(CharFolder.fold(text))) {
+                    String word = term.word.trim();
+                    if (!word.isEmpty() && !stopwords.contains(word)) {
+                        checksum += synonyms.getOrDefault(word, word).length();
+                    }
+                }
+            }
+            double hanlpSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                checksum += preprocessor.preprocess(text).size();
+            }
+            double fastSeconds = (System.nanoTime() - start) / 1e9;
+            double megaChars = (double) text.length() * rounds / 1e6;
+            System.out.printf("[english] HanLP分词 %.1f, 英文切词+词干 %.1f MB字符/秒 (%.1fx, 校验 %d)%n",
+                    megaChars / hanlpSeconds, megaChars / fastSeconds, hanlpSeconds / fastSeconds, checksum);
+        }
+    }
+
+    /**
+     * 阈值判定模式在合成语料全部文档对上的提前判定比例与耗时（判定结果必须与完整计算一致）
+     */
+    static void benchmarkThresholdScreening() throws IOException {
+        ConfigLoader configLoader = new ConfigLoader();
+        configLoader.loadStopwords();
+        configLoader.loadSynonyms();
+        TextPreprocessor preprocessor = new TextPreprocessor(configLoader.getStopwords(), configLoader.getSynonyms());
+        SimilarityCalculator calculator = new SimilarityCalculator();
+
+        List<String> seeds = new ArrayList<>();
+        for (String[] pair : FIXTURE_PAIRS) {
+            seeds.addAll(Arrays.asList(pair));
+        }
+        SyntheticCorpusGenerator generator = new SyntheticCorpusGenerator(configLoader.getSynonyms(),
+                new SyntheticCorpusGenerator.MutationRates(0.5, 0.3, 0.1, 0.1, 0.02), 42);
+        List<List<String>> documents = new ArrayList<>();
+        for (String text : generator.generate(seeds, 100, 6, 2).getDocuments().values()) {
+            documents.add(preprocessor.preprocess(text));
+        }
+        int n = documents.size();
+
+        long start = System.nanoTime();
+        double[] exact = new double[n * (n - 1) / 2];
+        for (int i = 0, k = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                exact[k++] = calculator.calculateSimilarity(documents.get(i), documents.get(j));
+            }
+        }
+        double fullMillis = (System.nanoTime() - start) / 1e6;
+
+        for (double threshold : new double[]{0.3, 0.6, 0.8, 0.9}) {
+            ScreeningStats stats = new ScreeningStats();
+            int disagreements = 0;
+            start = System.nanoTime();
+            for (int i = 0, k = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if (calculator.isSimilarityAtLeast(documents.get(i), documents.get(j), threshold, stats)
+                            != (exact[k++] >= threshold)) {
+                        disagreements++;
+                    }
+                }
+            }
+            double screeningMillis = (System.nanoTime() - start) / 1e6;
+            System.out.printf("[screening] %d 篇 %d 对, 阈值 %.1f: 完整计算 %.0f ms, 阈值判定 %.0f ms (%.1fx), 不一致 %d%n    %s%n",
+                    n, exact.length, threshold, fullMillis, screeningMillis, fullMillis / screeningMillis,
+                    disagreements, stats.formatReport());
+        }
+    }
+
+    // Zipf式分布的中文伪词（长度≥2，不会被干扰词过滤掉）
+    private static List<String> randomWords(Random random, int length) {
+        List<String> words = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            int rank = (int) Math.pow(random.nextInt(3000) + 1, 1.3);
+            words.add("词" + (char) ('\u4e00' + rank % 20000) + (char) ('\u4e00' + rank / 20000));
+        }
+        return words;
+    }
+
+    private static int[] randomTokens(Random random, int length, int vocabulary) {
+        int[] tokens = new int[length];
+        for (int i = 0; i < length; i++) {
+            tokens[i] = 1 + random.nextInt(vocabulary);
+        }
+        return tokens;
+    }
+
+    // 按比例随机替换、插入、删除词语，模拟近似改写
+    private static int[] paraphrase(Random random, int[] tokens, int vocabulary, double rate) {
+        int[] copy = new int[tokens.length * 2];
+        int n = 0;
+        for (int token : tokens) {
+            double r = random.nextDouble();
+            if (r < rate / 3) {
+                copy[n++] = 1 + random.nextInt(vocabulary);
+            } else if (r < rate * 2 / 3) {
+                copy[n++] = token;
+                copy[n++] = 1 + random.nextInt(vocabulary);
+            } else if (r >= rate) {
+                copy[n++] = token;
+            }
+        }
+        return Arrays.copyOf(copy, n);
+    }
+
+    private static int naiveEditDistance(int[] a, int[] b) {
+        int[] prev = new int[b.length + 1];
+        int[] cur = new int[b.length + 1];
+        for (int j = 0; j <= b.length; j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length; i++) {
+            cur[0] = i;
+            for (int j = 1; j <= b.length; j++) {
+                int substitute = prev[j - 1] + (a[i - 1] == b[j - 1] ? 0 : 1);
+                cur[j] = Math.min(substitute, Math.min(prev[j], cur[j - 1]) + 1);
+            }
+            int[] swap = prev;
+            prev = cur;
+            cur = swap;
+        }
+        return prev[b.length];
+    }
+
+    private static double runParallel(List<List<String>> documents, int threads, Consumer<List<String>> task)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        int batch = (documents.size() + threads - 1) / threads;
+        for (int t = 0; t < threads; t++) {
+            List<List<String>> slice = documents.subList(Math.min(documents.size(), t * batch),
+                    Math.min(documents.size(), (t + 1) * batch));
+            executor.submit(() -> slice.forEach(task));
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
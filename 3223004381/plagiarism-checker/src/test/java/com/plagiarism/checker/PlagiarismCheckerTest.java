@@ -4,10 +4,21 @@ import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 public class PlagiarismCheckerTest {
     private TextPreprocessor preprocessor;
@@ -484,4 +495,1149 @@ public class PlagiarismCheckerTest {
         plagiarizedFile.deleteOnExit();
         resultFile.deleteOnExit();
     }
+
+    // 测试12：堆外向量存储的余弦与堆内计算一致
+    @Test
+    public void testOffHeapVectorStoreCosine() {
+        TermDictionary dictionary = new TermDictionary();
+        SparseVector v1 = SparseVector.fromTermFrequencies(
+                preprocessor.preprocess("今天是星期天，天气晴，今天晚上我要去看电影。"), dictionary);
+        SparseVector v2 = SparseVector.fromTermFrequencies(
+                preprocessor.preprocess("今天是周天，天气晴朗，我晚上要去看电影。"), dictionary);
+
+        // 使用很小的分段，覆盖跨分段存储的情况
+        OffHeapVectorStore store = new OffHeapVectorStore(64);
+        int doc1 = store.add(v1);
+        int doc2 = store.add(v2);
+
+        assertEquals(v1.cosine(v2), store.cosine(doc1, doc2), 1e-6);
+        assertEquals(v1.cosine(v2), store.cosine(doc1, v2), 1e-6);
+        assertEquals(1.0, store.cosine(doc2, v2), 1e-6);
+    }
+
+    // 测试13：向量存储持久化后以内存映射方式重新打开
+    @Test
+    public void testOffHeapVectorStorePersistence() throws IOException {
+        TermDictionary dictionary = new TermDictionary();
+        SparseVector v1 = SparseVector.fromTermFrequencies(
+                preprocessor.preprocess("苹果是一种水果，味道很甜。"), dictionary);
+        SparseVector v2 = SparseVector.fromTermFrequencies(
+                preprocessor.preprocess("苹果是一种水果，颜色有红色和绿色。"), dictionary);
+
+        OffHeapVectorStore store = new OffHeapVectorStore();
+        store.add(v1);
+        store.add(v2);
+
+        File storeFile = File.createTempFile("vectors", ".bin");
+        storeFile.deleteOnExit();
+        store.save(storeFile.toPath());
+
+        OffHeapVectorStore reopened = OffHeapVectorStore.open(storeFile.toPath());
+        assertEquals(2, reopened.size());
+        assertEquals(store.cosine(0, 1), reopened.cosine(0, 1), 1e-9);
+        assertEquals(v2.size(), reopened.termCount(1));
+    }
+
+    // 测试14：压缩倒排列表的交集、并集与未压缩结果一致
+    @Test
+    public void testCompressedPostingsSetOperations() {
+        int[] sparse = {3, 70, 150, 9000};
+        int[] dense = new int[500];
+        for (int i = 0; i < dense.length; i++) {
+            dense[i] = i * 2;
+        }
+        CompressedPostings a = CompressedPostings.of(sparse);
+        CompressedPostings b = CompressedPostings.of(dense);
+
+        assertFalse(a.isBitmap());
+        assertTrue(b.isBitmap());
+        assertArrayEquals(new int[]{70, 150}, CompressedPostings.intersect(a, b).toArray());
+        assertEquals(dense.length + 2, CompressedPostings.union(a, b).size());
+        assertArrayEquals(sparse, CompressedPostings.union(a, CompressedPostings.empty()).toArray());
+    }
+
+    // 测试15：语料倒排索引按词语查询候选文档
+    @Test
+    public void testCorpusIndexQueries() {
+        CorpusIndex index = new CorpusIndex();
+        index.addDocument(preprocessor.preprocess("今天是星期天，天气晴，今天晚上我要去看电影。"));
+        index.addDocument(preprocessor.preprocess("猫是一种常见的家庭宠物，喜欢吃鱼和老鼠。"));
+        index.addDocument(preprocessor.preprocess("今天是周天，天气晴朗，我晚上要去看电影。"));
+
+        assertArrayEquals(new int[]{0, 2}, index.documentsContainingAll(Arrays.asList("电影", "天气")).toArray());
+        assertEquals(3, index.documentsContainingAny(Arrays.asList("电影", "宠物")).size());
+        assertEquals(0, index.documentFrequency("不存在的词"));
+
+        // 重叠计数过滤：只共享一个词的文档不再成为候选，已删除的文档被跳过
+        List<String> query = Arrays.asList("电影", "天气", "宠物");
+        assertEquals(3, index.documentsSharingAtLeast(query, 1).size());
+        assertArrayEquals(new int[]{0, 2}, index.documentsSharingAtLeast(query, 2).toArray());
+        index.removeDocument(2);
+        assertArrayEquals(new int[]{0}, index.documentsSharingAtLeast(query, 2).toArray());
+        assertEquals(0, index.documentsSharingAtLeast(query, 4).size());
+    }
+
+    // 测试16：重复提交的文本对命中结果缓存，超出容量时淘汰最久未使用的结果
+    @Test
+    public void testSimilarityCache() {
+        SimilarityCache cache = new SimilarityCache(16);
+        PlagiarismCheckerService service = new PlagiarismCheckerService(
+                fileAccessor, preprocessor, calculator, cache);
+
+        String original = "今天是星期天，天气晴，今天晚上我要去看电影。";
+        String plagiarized = "今天是周天，天气晴朗，我晚上要去看电影。";
+        double first = service.calculateSimilarity(original, plagiarized);
+        double second = service.calculateSimilarity(original, plagiarized);
+
+        assertEquals(first, second, 0.0);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        for (int i = 0; i < 100; i++) {
+            service.calculateSimilarity(original, "测试文本" + i);
+        }
+        assertTrue(cache.size() <= 16);
+        assertTrue(cache.getEvictionCount() > 0);
+    }
+
+    // 测试17：全量聚类把互相抄袭的文档合并成簇
+    @Test
+    public void testClusteringJob() {
+        Map<String, String> documents = new LinkedHashMap<>();
+        documents.put("a.txt", "今天是星期天，天气晴，今天晚上我要去看电影。");
+        documents.put("b.txt", "今天是周天，天气晴朗，今天晚上我要去看电影。");
+        documents.put("c.txt", "今天是星期天，天气晴好，今天晚上我要去看影片。");
+        documents.put("d.txt", "猫是一种常见的家庭宠物，喜欢吃鱼和老鼠。");
+        documents.put("e.txt", "计算机科学是一门研究计算理论和实践的学科。");
+
+        ClusteringJob job = new ClusteringJob(preprocessor, calculator, 0.8);
+        ClusteringJob.Result result = job.run(documents);
+
+        assertEquals(1, result.getClusters().size());
+        assertEquals(Arrays.asList("a.txt", "b.txt", "c.txt"), result.getClusters().get(0));
+        assertFalse(result.membership().containsKey("d.txt"));
+
+        // 分段参数按阈值对应的杰卡德下界 (0.8-0.6)/0.4 = 0.5 选取，下界处的文档对至少95%成为候选
+        assertEquals(0.5, calculator.minimumJaccard(0.8), 1e-12);
+        assertTrue(ClusteringJob.candidateProbability(0.5, job.getBands(), job.getRows()) >= 0.95);
+        assertEquals(3, ClusteringJob.rowsFor(0.5));
+        assertEquals(0.873, ClusteringJob.candidateProbability(0.5, 32, 4), 0.001);
+        // 阈值不超过0.6时杰卡德下界为0，LSH无法保证召回，改用共享词倒排索引
+        assertEquals(0, ClusteringJob.rowsFor(calculator.minimumJaccard(0.6)));
+        assertTrue(new ClusteringJob(preprocessor, calculator, 0.6).usesSharedTermIndex());
+        assertFalse(job.usesSharedTermIndex());
+    }
+
+    // 测试18：PPJoin相似连接与逐对计算杰卡德相似度的结果完全一致
+    @Test
+    public void testSimilarityJoinMatchesBruteForce() {
+        Random random = new Random(7);
+        List<List<String>> documents = new ArrayList<>();
+        for (int d = 0; d < 120; d++) {
+            List<String> words = new ArrayList<>();
+            int length = 3 + random.nextInt(20);
+            for (int w = 0; w < length; w++) {
+                words.add("词" + random.nextInt(30));
+            }
+            documents.add(words);
+        }
+        documents.add(Collections.<String>emptyList());
+
+        for (double threshold : new double[]{0.3, 0.5, 0.8, 1.0}) {
+            List<String> expected = new ArrayList<>();
+            for (int a = 0; a < documents.size(); a++) {
+                for (int b = a + 1; b < documents.size(); b++) {
+                    double similarity = calculator.calculateJaccardSimilarity(documents.get(a), documents.get(b));
+                    if (similarity >= threshold) {
+                        expected.add(a + "-" + b + ":" + similarity);
+                    }
+                }
+            }
+            List<String> actual = new ArrayList<>();
+            for (SimilarityJoin.Match match : new SimilarityJoin(threshold).join(documents)) {
+                actual.add(match.toString());
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    // 测试19：阈值判定模式与完整计算结果一致，并能提前判定部分文本对
+    @Test
+    public void testThresholdScreening() {
+        String[][] pairs = {
+                {"今天是星期天，天气晴，今天晚上我要去看电影。", "今天是周天，天气晴朗，我晚上要去看电影。"},
+                {"计算机科学是一门研究计算理论和实践的学科。", "猫是一种常见的家庭宠物，喜欢吃鱼和老鼠。"},
+                {"苹果是一种水果，味道很甜。", "苹果是一种水果，颜色有红色和绿色。"},
+                {"这是一个测试文本。", ""},
+                {"Java Python C++", "java python c++"},
+        };
+        ScreeningStats stats = new ScreeningStats();
+        for (double threshold : new double[]{0.3, 0.5, 0.9}) {
+            for (String[] pair : pairs) {
+                List<String> words1 = preprocessor.preprocess(pair[0]);
+                List<String> words2 = preprocessor.preprocess(pair[1]);
+                boolean expected = calculator.calculateSimilarity(words1, words2) >= threshold;
+                assertEquals(expected, calculator.isSimilarityAtLeast(words1, words2, threshold, stats));
+            }
+        }
+        assertEquals(15, stats.total());
+        assertTrue(stats.earlyDecisionRate() > 0);
+    }
+
+    // 测试20：免分词字符n元组模式
+    @Test
+    public void testCharNgramMode() {
+        TextPreprocessor ngramPreprocessor = new TextPreprocessor(
+                new HashSet<String>(), new HashMap<String, String>(), TextPreprocessor.Mode.CHAR_NGRAM);
+
+        assertEquals(Arrays.asList("天气", "天气晴", "气晴", "ab", "abc", "bc"),
+                ngramPreprocessor.preprocess("天气晴，ABC"));
+
+        String text = "今天是星期天，天气晴，今天晚上我要去看电影。";
+        assertEquals(1.0, calculator.calculateSimilarity(
+                ngramPreprocessor.preprocess(text), ngramPreprocessor.preprocess(text)), 0.01);
+        assertEquals(0.0, calculator.calculateSimilarity(
+                ngramPreprocessor.preprocess("计算机科学研究计算理论和实践。"),
+                ngramPreprocessor.preprocess("猫喜欢吃鱼和老鼠。")), 0.01);
+        assertNotEquals(preprocessor.getConfigFingerprint(), ngramPreprocessor.getConfigFingerprint());
+    }
+
+    // 测试21：紧凑文档编码可无损还原词语序列
+    @Test
+    public void testCompactDocumentRoundTrip() {
+        TermDictionary dictionary = new TermDictionary();
+        for (int i = 0; i < 300; i++) {
+            dictionary.intern("占位" + i); // 让部分ID需要多字节编码
+        }
+        List<String> words = preprocessor.preprocess("今天是星期天，天气晴，今天晚上我要去看电影。");
+        CompactDocument document = CompactDocument.encode(words, dictionary);
+
+        assertEquals(words.size(), document.tokenCount());
+        assertEquals(words, document.toWords(dictionary));
+
+        CompactDocument.Cursor cursor = new CompactDocument.Cursor().reset(document);
+        int index = 0;
+        while (cursor.hasNext()) {
+            assertEquals(dictionary.lookup(words.get(index++)), cursor.next());
+        }
+        assertEquals(words.size(), index);
+    }
+
+    // 测试22：合成语料生成可复现，并记录真实相似度
+    @Test
+    public void testSyntheticCorpusGenerator() {
+        Map<String, String> synonyms = new HashMap<>();
+        synonyms.put("周天", "星期天");
+        synonyms.put("晴朗", "晴");
+        List<String> seeds = Arrays.asList(
+                "今天是星期天，天气晴，今天晚上我要去看电影。苹果是一种水果，味道很甜。",
+                "猫是一种常见的家庭宠物，喜欢吃鱼和老鼠。计算机科学是一门研究计算理论和实践的学科。");
+        SyntheticCorpusGenerator.MutationRates rates =
+                new SyntheticCorpusGenerator.MutationRates(0.5, 0.5, 0.2, 0.2, 0.05);
+
+        SyntheticCorpusGenerator.Corpus first = new SyntheticCorpusGenerator(synonyms, rates, 1).generate(seeds, 5, 4, 3);
+        SyntheticCorpusGenerator.Corpus second = new SyntheticCorpusGenerator(synonyms, rates, 1).generate(seeds, 5, 4, 3);
+
+        assertEquals(20, first.getDocuments().size());
+        assertEquals(15, first.getGroundTruth().size());
+        assertEquals(first.getDocuments(), second.getDocuments());
+        for (SyntheticCorpusGenerator.GroundTruth truth : first.getGroundTruth()) {
+            assertTrue(truth.getSimilarity() >= 0 && truth.getSimilarity() <= 1);
+            assertTrue(first.getDocuments().containsKey(truth.getSource()));
+        }
+
+        // 不做任何变异时，抄袭版与原文完全相同
+        SyntheticCorpusGenerator.Corpus exact = new SyntheticCorpusGenerator(synonyms,
+                new SyntheticCorpusGenerator.MutationRates(0, 0, 0, 0, 0), 1).generate(seeds, 1, 4, 1);
+        assertEquals(1.0, exact.getGroundTruth().get(0).getSimilarity(), 0.0);
+        assertEquals(exact.getDocuments().get("orig_000000.txt"), exact.getDocuments().get("copy_000000_000.txt"));
+    }
+
+    // 测试23：监听目录，新投稿与已有文档相似时发出告警
+    @Test
+    public void testSubmissionWatcher() throws Exception {
+        File directory = Files.createTempDirectory("submissions").toFile();
+        directory.deleteOnExit();
+        Files.write(new File(directory, "original.txt").toPath(),
+                "今天是星期天，天气晴，今天晚上我要去看电影。".getBytes("UTF-8"));
+
+        List<String> alerts = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch alerted = new CountDownLatch(1);
+        try (SubmissionWatcher watcher = new SubmissionWatcher(directory.toPath(), preprocessor, calculator,
+                0.8, 50, 2, (newFile, existingFile, similarity) -> {
+                    alerts.add(newFile + "->" + existingFile);
+                    assertTrue(similarity >= 0.8); // 告警分数与判定分数一致
+                    alerted.countDown();
+                })) {
+            watcher.start();
+            assertEquals(1, watcher.documentCount());
+            assertEquals(1, watcher.getDocumentFrequencies().documentCount());
+
+            Files.write(new File(directory, "unrelated.txt").toPath(),
+                    "猫是一种常见的家庭宠物，喜欢吃鱼和老鼠。".getBytes("UTF-8"));
+            Files.write(new File(directory, "copy.txt").toPath(),
+                    "今天是周天，天气晴朗，我晚上要去看电影。".getBytes("UTF-8"));
+
+            assertTrue(alerted.await(10, TimeUnit.SECONDS));
+            assertEquals(Collections.singletonList("copy.txt->original.txt"), alerts);
+            // 阈值0.8要求杰卡德至少0.5，10个词的文档至少共享5个词才进入校验
+            assertEquals(5, calculator.minimumSharedTerms(10, 0.8));
+            assertEquals(1, calculator.minimumSharedTerms(10, 0.6));
+        }
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+    }
+
+    // 测试24：JSON Lines 流式接口按输入顺序输出结果，错误行不影响后续请求
+    @Test
+    public void testStreamingChecker() throws IOException {
+        PlagiarismCheckerService service = new PlagiarismCheckerService(fileAccessor, preprocessor, calculator);
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            input.append("{\"id\":").append(i)
+                    .append(",\"original\":\"今天是星期天，天气晴，今天晚上我要去看电影。\"")
+                    .append(",\"suspect\":\"").append(i % 2 == 0 ? "今天是星期天，天气晴，今天晚上我要去看电影。" : "猫喜欢吃鱼和老鼠。")
+                    .append("\"}\n");
+        }
+        input.append("这不是JSON\n");
+        input.append("{\"id\":\"t\",\"original\":\"苹果是一种水果\",\"suspect\":\"苹果是一种水果\",\"threshold\":0.9}\n");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long written = new StreamingChecker(service, 4).run(
+                new ByteArrayInputStream(input.toString().getBytes("UTF-8")), output);
+
+        String[] lines = output.toString("UTF-8").split("\n");
+        assertEquals(22, written);
+        assertEquals(22, lines.length);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, ((Number) JsonLines.parseObject(lines[i]).get("id")).intValue());
+        }
+        assertEquals(1.0, (Double) JsonLines.parseObject(lines[0]).get("similarity"), 0.0001);
+        assertEquals(0.0, (Double) JsonLines.parseObject(lines[1]).get("similarity"), 0.0001);
+        assertTrue(JsonLines.parseObject(lines[20]).containsKey("error"));
+        assertEquals("{\"id\":\"t\",\"plagiarized\":true}", lines[21]);
+    }
+
+    // 测试25：超大文档的近似模式（Count-Min摘要）误差在界内，超过大小上限时自动启用
+    @Test
+    public void testApproximateSimilarity() throws IOException {
+        CountMinSketch sketch = CountMinSketch.withErrorBound(0.01, 0.01);
+        Map<String, Integer> exact = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            String word = "w" + (int) Math.abs(random.nextGaussian() * 300);
+            exact.merge(word, 1, Integer::sum);
+            sketch.add(MinHashSketch.hashWord(word), 1);
+        }
+        for (Map.Entry<String, Integer> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(MinHashSketch.hashWord(entry.getKey()));
+            assertTrue(estimate >= entry.getValue());
+            assertTrue(estimate <= entry.getValue() + sketch.epsilon() * sketch.totalCount());
+        }
+
+        // 高频词单独累加后，余弦估计比只用摘要内积更接近精确值
+        ApproximateTermProfile heavy1 = new ApproximateTermProfile(0.01, 0.01, 64);
+        ApproximateTermProfile heavy2 = new ApproximateTermProfile(0.01, 0.01, 64);
+        ApproximateTermProfile plain1 = new ApproximateTermProfile(0.01, 0.01, 0);
+        ApproximateTermProfile plain2 = new ApproximateTermProfile(0.01, 0.01, 0);
+        Map<String, Integer> counts1 = new HashMap<>();
+        Map<String, Integer> counts2 = new HashMap<>();
+        for (int i = 0; i < 50000; i++) {
+            String word = "w" + (int) (1 / Math.pow(random.nextDouble(), 1.1));
+            String other = random.nextBoolean() ? word : "v" + (int) (1 / Math.pow(random.nextDouble(), 1.1));
+            heavy1.add(word);
+            plain1.add(word);
+            heavy2.add(other);
+            plain2.add(other);
+            counts1.merge(word, 1, Integer::sum);
+            counts2.merge(other, 1, Integer::sum);
+        }
+        double dot = 0;
+        double norm1 = 0;
+        double norm2 = 0;
+        for (Map.Entry<String, Integer> entry : counts1.entrySet()) {
+            norm1 += (double) entry.getValue() * entry.getValue();
+            dot += (double) entry.getValue() * counts2.getOrDefault(entry.getKey(), 0);
+        }
+        for (int count : counts2.values()) {
+            norm2 += (double) count * count;
+        }
+        double exactCosine = dot / Math.sqrt(norm1 * norm2);
+        double heavyError = Math.abs(heavy1.estimateCosine(heavy2) - exactCosine);
+        assertTrue(heavyError < 0.001);
+        assertTrue(heavyError < Math.abs(plain1.estimateCosine(plain2) - exactCosine));
+
+        String text = "今天是星期天，天气晴，今天晚上我要去看电影。";
+        File originalFile = File.createTempFile("approx_orig", ".txt");
+        File copyFile = File.createTempFile("approx_copy", ".txt");
+        File unrelatedFile = File.createTempFile("approx_other", ".txt");
+        File resultFile = File.createTempFile("approx_result", ".txt");
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            large.append(text).append('\n');
+        }
+        Files.write(originalFile.toPath(), large.toString().getBytes("UTF-8"));
+        Files.write(copyFile.toPath(), large.toString().getBytes("UTF-8"));
+        Files.write(unrelatedFile.toPath(), "猫喜欢吃鱼和老鼠。\n计算机科学研究计算理论和实践。".getBytes("UTF-8"));
+
+        PlagiarismCheckerService service = new PlagiarismCheckerService(fileAccessor, preprocessor, calculator);
+        assertEquals(1.0, service.calculateApproximateSimilarity(originalFile.getPath(), copyFile.getPath()), 0.001);
+        assertEquals(0.0, service.calculateApproximateSimilarity(originalFile.getPath(), unrelatedFile.getPath()), 0.05);
+
+        service.setApproximateLimitBytes(1024);
+        service.checkPlagiarism(originalFile.getPath(), copyFile.getPath(), resultFile.getPath());
+        assertEquals("100.00", fileAccessor.readFile(resultFile.getPath()).trim());
+
+        originalFile.delete();
+        copyFile.delete();
+        unrelatedFile.delete();
+        resultFile.delete();
+    }
+
+    // 测试26：多线程并行统计文档频率，快照结果与串行统计一致，并可用于语料级IDF
+    @Test
+    public void testDocumentFrequencyAccumulator() throws Exception {
+        List<List<String>> documents = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            documents.add(Arrays.asList("公共词", "词" + (i % 10), "词" + (i % 10), "独有" + i));
+        }
+        DocumentFrequencyAccumulator accumulator = new DocumentFrequencyAccumulator();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            threads.add(new Thread(() -> {
+                for (int i = offset; i < documents.size(); i += 4) {
+                    accumulator.addDocument(documents.get(i));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, accumulator.latest().documentCount());
+        DfSnapshot snapshot = accumulator.publish();
+        assertSame(snapshot, accumulator.latest());
+        assertEquals(400, snapshot.documentCount());
+        assertEquals(400, snapshot.documentFrequency("公共词"));
+        assertEquals(40, snapshot.documentFrequency("词3")); // 同一文档内重复只计一次
+        assertEquals(1, snapshot.documentFrequency("独有7"));
+        assertEquals(0, snapshot.documentFrequency("未出现"));
+        assertTrue(snapshot.idf("独有7") > snapshot.idf("词3"));
+
+        // 撤销文档后重新发布，文档数和文档频率同步减少
+        accumulator.removeDocument(documents.get(3));
+        DfSnapshot removed = accumulator.publish();
+        assertEquals(399, removed.documentCount());
+        assertEquals(39, removed.documentFrequency("词3"));
+        assertEquals(0, removed.documentFrequency("独有3"));
+        assertEquals(400, snapshot.documentFrequency("公共词")); // 旧快照不受影响
+
+        // 只共享高频词的两篇文档，在语料级IDF下相似度低于只共享稀有词的文档
+        double common = calculator.calculateSimilarity(
+                Arrays.asList("公共词", "独有1"), Arrays.asList("公共词", "独有2"), snapshot);
+        double rare = calculator.calculateSimilarity(
+                Arrays.asList("公共词", "独有1"), Arrays.asList("独有1", "独有2"), snapshot);
+        assertTrue(rare > common);
+
+        // 语料级IDF的阈值判定与完整计算一致
+        List<List<String>> pairs = Arrays.asList(Arrays.asList("公共词", "独有1", "词1"),
+                Arrays.asList("公共词", "独有2", "词1"), Arrays.asList("独有1", "独有2"), Arrays.asList("词2", "独有3"));
+        for (List<String> a : pairs) {
+            for (List<String> b : pairs) {
+                double similarity = calculator.calculateSimilarity(a, b, snapshot);
+                for (double threshold : new double[]{0.3, 0.6, 0.8, 1.0}) {
+                    assertEquals(similarity >= threshold, calculator.isSimilarityAtLeast(a, b, threshold, snapshot, null));
+                }
+            }
+        }
+    }
+
+    // 测试27：外存索引构建（多个临时块归并）与内存索引的倒排列表完全一致
+    @Test
+    public void testSpimiIndexBuilder() throws IOException {
+        File directory = Files.createTempDirectory("spimi").toFile();
+        Random random = new Random(3);
+        CorpusIndex expected = new CorpusIndex();
+        // 预算很小，迫使构建过程写出多个临时块
+        SpimiIndexBuilder builder = new SpimiIndexBuilder(new File(directory, "blocks").toPath(), 4096);
+        for (int d = 0; d < 300; d++) {
+            List<String> words = new ArrayList<>();
+            for (int w = 0; w < 30; w++) {
+                words.add("词" + random.nextInt(200));
+            }
+            expected.addDocument(words);
+            assertEquals(d, builder.addDocument(words));
+        }
+        File indexFile = new File(directory, "corpus.idx");
+        SpimiIndexBuilder.BuildStats stats = builder.build(indexFile.toPath());
+        assertTrue(stats.getBlocks() > 1);
+        assertEquals(300, stats.getDocuments());
+        assertTrue(stats.getPeakHeapBytes() > 0);
+
+        try (DiskIndex index = DiskIndex.open(indexFile.toPath())) {
+            assertEquals(300, index.documentCount());
+            assertEquals(stats.getTerms(), index.termCount());
+            for (int term = 0; term < 200; term++) {
+                assertArrayEquals(expected.postings("词" + term).toArray(), index.postings("词" + term).toArray());
+            }
+            assertEquals(0, index.documentFrequency("不存在"));
+        }
+        assertFalse(new File(directory, "blocks").exists()); // 临时块及其目录已清理
+        indexFile.delete();
+        directory.delete();
+    }
+
+    // 测试28：分片检索使用全局IDF，合并后的结果与单个分片持有全部文档时、单机语料级IDF打分时一致
+    @Test
+    public void testShardedSearch() throws IOException {
+        String[] texts = {
+                "今天是星期天，天气晴，今天晚上我要去看电影。",
+                "今天是周天，天气晴朗，我晚上要去看电影。",
+                "猫是一种常见的家庭宠物，喜欢吃鱼和老鼠。",
+                "计算机科学是一门研究计算理论和实践的学科。",
+                "苹果是一种水果，味道很甜。",
+                "苹果是一种水果，颜色有红色和绿色。",
+                "今天晚上天气晴朗，适合看电影。"
+        };
+        Map<String, List<String>> all = new LinkedHashMap<>();
+        List<Map<String, List<String>>> partitions = new ArrayList<>();
+        for (int s = 0; s < 3; s++) {
+            partitions.add(new LinkedHashMap<String, List<String>>());
+        }
+        for (int i = 0; i < texts.length; i++) {
+            List<String> words = preprocessor.preprocess(texts[i]);
+            all.put("doc" + i, words);
+            partitions.get(i % 3).put("doc" + i, words);
+        }
+
+        List<ShardServer> servers = new ArrayList<>();
+        try {
+            List<URI> shardUris = new ArrayList<>();
+            for (Map<String, List<String>> partition : partitions) {
+                ShardServer server = new ShardServer(partition, calculator);
+                servers.add(server);
+                shardUris.add(URI.create("http://127.0.0.1:" + server.start(0)));
+            }
+            ShardServer single = new ShardServer(all, calculator);
+            servers.add(single);
+            int singlePort = single.start(0);
+
+            List<String> query = preprocessor.preprocess("今天是星期天，天气晴朗，晚上去看电影。");
+            try (ShardCoordinator sharded = new ShardCoordinator(shardUris, calculator);
+                 ShardCoordinator whole = new ShardCoordinator(
+                         Collections.singletonList(URI.create("http://127.0.0.1:" + singlePort)), calculator)) {
+                List<ShardCoordinator.Hit> expected = whole.search(query, 3);
+                List<ShardCoordinator.Hit> actual = sharded.search(query, 3);
+                assertEquals(3, actual.size());
+                assertEquals(expected.toString(), actual.toString());
+                assertTrue(actual.get(0).getName().equals("doc0") || actual.get(0).getName().equals("doc1"));
+                assertTrue(actual.get(0).getScore() >= actual.get(1).getScore());
+
+                // 分片分数与单机语料级IDF打分一致（完整向量的模，而不只是共同词）
+                DocumentFrequencyAccumulator accumulator = new DocumentFrequencyAccumulator();
+                for (List<String> words : all.values()) {
+                    accumulator.addDocument(calculator.filterScoredWords(words));
+                }
+                DfSnapshot corpus = accumulator.publish();
+                List<String> mixed = preprocessor.preprocess("今天晚上看电影，水果很甜，家庭宠物，研究理论。");
+                List<ShardCoordinator.Hit> every = sharded.search(mixed, texts.length);
+                assertTrue(every.size() > 3);
+                for (ShardCoordinator.Hit hit : every) {
+                    assertEquals(calculator.calculateSimilarity(mixed, all.get(hit.getName()), corpus),
+                            hit.getScore(), 1e-9);
+                }
+            }
+        } finally {
+            servers.forEach(ShardServer::close);
+        }
+    }
+
+    // 测试29：限时查重在预算充足时返回精确值，预算耗尽时返回估计值，估计本身也不超出预算
+    @Test
+    public void testDeadlineChecker() {
+        String original = "今天是星期天，天气晴，今天晚上我要去看电影。";
+        String copy = "今天是周天，天气晴朗，我晚上要去看电影。";
+        try (DeadlineChecker checker = new DeadlineChecker(preprocessor, calculator, 2)) {
+            DeadlineChecker.Result exact = checker.check(original, copy, 10_000);
+            assertTrue(exact.isExact());
+            assertEquals(calculator.calculateSimilarity(preprocessor.preprocess(original), preprocessor.preprocess(copy)),
+                    exact.getSimilarity(), 1e-9);
+
+            StringBuilder large = new StringBuilder();
+            for (int i = 0; i < 5000; i++) {
+                large.append(original);
+            }
+            DeadlineChecker.Result estimated = checker.check(large.toString(), large.toString(), 0);
+            assertFalse(estimated.isExact());
+            assertEquals(1.0, estimated.getSimilarity(), 0.01);
+            assertEquals(0.0, checker.estimate(original, "猫喜欢吃鱼和老鼠。"), 0.05);
+
+            // 预算短于完整估计的耗时：估计在预算到期时停止，用已处理的样本块给出结果
+            checker.estimate(large.toString(), large.toString());
+            long start = System.nanoTime();
+            checker.estimate(large.toString(), large.toString());
+            long fullEstimateMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            DeadlineChecker.Result partial = checker.check(large.toString(), large.toString(), fullEstimateMillis / 4);
+            assertFalse(partial.isExact());
+            assertEquals(1.0, partial.getSimilarity(), 0.01);
+            assertTrue(partial.getElapsedMillis() < fullEstimateMillis);
+        }
+    }
+
+    // 测试30：配置热加载后预处理器立即使用新配置，旧配置下的缓存结果被清理
+    @Test
+    public void testConfigHotReload() throws IOException {
+        File directory = Files.createTempDirectory("config").toFile();
+        File stopwordsFile = new File(directory, "stopwords.txt");
+        File synonymsFile = new File(directory, "synonyms.txt");
+        Files.write(stopwordsFile.toPath(), "的\n是".getBytes("UTF-8"));
+        Files.write(synonymsFile.toPath(), "周天,星期天".getBytes("UTF-8"));
+
+        try (ConfigLoader loader = new ConfigLoader(fileAccessor, directory.toPath())) {
+            assertTrue(loader.reload());
+            assertFalse(loader.reload()); // 内容未变化时不替换
+            TextPreprocessor hotPreprocessor = new TextPreprocessor(loader::currentSnapshot, TextPreprocessor.Mode.SEGMENTED);
+            SimilarityCache cache = new SimilarityCache(10);
+            loader.addReloadListener(snapshot -> cache.retainFingerprint(hotPreprocessor.getConfigFingerprint()));
+
+            String text = "今天是周天，我要去看电影。";
+            List<String> before = hotPreprocessor.preprocess(text);
+            assertTrue(before.contains("星期天"));
+            assertTrue(before.contains("电影"));
+            String oldFingerprint = hotPreprocessor.getConfigFingerprint();
+            cache.getOrCompute("a", "b", oldFingerprint, () -> 0.5);
+            assertEquals(1, cache.size());
+
+            Files.write(stopwordsFile.toPath(), "的\n是\n电影".getBytes("UTF-8"));
+            assertTrue(loader.reload());
+            List<String> after = hotPreprocessor.preprocess(text);
+            assertFalse(after.contains("电影"));
+            assertTrue(after.contains("星期天"));
+            assertTrue(loader.getStopwords().contains("电影")); // getter 读取的是替换后的快照
+            assertEquals("星期天", loader.getSynonyms().get("周天"));
+            assertNotEquals(oldFingerprint, hotPreprocessor.getConfigFingerprint());
+            assertEquals(0, cache.size());
+        }
+        stopwordsFile.delete();
+        synonymsFile.delete();
+        directory.delete();
+    }
+
+    // 测试31：句子顺序打乱时词袋分数不变，融合n元组包含度后分数下降；默认权重下分数不变
+    @Test
+    public void testOrderAwareSimilarity() {
+        String original = "计算机科学是一门研究计算理论和实践的学科。苹果是一种水果，颜色有红色和绿色。"
+                + "Java的特点是跨平台性，通过JVM实现一次编写，到处运行。";
+        String reordered = "Java的特点是跨平台性，通过JVM实现一次编写，到处运行。"
+                + "苹果是一种水果，颜色有红色和绿色。计算机科学是一门研究计算理论和实践的学科。";
+        List<String> words1 = preprocessor.preprocess(original);
+        List<String> words2 = preprocessor.preprocess(reordered);
+        double bagScore = calculator.calculateSimilarity(words1, words2);
+        assertEquals(calculator.calculateSimilarity(words1, words1), bagScore, 1e-9);
+        assertEquals("", calculator.getScoringFingerprint());
+
+        NGramSimilarity.Result ngrams = calculator.compareNGrams(words1, words2);
+        assertTrue(ngrams.containment() < 1.0);
+        assertTrue(ngrams.resemblance() <= ngrams.containment());
+        assertEquals(1.0, calculator.compareNGrams(words1, words1).resemblance(), 1e-9);
+
+        SimilarityCalculator ordered = new SimilarityCalculator();
+        ordered.setOrderWeight(0.3, 3);
+        assertEquals(bagScore, ordered.calculateSimilarity(words1, words1), 1e-9);
+        double orderedScore = ordered.calculateSimilarity(words1, words2);
+        assertEquals(0.7 * bagScore + 0.3 * ngrams.containment(), orderedScore, 1e-9);
+        assertTrue(orderedScore < bagScore);
+        assertNotEquals("", ordered.getScoringFingerprint());
+        // 阈值判定模式的上下界同样考虑词序权重
+        assertTrue(ordered.isSimilarityAtLeast(words1, words2, orderedScore, null));
+        assertFalse(ordered.isSimilarityAtLeast(words1, words2, orderedScore + 1e-6, null));
+    }
+
+    // 测试32：词语编辑距离的位并行、带状算法与定义一致，编辑相似度区分近似改写与无关文本
+    @Test
+    public void testTokenEditDistance() {
+        assertEquals(3, TokenEditDistance.distance(Arrays.asList("k", "i", "t", "t", "e", "n"),
+                Arrays.asList("s", "i", "t", "t", "i", "n", "g")));
+        assertEquals(2, TokenEditDistance.distance(Collections.<String>emptyList(), Arrays.asList("a", "b")));
+
+        // 超过64个词时位并行跨越多个字块，与带状动态规划结果一致
+        int[] a = new int[150];
+        int[] b = new int[140];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = 1 + i % 37;
+        }
+        for (int i = 0; i < b.length; i++) {
+            b[i] = i % 11 == 0 ? 38 : 1 + (i + 3) % 37;
+        }
+        assertEquals(TokenEditDistance.banded(a, b), TokenEditDistance.bitParallel(b, a, 39));
+
+        String original = "今天是星期天，天气晴，今天晚上我要去看电影。";
+        double paraphrase = calculator.calculateEditSimilarity(preprocessor.preprocess(original),
+                preprocessor.preprocess("今天是周天，天气晴朗，我晚上要去看电影。"));
+        double unrelated = calculator.calculateEditSimilarity(preprocessor.preprocess(original),
+                preprocessor.preprocess("猫是一种常见的家庭宠物，喜欢吃鱼和老鼠。"));
+        assertTrue(paraphrase > unrelated);
+        assertEquals(1.0, calculator.calculateEditSimilarity(preprocessor.preprocess(original),
+                preprocessor.preprocess(original)), 1e-9);
+    }
+
+    // 测试33：贪心串覆盖对整段调换顺序的抄袭给出高覆盖率，并定位每个覆盖块
+    @Test
+    public void testGreedyStringTiling() {
+        List<String> original = Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h", "i", "j");
+        List<String> moved = Arrays.asList("f", "g", "h", "i", "x", "a", "b", "c", "d", "y");
+        GreedyStringTiling.Result result = new GreedyStringTiling(3).tile(original, moved);
+        assertEquals(2, result.getTiles().size());
+        GreedyStringTiling.Tile first = result.getTiles().get(0);
+        assertEquals(0, first.getOriginalStart());
+        assertEquals(5, first.getPlagiarizedStart());
+        assertEquals(4, first.getLength());
+        assertEquals(Arrays.asList("f", "g", "h", "i"), result.tokens(result.getTiles().get(1)));
+        assertEquals(16.0 / 20, result.coverage(), 1e-9);
+
+        // 短于最小匹配长度的公共片段不计入
+        assertEquals(0.0, new GreedyStringTiling(5).tile(original, moved).coverage(), 1e-9);
+        assertTrue(result.formatReport().contains("原文[5,9) ↔ 抄袭版[0,4)"));
+
+        String text = "计算机科学是一门研究计算理论和实践的学科。Java的特点是跨平台性，通过JVM实现一次编写，到处运行。";
+        String swapped = "Java的特点是跨平台性，通过JVM实现一次编写，到处运行。计算机科学是一门研究计算理论和实践的学科。";
+        GreedyStringTiling.Result tiled = calculator.calculateTiling(preprocessor.preprocess(text),
+                preprocessor.preprocess(swapped), GreedyStringTiling.DEFAULT_MINIMUM_MATCH_LENGTH);
+        assertEquals(1.0, tiled.coverage(), 1e-9);
+        assertEquals(2, tiled.getTiles().size());
+    }
+
+    // 测试34：默认打分器与原算法一致；可替换为杰卡德、BM25或自定义融合，只支持默认打分的路径拒绝自定义打分器
+    @Test
+    public void testPluggableScorers() {
+        List<String> words1 = preprocessor.preprocess("今天是星期天，天气晴，今天晚上我要去看电影。");
+        List<String> words2 = preprocessor.preprocess("今天是周天，天气晴朗，我晚上要去图书馆。");
+        List<String> unrelated = preprocessor.preprocess("猫是一种常见的家庭宠物，喜欢吃鱼和老鼠。");
+        DocumentProfile profile1 = calculator.profile(words1);
+        DocumentProfile profile2 = calculator.profile(words2);
+        DocumentProfile unrelatedProfile = calculator.profile(unrelated);
+        assertEquals(calculator.calculateSimilarity(words1, words2),
+                calculator.calculateSimilarity(profile1, profile2), 1e-12);
+        assertEquals(profile1.length(), calculator.filterScoredWords(words1).size());
+
+        for (SimilarityScorer scorer : new SimilarityScorer[]{CosineScorer.termFrequency(), new JaccardScorer(),
+                new Bm25Scorer(), BlendScorer.defaultBlend()}) {
+            assertEquals(scorer.getName(), 1.0, scorer.score(profile1, profile1), 1e-9);
+            assertEquals(scorer.getName(), 0.0, scorer.score(profile1, unrelatedProfile), 1e-9);
+            double score = scorer.score(profile1, profile2);
+            assertTrue(scorer.getName(), score > 0 && score < 1);
+        }
+
+        SimilarityCalculator jaccardOnly = new SimilarityCalculator();
+        jaccardOnly.setScorer(new JaccardScorer());
+        double jaccard = jaccardOnly.calculateSimilarity(words1, words2);
+        assertEquals(calculator.calculateJaccardSimilarity(calculator.filterScoredWords(words1),
+                calculator.filterScoredWords(words2)), jaccard, 1e-12);
+        assertEquals(";scorer=jaccard", jaccardOnly.getScoringFingerprint());
+        assertTrue(jaccardOnly.isSimilarityAtLeast(words1, words2, jaccard, null));
+        assertFalse(jaccardOnly.isSimilarityAtLeast(words1, words2, jaccard + 1e-6, null));
+
+        // 只实现了默认打分的路径不会悄悄忽略自定义打分器，而是直接报错
+        assertTrue(calculator.isDefaultScoring());
+        assertFalse(jaccardOnly.isDefaultScoring());
+        DocumentFrequencyAccumulator accumulator = new DocumentFrequencyAccumulator();
+        accumulator.addDocument(words1);
+        DfSnapshot corpus = accumulator.publish();
+        try {
+            jaccardOnly.calculateSimilarity(words1, words2, corpus);
+            fail("语料级IDF打分不支持自定义打分器");
+        } catch (IllegalStateException expected) {
+            // 预期异常
+        }
+        try {
+            jaccardOnly.calculateApproximateSimilarity(new ApproximateTermProfile(), new ApproximateTermProfile());
+            fail("近似模式不支持自定义打分器");
+        } catch (IllegalStateException expected) {
+            // 预期异常
+        }
+        try {
+            new ShardServer(Collections.singletonMap("doc", words1), jaccardOnly);
+            fail("分片检索不支持自定义打分器");
+        } catch (IllegalArgumentException expected) {
+            // 预期异常
+        }
+
+        SimilarityScorer custom = new BlendScorer.Builder()
+                .add(new Bm25Scorer(), 0.5)
+                .add(new JaccardScorer(), 0.5)
+                .build();
+        assertEquals(0.5 * new Bm25Scorer().score(profile1, profile2) + 0.5 * jaccard,
+                custom.score(profile1, profile2), 1e-12);
+    }
+
+    // 测试35：不解压直接读取 zip、tar.gz 中的提交，两种格式的报告一致
+    @Test
+    public void testArchiveIngestion() throws IOException {
+        Map<String, String> submissions = new LinkedHashMap<>();
+        submissions.put("2023/a.txt", "今天是星期天，天气晴，今天晚上我要去看电影。");
+        submissions.put("2023/b.txt", "今天是周天，天气晴朗，我晚上要去看电影。");
+        submissions.put("2023/c.txt", "猫是一种常见的家庭宠物，喜欢吃鱼和老鼠。");
+
+        File zipFile = File.createTempFile("submissions", ".zip");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            zip.putNextEntry(new ZipEntry("2023/"));
+            zip.putNextEntry(new ZipEntry("__MACOSX/2023/._a.txt"));
+            zip.write(new byte[]{0, 1, 2});
+            for (Map.Entry<String, String> entry : submissions.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes("UTF-8"));
+            }
+        }
+        File tarFile = File.createTempFile("submissions", ".tar.gz");
+        try (GZIPOutputStream tar = new GZIPOutputStream(new FileOutputStream(tarFile))) {
+            for (Map.Entry<String, String> entry : submissions.entrySet()) {
+                writeTarEntry(tar, entry.getKey(), entry.getValue().getBytes("UTF-8"));
+            }
+            tar.write(new byte[1024]);
+        }
+
+        Map<String, String> fromZip = new LinkedHashMap<>();
+        fileAccessor.readArchive(zipFile.getPath(), fromZip::put);
+        assertEquals(submissions, fromZip);
+        Map<String, String> fromTar = new LinkedHashMap<>();
+        fileAccessor.readArchive(tarFile.getPath(), fromTar::put);
+        assertEquals(submissions, fromTar);
+
+        ArchiveChecker checker = new ArchiveChecker(fileAccessor, preprocessor, calculator, 2);
+        ArchiveChecker.Result result = checker.check(zipFile.getPath(), 0.8);
+        assertEquals(3, result.getDocumentCount());
+        assertEquals(3, result.getPairCount());
+        assertEquals(1, result.getMatches().size());
+        assertEquals("2023/b.txt", result.getMatches().get(0).getSecond());
+        assertEquals("2023/a.txt", result.getBestMatches().get("2023/b.txt").other("2023/b.txt"));
+        assertEquals(result.formatReport(), checker.check(tarFile.getPath(), 0.8).formatReport());
+
+        zipFile.delete();
+        tarFile.delete();
+    }
+
+    // ustar 格式的最小条目：头部（含校验和）+ 按512字节补齐的内容
+    private static void writeTarEntry(OutputStream out, String name, byte[] content) throws IOException {
+        writeTarHeader(out, name, content.length);
+        out.write(content);
+        out.write(new byte[(512 - content.length % 512) % 512]);
+    }
+
+    private static void writeTarHeader(OutputStream out, String name, long contentLength) throws IOException {
+        byte[] header = new byte[512];
+        byte[] nameBytes = name.getBytes("UTF-8");
+        System.arraycopy(nameBytes, 0, header, 0, nameBytes.length);
+        byte[] size = String.format("%011o", contentLength).getBytes("US-ASCII");
+        System.arraycopy(size, 0, header, 124, size.length);
+        header[156] = '0';
+        System.arraycopy("ustar".getBytes("US-ASCII"), 0, header, 257, 5);
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        int checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xFF;
+        }
+        byte[] checksumBytes = String.format("%06o", checksum).getBytes("US-ASCII");
+        System.arraycopy(checksumBytes, 0, header, 148, checksumBytes.length);
+        header[154] = 0;
+        out.write(header);
+    }
+
+    // 测试36：稀疏矩阵乘法得到的相似度矩阵与逐对计算一致，矩阵文件可读回
+    @Test
+    public void testCosineMatrix() throws IOException {
+        List<String> names = new ArrayList<>();
+        List<List<String>> tokens = new ArrayList<>();
+        for (String[] pair : PerformanceBenchmark.FIXTURE_PAIRS) {
+            for (String text : pair) {
+                names.add("doc" + names.size());
+                tokens.add(preprocessor.preprocess(text));
+            }
+        }
+        CosineMatrix matrix = new CosineMatrixJob(calculator, 3).compute(names, tokens);
+        File file = File.createTempFile("matrix", ".bin");
+        matrix.write(file.toPath());
+        CosineMatrix loaded = CosineMatrix.read(file.toPath());
+        assertEquals(names, loaded.getNames());
+
+        for (int i = 0; i < names.size(); i++) {
+            for (int j = 0; j < names.size(); j++) {
+                double expected = i == j && !calculator.filterScoredWords(tokens.get(i)).isEmpty()
+                        ? 1.0 : Math.min(1.0, calculator.calculateSimilarity(tokens.get(i), tokens.get(j)));
+                assertEquals(names.get(i) + "," + names.get(j), expected, matrix.get(i, j), 1e-6);
+                assertEquals(expected, loaded.get(i, j), CosineMatrix.FILE_PRECISION + 1e-7);
+            }
+        }
+        file.delete();
+
+        SimilarityCalculator blended = new SimilarityCalculator();
+        blended.setOrderWeight(0.3, 3);
+        try {
+            new CosineMatrixJob(blended, 1);
+            fail("矩阵模式不支持词序融合");
+        } catch (IllegalArgumentException expected) {
+            // 预期异常
+        }
+    }
+
+    // 测试37：繁体、全角文本归一化后与简体半角文本预处理结果相同
+    @Test
+    public void testCharacterFolding() {
+        assertEquals("abc123 语言", CharFolder.fold("　ＡＢＣ１２３　語言@#"));
+        assertEquals("hello, world! 算法", CharFolder.fold("  Hello, World!\t\n算法 "));
+        assertEquals("", CharFolder.fold("@#$%　"));
+
+        String simplified = "今天是星期天，天气晴，今天晚上我要去看电影。Java编程语言";
+        String traditional = "今天是星期天，天氣晴，今天晚上我要去看電影。ＪＡＶＡ編程語言";
+        List<String> expected = preprocessor.preprocess(simplified);
+        assertEquals(expected, preprocessor.preprocess(traditional));
+        assertEquals(1.0, calculator.calculateSimilarity(expected, preprocessor.preprocess(traditional)), 1e-9);
+    }
+
+    // 测试38：英文片段切词后提取词干并过滤英文停用词，中文片段仍由HanLP分词
+    @Test
+    public void testEnglishStemming() {
+        assertEquals(Arrays.asList("copi", "copi", "copi"), preprocessor.preprocess("Copying, copied and copies."));
+        assertEquals("relat", PorterStemmer.stem("relational"));
+        assertEquals("hop", PorterStemmer.stem("hopping"));
+
+        List<String> words1 = preprocessor.preprocess("The students were copying the answers.");
+        List<String> words2 = preprocessor.preprocess("A student copied an answer!");
+        assertEquals(Arrays.asList("student", "copi", "answer"), words1);
+        assertEquals(1.0, calculator.calculateSimilarity(words1, words2), 0.01);
+
+        List<String> mixed = preprocessor.preprocess("学生们在Programming课上抄袭答案");
+        assertTrue(mixed.contains("program"));
+        assertTrue(mixed.contains("抄袭"));
+    }
+
+    // 测试39：打分器直接在堆外向量存储上打分，与画像打分一致
+    @Test
+    public void testScoringFromOffHeapVectorStore() {
+        TermDictionary dictionary = new TermDictionary();
+        OffHeapVectorStore store = new OffHeapVectorStore(256);
+        List<DocumentProfile> profiles = new ArrayList<>();
+        for (String[] pair : PerformanceBenchmark.FIXTURE_PAIRS) {
+            for (String text : pair) {
+                List<String> words = preprocessor.preprocess(text);
+                store.add(calculator.termFrequencyVector(words, dictionary));
+                profiles.add(calculator.profile(words));
+            }
+        }
+
+        SimilarityCalculator termFrequency = new SimilarityCalculator();
+        termFrequency.setScorer(CosineScorer.termFrequency());
+        for (SimilarityCalculator scoring : Arrays.asList(calculator, termFrequency)) {
+            assertTrue(scoring.supportsStoredVectors());
+            for (int i = 0; i < profiles.size(); i++) {
+                for (int j = 0; j < profiles.size(); j++) {
+                    assertEquals(i + "," + j, scoring.calculateSimilarity(profiles.get(i), profiles.get(j)),
+                            scoring.calculateSimilarity(store, i, j), 1e-6);
+                }
+            }
+        }
+
+        SimilarityCalculator bm25 = new SimilarityCalculator();
+        bm25.setScorer(new Bm25Scorer());
+        assertFalse(bm25.supportsStoredVectors());
+        try {
+            bm25.calculateSimilarity(store, 0, 1);
+            fail("BM25不支持堆外向量打分");
+        } catch (IllegalStateException expected) {
+            // 预期异常
+        }
+    }
+
+    // 测试40：全量聚类在合成语料上的召回：逐对精确计算达到阈值的文档对，几乎都落在同一簇
+    @Test
+    public void testClusteringRecallMatchesBruteForce() {
+        Map<String, String> synonyms = new HashMap<>();
+        synonyms.put("周天", "星期天");
+        synonyms.put("晴朗", "晴");
+        synonyms.put("影片", "电影");
+        List<String> seeds = Arrays.asList(
+                "今天是星期天，天气晴，今天晚上我要去看电影。",
+                "猫是一种常见的家庭宠物，喜欢吃鱼和老鼠。",
+                "计算机科学是一门研究计算理论和实践的学科。",
+                "苹果是一种水果，味道很甜，颜色有红色和绿色。",
+                "图书馆里有很多书，学生们每天都去那里学习。",
+                "春天来了，公园里的花都开了，孩子们在草地上放风筝。");
+        Map<String, String> documents = new SyntheticCorpusGenerator(synonyms,
+                new SyntheticCorpusGenerator.MutationRates(0.5, 0.3, 0.1, 0.1, 0.02), 42)
+                .generate(seeds, 30, 4, 2).getDocuments();
+        List<String> names = new ArrayList<>(documents.keySet());
+        List<List<String>> tokens = new ArrayList<>();
+        for (String name : names) {
+            tokens.add(preprocessor.preprocess(documents.get(name)));
+        }
+
+        for (double threshold : new double[]{0.5, 0.8, 0.9}) {
+            Map<String, Integer> membership = new ClusteringJob(preprocessor, calculator, threshold)
+                    .cluster(names, tokens).membership();
+            int expected = 0;
+            int found = 0;
+            for (int a = 0; a < names.size(); a++) {
+                for (int b = a + 1; b < names.size(); b++) {
+                    if (calculator.calculateSimilarity(tokens.get(a), tokens.get(b)) >= threshold) {
+                        expected++;
+                        Integer clusterA = membership.get(names.get(a));
+                        if (clusterA != null && clusterA.equals(membership.get(names.get(b)))) {
+                            found++;
+                        }
+                    }
+                }
+            }
+            assertTrue(expected > 0);
+            double recall = (double) found / expected;
+            // 共享词索引不会漏检；LSH按杰卡德下界保证95%的候选概率
+            assertTrue("阈值" + threshold + "召回" + recall, threshold <= 0.6 ? recall == 1.0 : recall >= 0.95);
+        }
+    }
+
+    // 测试41：超时的精确计算在分词中途被取消并释放线程，单线程的限时查重紧接着仍能在预算内给出精确值
+    @Test
+    public void testDeadlineCheckerFreesThreadAfterDeadline() {
+        String original = "今天是星期天，天气晴，今天晚上我要去看电影。";
+        String copy = "今天是周天，天气晴朗，我晚上要去看电影。";
+        StringBuilder huge = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            huge.append(original);
+        }
+        try (DeadlineChecker checker = new DeadlineChecker(preprocessor, calculator, 1)) {
+            assertFalse(checker.check(huge.toString(), huge.toString(), 20).isExact());
+            // 完整的精确计算需要数秒；被取消的任务若继续占用唯一的线程，这里只能得到估计值
+            DeadlineChecker.Result next = checker.check(original, copy, 1000);
+            assertTrue(next.isExact());
+            assertEquals(calculator.calculateSimilarity(preprocessor.preprocess(original), preprocessor.preprocess(copy)),
+                    next.getSimilarity(), 1e-9);
+        }
+    }
+
+    // 测试42：限时查重的估计值与精确值使用同一套停用词和同义词，在样例文本对上跟随精确值；
+    // 估计只会因词频余弦覆盖全部词语而偏低
+    @Test
+    public void testDeadlineEstimateTracksExactScore() {
+        try (DeadlineChecker checker = new DeadlineChecker(preprocessor, calculator, 1)) {
+            double totalDifference = 0;
+            for (String[] pair : PerformanceBenchmark.FIXTURE_PAIRS) {
+                double exact = Math.min(1.0, calculator.calculateSimilarity(
+                        preprocessor.preprocess(pair[0]), preprocessor.preprocess(pair[1])));
+                double estimate = checker.estimate(pair[0], pair[1]);
+                assertTrue(pair[1] + ": " + estimate + " vs " + exact, estimate <= exact + 0.05);
+                assertEquals(pair[1], exact, estimate, 0.3);
+                totalDifference += Math.abs(estimate - exact);
+            }
+            assertTrue(totalDifference / PerformanceBenchmark.FIXTURE_PAIRS.length < 0.12);
+        }
+    }
+
+    // 测试43：一次查重请求只取一次配置快照，请求中途热加载时缓存指纹与两次预处理仍使用同一份配置
+    @Test
+    public void testServiceUsesOneConfigSnapshotPerRequest() {
+        ConfigSnapshot before = new ConfigSnapshot(Collections.<String>emptySet(), Collections.<String, String>emptyMap());
+        ConfigSnapshot after = new ConfigSnapshot(Collections.singleton("电影"), Collections.<String, String>emptyMap());
+        AtomicInteger reads = new AtomicInteger();
+        // 第一次读取之后配置即被替换
+        TextPreprocessor reloading = new TextPreprocessor(
+                () -> reads.getAndIncrement() == 0 ? before : after, TextPreprocessor.Mode.SEGMENTED);
+        SimilarityCache cache = new SimilarityCache(10);
+        PlagiarismCheckerService service = new PlagiarismCheckerService(fileAccessor, reloading, calculator, cache);
+
+        String original = "今天晚上我要去看电影，电影很好看。";
+        String copy = "我今晚去看一场电影。";
+        double similarity = service.calculateSimilarity(original, copy);
+        TextPreprocessor fixed = new TextPreprocessor(before.getStopwords(), before.getSynonyms());
+        assertEquals(calculator.calculateSimilarity(fixed.preprocess(original), fixed.preprocess(copy)), similarity, 1e-9);
+        assertEquals(1, reads.get());
+        String fingerprint = reloading.getConfigFingerprint(before) + calculator.getScoringFingerprint();
+        assertEquals(similarity, cache.getOrCompute(SimilarityCache.contentHash(original),
+                SimilarityCache.contentHash(copy), fingerprint, () -> -1.0), 1e-9);
+    }
+
+    // 测试44：本机分片进程继承 plagiarism.* 系统属性（配置目录等），与协调者使用相同的配置
+    @Test
+    public void testShardCommandForwardsConfigProperties() {
+        String previous = System.getProperty("plagiarism.configDir");
+        System.setProperty("plagiarism.configDir", "/tmp/plagiarism-config");
+        try {
+            List<String> command = ShardCoordinator.shardCommand("docs", 1, 3);
+            int mainClass = command.indexOf(ShardServer.class.getName());
+            assertTrue(command.indexOf("-Dplagiarism.configDir=/tmp/plagiarism-config") > 0);
+            assertTrue(command.indexOf("-Dplagiarism.configDir=/tmp/plagiarism-config") < mainClass);
+            assertEquals(Arrays.asList("docs", "1", "3"), command.subList(mainClass + 1, command.size()));
+        } finally {
+            if (previous == null) {
+                System.clearProperty("plagiarism.configDir");
+            } else {
+                System.setProperty("plagiarism.configDir", previous);
+            }
+        }
+    }
+
+    // 测试45：tar 中不读取的条目直接跳过，超过2GB也不影响其余提交；同名条目编号后分别参与比较
+    @Test
+    public void testTarSkipsUnreadEntriesAndKeepsDuplicateNames() throws IOException {
+        String text = "今天是星期天，天气晴，今天晚上我要去看电影。";
+        File tarFile = File.createTempFile("submissions", ".tar");
+        try (FileOutputStream out = new FileOutputStream(tarFile)) {
+            // 3GB 的隐藏文件只写头部，内容留作稀疏空洞
+            long hugeSize = 3L << 30;
+            writeTarHeader(out, "2023/.cache", hugeSize);
+            out.getChannel().position(out.getChannel().position() + hugeSize);
+            writeTarEntry(out, "2023/a.txt", text.getBytes("UTF-8"));
+            writeTarEntry(out, "2023/a.txt", text.getBytes("UTF-8"));
+            out.write(new byte[1024]);
+        }
+        try {
+            List<String> names = new ArrayList<>();
+            fileAccessor.readArchive(tarFile.getPath(), (name, content) -> names.add(name));
+            assertEquals(Arrays.asList("2023/a.txt", "2023/a.txt"), names);
+
+            ArchiveChecker.Result result = new ArchiveChecker(fileAccessor, preprocessor, calculator, 2)
+                    .check(tarFile.getPath(), 0.8);
+            assertEquals(2, result.getDocumentCount());
+            assertEquals(1, result.getMatches().size());
+            assertEquals("2023/a.txt", result.getMatches().get(0).getFirst());
+            assertEquals("2023/a.txt (2)", result.getMatches().get(0).getSecond());
+        } finally {
+            tarFile.delete();
+        }
+    }
+
+    // 测试46：相似度矩阵文件按 1/65535 定点量化，读回的值与写入前最多相差半个量化步长
+    @Test
+    public void testCosineMatrixFileRoundTripPrecision() throws IOException {
+        int n = 200;
+        List<String> names = new ArrayList<>();
+        boolean[] nonEmpty = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            names.add("doc" + i);
+            nonEmpty[i] = true;
+        }
+        float[] upper = new float[CosineMatrix.upperSize(n)];
+        Random random = new Random(7);
+        for (int i = 0; i < upper.length; i++) {
+            // 一半取量化步长的中点（最坏情况），一半随机取值
+            upper[i] = i % 2 == 0 ? (float) ((random.nextInt(65535) + 0.5) / 65535) : random.nextFloat();
+        }
+        CosineMatrix matrix = new CosineMatrix(names, nonEmpty, upper);
+        File file = File.createTempFile("matrix", ".bin");
+        try {
+            matrix.write(file.toPath());
+            CosineMatrix loaded = CosineMatrix.read(file.toPath());
+            double maxDifference = 0;
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    maxDifference = Math.max(maxDifference, Math.abs(matrix.get(i, j) - loaded.get(i, j)));
+                }
+            }
+            assertTrue(String.valueOf(maxDifference), maxDifference <= CosineMatrix.FILE_PRECISION + 1e-7);
+            // 中点处的舍入误差确实接近半个步长，说明文件不是以 float 精度保存
+            assertTrue(String.valueOf(maxDifference), maxDifference > CosineMatrix.FILE_PRECISION / 2);
+        } finally {
+            file.delete();
+        }
+    }
 }